@@ -2,8 +2,12 @@ package com.tribal;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "com.tribal")
+@EnableAsync
+@EnableScheduling
 public class VanvaapyaarApplication {
 
 	public static void main(String[] args) {
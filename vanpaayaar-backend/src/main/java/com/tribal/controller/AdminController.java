@@ -1,5 +1,9 @@
 package com.tribal.controller;
 
+import com.tribal.dto.CursorPage;
+import com.tribal.dto.OrderDetail;
+import com.tribal.dto.OrderSummary;
+import com.tribal.dto.ProductSummary;
 import com.tribal.model.*;
 import com.tribal.service.AdminService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -122,12 +126,15 @@ public class AdminController {
 //    PRODUCTTTTTTTTTTTTTTT*************************
 
     @GetMapping("/products")
-    public ResponseEntity<?> getAllProducts(){
-        List<Product> products = adminService.getAllProducts();
-        if(products.isEmpty()){
-            return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No Product Found ");
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String after,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String sort){
+        try {
+            CursorPage<ProductSummary> page = adminService.getAllProducts(after, limit, sort);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
-        return ResponseEntity.ok(products);
     }
 
     @DeleteMapping("/products/{id}")
@@ -143,7 +150,7 @@ public class AdminController {
 
     @GetMapping("/orders")
     public ResponseEntity<?> getAllOrders() {
-        List<Order> orders = adminService.getAllOrders();
+        List<OrderSummary> orders = adminService.getAllOrders();
         if (orders.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No orders found");
         }
@@ -152,7 +159,7 @@ public class AdminController {
 
     @GetMapping("/orders/{id}")
     public ResponseEntity<?> getOrderById(@PathVariable Long id) {
-        Order order = adminService.getOrderById(id);
+        OrderDetail order = adminService.getOrderById(id);
         if (order != null) {
             return ResponseEntity.ok(order);
         }
@@ -5,11 +5,18 @@ import com.tribal.model.DeliveryAgent;
 import com.tribal.model.ServiceableArea;
 import com.tribal.repository.DeliveryAgentRepository;
 import com.tribal.repository.ServiceableAreaRepository;
+import com.tribal.service.BulkImportService;
+import com.tribal.service.DeliveryAnalyticsService;
 import com.tribal.service.DeliveryService;
+import com.tribal.service.DeliveryTimerService;
+import com.tribal.service.ServiceableAreaTable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -26,8 +33,20 @@ public class AdminDeliveryController {
     
     @Autowired
     private ServiceableAreaRepository serviceableAreaRepository;
+    
+    @Autowired
+    private DeliveryTimerService deliveryTimerService;
+    
+    @Autowired
+    private DeliveryAnalyticsService deliveryAnalyticsService;
+    
+    @Autowired
+    private ServiceableAreaTable areaTable;
+    
+    @Autowired
+    private BulkImportService bulkImportService;
 
-    // Get all deliveries
+    // Newest deliveries (first page, full entities); older ones via /page
     @GetMapping("/all")
     public ResponseEntity<?> getAllDeliveries() {
         try {
@@ -38,6 +57,18 @@ public class AdminDeliveryController {
         }
     }
 
+    // Paginated delivery list for the admin dashboard, optionally filtered by status
+    @GetMapping("/page")
+    public ResponseEntity<?> getDeliveryPage(@RequestParam(required = false) String status,
+                                             @RequestParam(required = false) String after,
+                                             @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(deliveryService.getDeliveryPage(status, after, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error getting deliveries: " + e.getMessage());
+        }
+    }
+
     // Get all delivery agents
     @GetMapping("/agents")
     public ResponseEntity<?> getAllAgents() {
@@ -82,28 +113,8 @@ public class AdminDeliveryController {
     @GetMapping("/analytics/detailed")
     public ResponseEntity<?> getDetailedAnalytics() {
         try {
-            Map<String, Object> analytics = deliveryService.getDeliveryAnalytics();
-            
-            // Add additional admin-specific metrics
-            List<DeliveryAgent> overloadedAgents = agentRepository.findOverloadedAgents();
-            List<DeliveryAgent> topAgents = agentRepository.findTopRatedAgents();
-            
-            analytics.put("overloadedAgents", overloadedAgents.size());
-            analytics.put("topRatedAgents", topAgents.subList(0, Math.min(5, topAgents.size())));
-            
-            // Status breakdown
-            analytics.put("statusBreakdown", Map.of(
-                "created", deliveryService.getAllDeliveries().stream()
-                    .filter(d -> d.getStatus() == Delivery.DeliveryStatus.CREATED).count(),
-                "assigned", deliveryService.getAllDeliveries().stream()
-                    .filter(d -> d.getStatus() == Delivery.DeliveryStatus.ASSIGNED).count(),
-                "inTransit", deliveryService.getAllDeliveries().stream()
-                    .filter(d -> d.getStatus() == Delivery.DeliveryStatus.IN_TRANSIT).count(),
-                "delivered", deliveryService.getAllDeliveries().stream()
-                    .filter(d -> d.getStatus() == Delivery.DeliveryStatus.DELIVERED).count()
-            ));
-            
-            return ResponseEntity.ok(analytics);
+            // Cached snapshot: live status counters plus a few aggregate queries, refreshed every few seconds
+            return ResponseEntity.ok(deliveryAnalyticsService.getSnapshot());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error getting detailed analytics: " + e.getMessage());
         }
@@ -124,6 +135,7 @@ public class AdminDeliveryController {
     public ResponseEntity<?> addServiceableArea(@RequestBody ServiceableArea area) {
         try {
             ServiceableArea savedArea = serviceableAreaRepository.save(area);
+            areaTable.put(savedArea);
             return ResponseEntity.ok(savedArea);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error adding serviceable area: " + e.getMessage());
@@ -142,7 +154,12 @@ public class AdminDeliveryController {
                     if (areaDetails.getDeliveryCharge() != null) area.setDeliveryCharge(areaDetails.getDeliveryCharge());
                     if (areaDetails.getStandardDeliveryDays() != null) area.setStandardDeliveryDays(areaDetails.getStandardDeliveryDays());
                     
+                    if (areaDetails.getExpressDeliveryCharge() != null) area.setExpressDeliveryCharge(areaDetails.getExpressDeliveryCharge());
+                    if (areaDetails.getExpressDeliveryDays() != null) area.setExpressDeliveryDays(areaDetails.getExpressDeliveryDays());
+                    area.setUpdatedAt(LocalDateTime.now());
+                    
                     ServiceableArea updatedArea = serviceableAreaRepository.save(area);
+                    areaTable.put(updatedArea);
                     return ResponseEntity.ok(updatedArea);
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -151,17 +168,59 @@ public class AdminDeliveryController {
         }
     }
 
+    // Bulk import: CSV with a header row or a JSON array of objects, streamed and upserted in chunks
+    @PostMapping("/import/serviceable-areas")
+    public ResponseEntity<?> importServiceableAreas(@RequestParam("file") MultipartFile file,
+                                                    @RequestParam(required = false) String format) {
+        try (InputStream in = file.getInputStream()) {
+            String resolved = BulkImportService.resolveFormat(format, file.getOriginalFilename(), file.getContentType());
+            return ResponseEntity.ok(bulkImportService.importAreas(in, resolved, file.getOriginalFilename()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error importing serviceable areas: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/import/agents")
+    public ResponseEntity<?> importAgents(@RequestParam("file") MultipartFile file,
+                                          @RequestParam(required = false) String format) {
+        try (InputStream in = file.getInputStream()) {
+            String resolved = BulkImportService.resolveFormat(format, file.getOriginalFilename(), file.getContentType());
+            return ResponseEntity.ok(bulkImportService.importAgents(in, resolved, file.getOriginalFilename()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error importing agents: " + e.getMessage());
+        }
+    }
+
+    // Progress of running imports and reports of recent ones
+    @GetMapping("/imports")
+    public ResponseEntity<?> getImports() {
+        return ResponseEntity.ok(bulkImportService.getImports());
+    }
+
+    @GetMapping("/imports/{importId}")
+    public ResponseEntity<?> getImport(@PathVariable String importId) {
+        return bulkImportService.getImport(importId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     // Force process automatic assignments
     @PostMapping("/process-assignments")
     public ResponseEntity<?> processAutomaticAssignments() {
         try {
-            deliveryService.processAutomaticAssignments();
-            return ResponseEntity.ok(Map.of("success", true, "message", "Automatic assignments processed"));
+            Map<String, Object> report = deliveryService.processAutomaticAssignments();
+            return ResponseEntity.ok(Map.of("success", true, "message", "Automatic assignments processed", "report", report));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error processing assignments: " + e.getMessage());
         }
     }
 
+    // Pending delivery timers and timer thread usage
+    @GetMapping("/timers")
+    public ResponseEntity<?> getTimerStats() {
+        return ResponseEntity.ok(deliveryTimerService.getStats());
+    }
+
     // Update all agent locations (simulation)
     @PostMapping("/update-agent-locations")
     public ResponseEntity<?> updateAgentLocations() {
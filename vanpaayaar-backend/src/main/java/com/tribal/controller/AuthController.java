@@ -1,85 +1,103 @@
 package com.tribal.controller;
 
-import com.tribal.model.Admin;
+import com.tribal.dto.Identity;
 import com.tribal.model.Buyer;
 import com.tribal.model.Seller;
-import com.tribal.repository.AdminRepository;
 import com.tribal.repository.BuyerRepository;
 import com.tribal.repository.SellerRepository;
 import com.tribal.security.JwtUtil;
+import com.tribal.security.PasswordHasher;
+import com.tribal.service.IdentityService;
 import com.tribal.service.NotificationService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
-    private final AdminRepository adminRepository;
     private final BuyerRepository buyerRepository;
     private final SellerRepository sellerRepository;
     private final JwtUtil jwtUtil;
     private final NotificationService notificationService;
+    private final PasswordHasher passwordHasher;
+    private final IdentityService identityService;
 
-    public AuthController(AdminRepository adminRepository, BuyerRepository buyerRepository, SellerRepository sellerRepository, JwtUtil jwtUtil, NotificationService notificationService) {
-        this.adminRepository = adminRepository;
+    private static final Set<String> ROLES = Set.of("ADMIN", "BUYER", "SELLER");
+
+    public AuthController(BuyerRepository buyerRepository, SellerRepository sellerRepository, JwtUtil jwtUtil, NotificationService notificationService,
+                          PasswordHasher passwordHasher, IdentityService identityService) {
         this.buyerRepository = buyerRepository;
         this.sellerRepository = sellerRepository;
         this.jwtUtil = jwtUtil;
         this.notificationService = notificationService;
+        this.passwordHasher = passwordHasher;
+        this.identityService = identityService;
     }
 
     public static class LoginRequest {
         public String email;
         public String password;
-        public String role; // ADMIN, BUYER, SELLER
+        public String role; // ADMIN, BUYER, SELLER - optional, the account's own role is used when absent
     }
 
+    // One basetable lookup finds the account whatever its role; the password check then runs on
+    // PasswordHasher's pool and the request thread is released while it waits
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest req) {
-        if (req.email == null || req.password == null || req.role == null) {
-            return ResponseEntity.badRequest().body("email, password, role are required");
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest req) {
+        if (req.email == null || req.password == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("email and password are required"));
+        }
+        String requestedRole = req.role == null ? null : req.role.toUpperCase();
+        if (requestedRole != null && !ROLES.contains(requestedRole)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Unknown role"));
         }
 
-        String role = req.role.toUpperCase();
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("role", role);
-        String name = "";
-        Long id = null;
-
-        switch (role) {
-            case "ADMIN": {
-                Admin a = adminRepository.findByEmail(req.email).orElse(null);
-                if (a == null || !req.password.equals(a.getPassword())) return ResponseEntity.status(401).body("Invalid credentials");
-                name = a.getName(); id = a.getId();
-                break;
-            }
-            case "BUYER": {
-                Buyer b = buyerRepository.findByEmail(req.email).orElse(null);
-                if (b == null || !req.password.equals(b.getPassword())) return ResponseEntity.status(401).body("Invalid credentials");
-                name = b.getName(); id = b.getId();
-                break;
-            }
-            case "SELLER": {
-                Seller s = sellerRepository.findByEmail(req.email).orElse(null);
-                if (s == null || !req.password.equals(s.getPassword())) return ResponseEntity.status(401).body("Invalid credentials");
-                name = s.getName(); id = s.getId();
-                break;
+        Identity found = identityService.findByEmail(req.email);
+        // A role mismatch is reported like a wrong password, after the same amount of work
+        Identity account = found != null && (requestedRole == null || requestedRole.equals(found.getRole())) ? found : null;
+
+        return passwordHasher.verify(req.password, account == null ? null : account.getPassword()).<ResponseEntity<?>>handle((result, error) -> {
+            if (error != null) return hashingFailed(error);
+            if (!result.matches()) return ResponseEntity.status(401).body("Invalid credentials");
+
+            // Raw or under-cost password from before: store the upgraded hash (best effort)
+            if (result.rehash() != null) {
+                try {
+                    identityService.upgradePassword(account, result.rehash());
+                } catch (Exception e) {
+                    System.err.println("Could not upgrade password hash for user " + account.getId() + ": " + e.getMessage());
+                }
             }
-            default:
-                return ResponseEntity.badRequest().body("Unknown role");
-        }
 
-        String token = jwtUtil.generateToken(req.email, claims, 1000L * 60 * 60 * 10); // 10 hours
-        Map<String, Object> resp = new HashMap<>();
-        resp.put("token", token);
-        resp.put("role", role);
-        resp.put("name", name);
-        resp.put("id", id);
-        return ResponseEntity.ok(resp);
+            Map<String, Object> claims = new HashMap<>();
+            claims.put("role", account.getRole());
+            String token = jwtUtil.generateToken(account.getEmail(), claims, 1000L * 60 * 60 * 10); // 10 hours
+            Map<String, Object> resp = new HashMap<>();
+            resp.put("token", token);
+            resp.put("role", account.getRole());
+            resp.put("name", account.getName());
+            resp.put("id", account.getId());
+            return ResponseEntity.ok(resp);
+        });
+    }
+
+    // Saturated or slow hashing pool -> 503 so clients back off; anything else is a server error
+    private static ResponseEntity<?> hashingFailed(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof PasswordHasher.BusyException || cause instanceof TimeoutException) {
+            return ResponseEntity.status(503).header("Retry-After", "1")
+                    .body("Too many sign-in attempts right now, please try again shortly");
+        }
+        System.err.println("Password check failed: " + cause.getMessage());
+        return ResponseEntity.status(500).body("Login failed");
     }
 
     // -------------------- SIGNUP --------------------
@@ -104,11 +122,17 @@ public class AuthController {
         if (buyerRepository.findByEmail(req.email).isPresent()) {
             return ResponseEntity.status(409).body("Email already registered as Buyer");
         }
+        String hash;
+        try {
+            hash = passwordHasher.hash(req.password);
+        } catch (PasswordHasher.BusyException e) {
+            return hashingFailed(e);
+        }
         Buyer buyer = Buyer.builder()
                 .name(req.name)
                 .email(req.email)
-                .password(req.password)
-                .confirmPassword(req.confirmPassword)
+                .password(hash)
+                .confirmPassword(hash)
                 .phone(req.phone)
                 .address(req.address)
                 .pincode(req.pincode)
@@ -150,11 +174,17 @@ public class AuthController {
         if (!req.termsAccepted || !req.consentAccepted) {
             return ResponseEntity.badRequest().body("termsAccepted and consentAccepted must be true");
         }
+        String hash;
+        try {
+            hash = passwordHasher.hash(req.password);
+        } catch (PasswordHasher.BusyException e) {
+            return hashingFailed(e);
+        }
         Seller seller = Seller.builder()
                 .name(req.name)
                 .email(req.email)
-                .password(req.password)
-                .confirmPassword(req.confirmPassword)
+                .password(hash)
+                .confirmPassword(hash)
                 .phone(req.phone)
                 .address(req.address)
                 .pincode(req.pincode)
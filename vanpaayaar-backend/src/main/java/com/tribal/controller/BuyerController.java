@@ -1,5 +1,9 @@
 package com.tribal.controller;
 
+import com.tribal.dto.CatalogFilter;
+import com.tribal.dto.CursorPage;
+import com.tribal.dto.OrderDetail;
+import com.tribal.dto.ProductSummary;
 import com.tribal.dto.ReviewRequest;
 import com.tribal.model.Cart;
 import com.tribal.model.Order;
@@ -26,12 +30,15 @@ public class BuyerController {
     // *************** PRODUCTS *********************
 
     @GetMapping("/products")
-    public ResponseEntity<?> listProducts() {
-        List<Product> products = buyerService.listProducts();
-        if (products.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No products available");
+    public ResponseEntity<?> listProducts(@RequestParam(required = false) String after,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false) String sort) {
+        try {
+            CursorPage<ProductSummary> page = buyerService.listProducts(after, limit, sort);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
-        return ResponseEntity.ok(products);
     }
 
     @GetMapping("/products/{productId}")
@@ -100,16 +107,22 @@ public class BuyerController {
 
     @PostMapping("/{buyerId}/orders")
     public ResponseEntity<?> placeOrder(@PathVariable Long buyerId) {
-        List<Order> orders = buyerService.placeOrder(buyerId);
-        if (orders == null || orders.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Order could not be placed");
+        try {
+            List<Order> orders = buyerService.placeOrder(buyerId);
+            if (orders == null || orders.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Order could not be placed");
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(orders);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         }
-        return ResponseEntity.status(HttpStatus.CREATED).body(orders);
     }
 
     @GetMapping("/{buyerId}/orders")
     public ResponseEntity<?> getOrders(@PathVariable Long buyerId) {
-        List<Order> orders = buyerService.getOrders(buyerId);
+        List<OrderDetail> orders = buyerService.getOrders(buyerId);
         if (orders.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No orders found for buyer: " + buyerId);
         }
@@ -183,17 +196,35 @@ public class BuyerController {
     // *************** SEARCH / FILTER *********************
 
     @GetMapping("/search")
-    public ResponseEntity<?> search(@RequestParam(required = false) String keyword) {
-        List<Product> products = buyerService.searchProducts(keyword);
+    public ResponseEntity<?> search(@RequestParam(required = false) String keyword,
+                                    @RequestParam(required = false) Integer limit) {
+        List<ProductSummary> products = buyerService.searchProducts(keyword, limit);
         if (products.isEmpty()) return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No products match the search");
         return ResponseEntity.ok(products);
     }
 
+    // One page of a category in id order: /buyer/filter/category?category=pottery&after=<nextCursor>&limit=50
     @GetMapping("/filter/category")
-    public ResponseEntity<?> filterByCategory(@RequestParam String category) {
-        List<Product> products = buyerService.filterProductsByCategory(category);
-        if (products.isEmpty()) return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No products in category: " + category);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> filterByCategory(@RequestParam String category,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(buyerService.filterProductsByCategory(category, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    // Faceted browse: /buyer/browse?category=pottery&price=500-1000&region=bastar&inStock=true&after=<id>
+    @GetMapping("/browse")
+    public ResponseEntity<?> browse(CatalogFilter filter,
+                                    @RequestParam(required = false) String after,
+                                    @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(buyerService.browseProducts(filter, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
     }
 
     @GetMapping("/filter/price")
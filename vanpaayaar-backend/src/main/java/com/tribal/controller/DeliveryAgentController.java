@@ -2,6 +2,7 @@ package com.tribal.controller;
 
 import com.tribal.model.Delivery;
 import com.tribal.model.DeliveryAgent;
+import com.tribal.service.AgentLocationTracker;
 import com.tribal.service.DeliveryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +18,9 @@ public class DeliveryAgentController {
 
     @Autowired
     private DeliveryService deliveryService;
+    
+    @Autowired
+    private AgentLocationTracker agentLocationTracker;
 
     // Create new delivery agent
     @PostMapping("/register")
@@ -68,6 +72,18 @@ public class DeliveryAgentController {
         }
     }
 
+    // Agent's deliveries a page at a time (summary rows, newest first)
+    @GetMapping("/{agentId}/deliveries/page")
+    public ResponseEntity<?> getAgentDeliveryPage(@PathVariable Long agentId,
+                                                  @RequestParam(required = false) String after,
+                                                  @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(deliveryService.getAgentDeliveryPage(agentId, after, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error getting agent deliveries: " + e.getMessage());
+        }
+    }
+
     // Accept delivery assignment
     @PostMapping("/accept-delivery")
     public ResponseEntity<?> acceptDelivery(@RequestBody Map<String, Object> request) {
@@ -110,31 +126,57 @@ public class DeliveryAgentController {
         }
     }
 
-    // Update agent location (for GPS tracking simulation)
+    // Update agent location (GPS ping) - held in memory, written to the database in periodic batches
     @PutMapping("/{agentId}/location")
     public ResponseEntity<?> updateAgentLocation(
             @PathVariable Long agentId,
             @RequestBody Map<String, Object> locationData) {
         try {
-            // In real implementation, this would update GPS coordinates
-            Double latitude = Double.valueOf(locationData.get("latitude").toString());
-            Double longitude = Double.valueOf(locationData.get("longitude").toString());
-            String pincode = (String) locationData.get("pincode");
-            
-            // For now, just update the pincode
-            DeliveryAgent agentUpdate = DeliveryAgent.builder()
-                    .currentPincode(pincode)
-                    .currentLatitude(latitude)
-                    .currentLongitude(longitude)
-                    .build();
-            
-            DeliveryAgent updatedAgent = deliveryService.updateAgent(agentId, agentUpdate);
-            if (updatedAgent != null) {
-                return ResponseEntity.ok(Map.of("success", true, "message", "Location updated"));
-            }
-            return ResponseEntity.notFound().build();
+            boolean accepted = recordPing(agentId, locationData);
+            return ResponseEntity.ok(Map.of("success", true, "message", accepted ? "Location updated" : "Newer location already recorded"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error updating location: " + e.getMessage());
         }
     }
+
+    // Batch GPS ingest: [{"agentId": 1, "latitude": .., "longitude": .., "pincode": "..", "timestamp": <epoch ms>}, ...]
+    @PostMapping("/locations/batch")
+    public ResponseEntity<?> updateAgentLocations(@RequestBody List<Map<String, Object>> pings) {
+        int accepted = 0;
+        int rejected = 0;
+        for (Map<String, Object> ping : pings) {
+            try {
+                Long agentId = Long.valueOf(ping.get("agentId").toString());
+                if (recordPing(agentId, ping)) accepted++;
+                else rejected++;
+            } catch (Exception e) {
+                rejected++;
+            }
+        }
+        return ResponseEntity.ok(Map.of("success", true, "accepted", accepted, "rejected", rejected));
+    }
+
+    // Latest known position (may be newer than the database by up to one flush interval)
+    @GetMapping("/{agentId}/location")
+    public ResponseEntity<?> getAgentLocation(@PathVariable Long agentId) {
+        return agentLocationTracker.getPosition(agentId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // GPS ingest counters
+    @GetMapping("/locations/stats")
+    public ResponseEntity<?> getLocationStats() {
+        return ResponseEntity.ok(agentLocationTracker.getStats());
+    }
+
+    private boolean recordPing(Long agentId, Map<String, Object> locationData) {
+        double latitude = Double.parseDouble(locationData.get("latitude").toString());
+        double longitude = Double.parseDouble(locationData.get("longitude").toString());
+        Object pincode = locationData.get("pincode");
+        Object timestamp = locationData.get("timestamp");
+        return agentLocationTracker.record(agentId, latitude, longitude,
+                pincode != null ? pincode.toString() : null,
+                timestamp != null ? Long.valueOf(timestamp.toString()) : null);
+    }
 }
\ No newline at end of file
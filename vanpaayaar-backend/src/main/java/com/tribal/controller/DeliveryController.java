@@ -153,7 +153,7 @@ public class DeliveryController {
     @GetMapping("/{deliveryId}")
     public ResponseEntity<?> getDeliveryDetails(@PathVariable Long deliveryId) {
         try {
-            Optional<Delivery> delivery = deliveryService.trackDelivery(String.valueOf(deliveryId));
+            Optional<Delivery> delivery = deliveryService.getDelivery(deliveryId);
             if (delivery.isPresent()) {
                 return ResponseEntity.ok(delivery.get());
             }
@@ -185,34 +185,62 @@ public class DeliveryController {
         }
     }
 
-    // Get deliveries for buyer
+    // Newest deliveries for buyer (first page, full entities); older ones via /buyer/{buyerId}/page
     @GetMapping("/buyer/{buyerId}")
     public ResponseEntity<?> getDeliveriesForBuyer(@PathVariable Long buyerId) {
         try {
-            List<Delivery> deliveries = deliveryService.getAllDeliveries().stream()
-                .filter(d -> d.getOrder() != null && d.getOrder().getBuyer() != null && 
-                            d.getOrder().getBuyer().getId().equals(buyerId))
-                .collect(java.util.stream.Collectors.toList());
+            List<Delivery> deliveries = deliveryService.getDeliveriesForBuyer(buyerId);
             return ResponseEntity.ok(deliveries);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error getting buyer deliveries: " + e.getMessage());
         }
     }
 
-    // Get deliveries for seller
+    // Newest deliveries for seller (first page, full entities); older ones via /seller/{sellerId}/page
     @GetMapping("/seller/{sellerId}")
     public ResponseEntity<?> getDeliveriesForSeller(@PathVariable Long sellerId) {
         try {
-            List<Delivery> deliveries = deliveryService.getAllDeliveries().stream()
-                .filter(d -> d.getOrder() != null && d.getOrder().getSeller() != null && 
-                            d.getOrder().getSeller().getId().equals(sellerId))
-                .collect(java.util.stream.Collectors.toList());
+            List<Delivery> deliveries = deliveryService.getDeliveriesForSeller(sellerId);
             return ResponseEntity.ok(deliveries);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error getting seller deliveries: " + e.getMessage());
         }
     }
 
+    // Paginated delivery lists (summary rows, newest first; pass nextCursor back as "after")
+    @GetMapping("/buyer/{buyerId}/page")
+    public ResponseEntity<?> getBuyerDeliveryPage(@PathVariable Long buyerId,
+                                                  @RequestParam(required = false) String after,
+                                                  @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(deliveryService.getBuyerDeliveryPage(buyerId, after, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error getting buyer deliveries: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/seller/{sellerId}/page")
+    public ResponseEntity<?> getSellerDeliveryPage(@PathVariable Long sellerId,
+                                                   @RequestParam(required = false) String after,
+                                                   @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(deliveryService.getSellerDeliveryPage(sellerId, after, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error getting seller deliveries: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/agent/{agentId}/deliveries/page")
+    public ResponseEntity<?> getAgentDeliveryPage(@PathVariable Long agentId,
+                                                  @RequestParam(required = false) String after,
+                                                  @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(deliveryService.getAgentDeliveryPage(agentId, after, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error getting agent deliveries: " + e.getMessage());
+        }
+    }
+
     // Get available agents for pincode
     @GetMapping("/agents/available/{pincode}")
     public ResponseEntity<?> getAvailableAgents(@PathVariable String pincode) {
@@ -235,7 +263,7 @@ public class DeliveryController {
         }
     }
 
-    // Get deliveries for agent
+    // Newest deliveries for agent (first page, full entities); older ones via /agent/{agentId}/deliveries/page
     @GetMapping("/agent/{agentId}/deliveries")
     public ResponseEntity<?> getAgentDeliveries(@PathVariable Long agentId) {
         try {
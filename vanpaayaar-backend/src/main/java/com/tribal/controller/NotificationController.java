@@ -1,10 +1,15 @@
 package com.tribal.controller;
 
+import com.tribal.dto.CursorPage;
 import com.tribal.model.Notification;
+import com.tribal.service.EmailOutboxDispatcher;
+import com.tribal.service.NotificationPushService;
 import com.tribal.service.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -16,8 +21,39 @@ import java.util.Map;
 public class NotificationController {
     
     private final NotificationService notificationService;
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
+    private final NotificationPushService notificationPushService;
     
-    // Get all notifications for a user
+    // Email outbox queue depth, throughput and latency
+    @GetMapping("/outbox/stats")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(emailOutboxDispatcher.getStats());
+    }
+    
+    // Live stream of new notifications and unread counts (server-sent events)
+    @GetMapping(value = "/stream/{userId}/{userRole}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable Long userId, @PathVariable String userRole) {
+        return notificationPushService.subscribe(userId, userRole);
+    }
+    
+    // Inbox one page at a time, newest first
+    // e.g. /api/notifications/5/BUYER/inbox?after=<nextCursor>&limit=20&unread=true
+    @GetMapping("/{userId}/{userRole}/inbox")
+    public ResponseEntity<?> getInbox(
+            @PathVariable Long userId,
+            @PathVariable String userRole,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean unread) {
+        try {
+            CursorPage<Notification> page = notificationService.getInboxPage(userId, userRole, after, limit, unread);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    // Get the latest notifications for a user
     @GetMapping("/{userId}/{userRole}")
     public ResponseEntity<List<Notification>> getUserNotifications(
             @PathVariable Long userId,
@@ -26,7 +62,7 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
     
-    // Get unread notifications for a user
+    // Get the latest unread notifications for a user
     @GetMapping("/{userId}/{userRole}/unread")
     public ResponseEntity<List<Notification>> getUnreadNotifications(
             @PathVariable Long userId,
@@ -3,18 +3,22 @@ package com.tribal.controller;
 import com.tribal.dto.PaymentRequest;
 import com.tribal.dto.PaymentVerificationRequest;
 import com.tribal.model.Payment;
+import com.tribal.service.PaymentGatewayClient;
 import com.tribal.service.PaymentService;
-import com.tribal.service.NotificationService;
+import com.tribal.service.impl.StubPaymentGateway;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/payment")
@@ -25,37 +29,78 @@ public class PaymentController {
     private PaymentService paymentService;
 
     @Autowired
-    private NotificationService notificationService;
+    private PaymentGatewayClient paymentGatewayClient;
+
+    // Only present with app.payment.gateway.provider=stub
+    @Autowired(required = false)
+    private StubPaymentGateway stubPaymentGateway;
 
     /**
-     * Create a new Razorpay order
+     * Create a new Razorpay order. The gateway call runs off the request thread; a gateway that
+     * is down, slow or saturated is answered with 503 instead of holding the thread.
      */
     @PostMapping("/create-order")
-    public ResponseEntity<?> createOrder(@RequestBody PaymentRequest request) {
-        try {
-            // Validate request
-            if (request.getBuyerId() == null || request.getAmount() == null || request.getAmount() <= 0) {
-                return ResponseEntity.badRequest().body("Invalid payment request");
-            }
+    public CompletableFuture<ResponseEntity<?>> createOrder(@RequestBody PaymentRequest request) {
+        // Validate request
+        if (request.getBuyerId() == null || request.getAmount() == null || request.getAmount() <= 0) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Invalid payment request"));
+        }
+
+        return paymentService.createRazorpayOrder(request).<ResponseEntity<?>>handle((orderDetails, error) -> {
+            if (error != null) return orderFailed(error);
 
-            JSONObject orderDetails = paymentService.createRazorpayOrder(request);
-            
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("orderId", orderDetails.get("orderId"));
             response.put("amount", orderDetails.get("amount"));
             response.put("currency", orderDetails.get("currency"));
             response.put("keyId", orderDetails.get("keyId"));
-
             return ResponseEntity.ok(response);
+        });
+    }
 
-        } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Failed to create payment order");
-            errorResponse.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+    private static ResponseEntity<?> orderFailed(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        if (cause instanceof IllegalStateException) {
+            // Out of stock
+            errorResponse.put("message", cause.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        }
+        if (cause instanceof PaymentGatewayClient.UnavailableException || cause instanceof TimeoutException) {
+            errorResponse.put("message", cause instanceof TimeoutException
+                    ? "Payment gateway did not respond in time, please try again" : cause.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").body(errorResponse);
+        }
+        errorResponse.put("message", "Failed to create payment order");
+        errorResponse.put("error", cause.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+    }
+
+    /**
+     * Gateway client health: circuit state, pool usage and call counters. Admin only (see SecurityConfig)
+     */
+    @GetMapping("/gateway/stats")
+    public ResponseEntity<?> getGatewayStats() {
+        return ResponseEntity.ok(paymentGatewayClient.getStats());
+    }
+
+    /**
+     * Stub gateway only: completes a checkout the way Razorpay's widget would, returning the
+     * payment id and signature to post to /payment/success
+     */
+    @PostMapping("/stub/pay/{orderId}")
+    public ResponseEntity<?> stubPay(@PathVariable String orderId) {
+        if (stubPaymentGateway == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Stub gateway is not enabled");
         }
+        String paymentId = "pay_stub" + UUID.randomUUID().toString().replace("-", "").substring(0, 14);
+        return ResponseEntity.ok(Map.of(
+            "razorpay_order_id", orderId,
+            "razorpay_payment_id", paymentId,
+            "razorpay_signature", stubPaymentGateway.sign(orderId, paymentId)
+        ));
     }
 
     /**
@@ -75,17 +120,7 @@ public class PaymentController {
                 ));
             }
 
-            // Find payment by order ID
-            Payment payment = paymentService.getPaymentByRazorpayOrderId(orderId);
-
-            if (payment == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
-                    "success", false,
-                    "message", "Payment record not found"
-                ));
-            }
-
-            // Verify signature first
+            // Verify and mark SUCCESS in one step; repeats of this callback are answered from the stored result
             try {
                 PaymentVerificationRequest verifyRequest = PaymentVerificationRequest.builder()
                     .razorpayOrderId(orderId)
@@ -94,6 +129,16 @@ public class PaymentController {
                     .build();
                 
                 paymentService.verifyPayment(verifyRequest);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "success", false,
+                    "message", "Payment record not found"
+                ));
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+                ));
             } catch (Exception e) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
                     "success", false,
@@ -101,29 +146,6 @@ public class PaymentController {
                 ));
             }
 
-            // Mark payment as success
-            payment.setStatus("SUCCESS");
-            payment.setRazorpayPaymentId(paymentId);
-            payment.setRazorpaySignature(signature);
-            payment.setCompletedAt(LocalDateTime.now());
-            payment.setErrorMessage(null);
-
-            paymentService.updatePayment(payment);
-
-            // Send payment success notification
-            try {
-                if (payment.getBuyer() != null) {
-                    notificationService.createNotification(
-                        payment.getBuyer().getId(), "BUYER", "PAYMENT_SUCCESS",
-                        "Payment Successful",
-                        "Your payment of ₹" + payment.getAmount() + " was processed successfully.",
-                        "NORMAL", payment.getId(), "PAYMENT", null, true
-                    );
-                }
-            } catch (Exception e) {
-                System.err.println("Failed to send payment success notification: " + e.getMessage());
-            }
-
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Payment successful",
@@ -212,37 +234,14 @@ public class PaymentController {
             String razorpayPaymentId = request.get("razorpayPaymentId");
             String errorMessage = request.get("errorMessage");
 
-            // Try to find payment by order ID first (always available)
-            Payment payment = null;
+            // Order ID is always available; a payment that already succeeded or failed is left as it is
             if (razorpayOrderId != null) {
-                payment = paymentService.getPaymentByRazorpayOrderId(razorpayOrderId);
+                paymentService.failPayment(razorpayOrderId, errorMessage);
             } else if (razorpayPaymentId != null) {
                 // Fallback to payment ID if order ID not available
                 paymentService.updatePaymentStatus(razorpayPaymentId, "FAILED", errorMessage);
             }
 
-            // Update payment status if found
-            if (payment != null) {
-                payment.setStatus("FAILED");
-                payment.setErrorMessage(errorMessage != null ? errorMessage : "Payment failed");
-                payment.setCompletedAt(LocalDateTime.now());
-                paymentService.updatePayment(payment);
-                
-                // Send payment failure notification
-                try {
-                    if (payment.getBuyer() != null) {
-                        notificationService.createNotification(
-                            payment.getBuyer().getId(), "BUYER", "PAYMENT_FAILED",
-                            "Payment Failed",
-                            "Your payment of ₹" + payment.getAmount() + " failed. Please try again or contact support.",
-                            "HIGH", payment.getId(), "PAYMENT", null, true
-                        );
-                    }
-                } catch (Exception e) {
-                    System.err.println("Failed to send payment failure notification: " + e.getMessage());
-                }
-            }
-
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Payment failure recorded");
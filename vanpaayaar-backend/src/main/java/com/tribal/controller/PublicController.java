@@ -1,9 +1,13 @@
 package com.tribal.controller;
 
+import com.tribal.dto.CatalogFilter;
+import com.tribal.dto.CursorPage;
+import com.tribal.dto.ProductSummary;
 import com.tribal.model.Product;
 import com.tribal.model.Seller;
 import com.tribal.repository.ProductRepository;
 import com.tribal.repository.SellerRepository;
+import com.tribal.service.CatalogService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,10 +21,13 @@ public class PublicController {
 
     private final ProductRepository productRepository;
     private final SellerRepository sellerRepository;
+    private final CatalogService catalogService;
 
-    public PublicController(ProductRepository productRepository, SellerRepository sellerRepository) {
+    public PublicController(ProductRepository productRepository, SellerRepository sellerRepository,
+                            CatalogService catalogService) {
         this.productRepository = productRepository;
         this.sellerRepository = sellerRepository;
+        this.catalogService = catalogService;
     }
 
     // Get product details (public access for debugging)
@@ -34,11 +41,31 @@ public class PublicController {
         }
     }
 
-    // Get all products (public access)
+    // Browse the catalog one page at a time (public access)
+    // e.g. /public/products?after=<nextCursor>&limit=50&sort=id|newest|price_asc|price_desc
     @GetMapping("/products")
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productRepository.findAll();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String after,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String sort) {
+        try {
+            CursorPage<ProductSummary> page = catalogService.getProductPage(after, limit, sort);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Faceted browse with live facet counts (public access)
+    // e.g. /public/products/browse?category=pottery&category=jewelry&price=0-500&inStock=true
+    @GetMapping("/products/browse")
+    public ResponseEntity<?> browseProducts(CatalogFilter filter,
+                                            @RequestParam(required = false) String after,
+                                            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(catalogService.browse(filter, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // Get all sellers (public access for debugging)
@@ -1,6 +1,7 @@
 package com.tribal.controller;
 
 import com.tribal.model.Product;
+import com.tribal.dto.OrderDetail;
 import com.tribal.model.Seller;
 import com.tribal.model.Order;
 import com.tribal.service.SellerService;
@@ -79,7 +80,7 @@ public class SellerController {
     // --- Orders ---
     @GetMapping("/{sellerId}/orders")
     public ResponseEntity<?> getOrdersBySeller(@PathVariable Long sellerId) {
-        List<Order> orders = sellerService.getOrdersBySeller(sellerId);
+        List<OrderDetail> orders = sellerService.getOrdersBySeller(sellerId);
         if (orders.isEmpty()) return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No orders for seller: " + sellerId);
         return ResponseEntity.ok(orders);
     }
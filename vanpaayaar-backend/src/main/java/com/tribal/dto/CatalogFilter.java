@@ -0,0 +1,19 @@
+package com.tribal.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Faceted browse filter, bound from query params: ?category=pottery&category=jewelry&price=500-1000&inStock=true
+// Values within one facet are OR-ed, different facets are AND-ed
+@Data
+@NoArgsConstructor
+public class CatalogFilter {
+    private List<String> category;
+    private List<String> price;   // bucket labels, e.g. 0-500, 500-1000, 5000+
+    private List<String> region;
+    private List<String> tribe;
+    private Boolean featured;
+    private Boolean inStock;
+}
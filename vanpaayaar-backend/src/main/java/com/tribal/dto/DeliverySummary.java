@@ -0,0 +1,49 @@
+package com.tribal.dto;
+
+import com.tribal.model.Delivery;
+import com.tribal.util.TrackingIds;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row per delivery for list views - no order, items or agent entity, just the ids and names shown in a list
+@Data
+@NoArgsConstructor
+public class DeliverySummary {
+    private Long id;
+    private String trackingId;
+    private Delivery.DeliveryStatus status;
+    private Long orderId;
+    private Long buyerId;
+    private String buyerName;
+    private Long sellerId;
+    private String sellerName;
+    private String deliveryPincode;
+    private Long agentId;
+    private String agentName;
+    private LocalDateTime estimatedDeliveryTime;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Used by JPQL constructor expressions in DeliveryRepository
+    public DeliverySummary(Long id, String trackingId, Delivery.DeliveryStatus status, Long orderId,
+                           Long buyerId, String buyerName, Long sellerId, String sellerName, String deliveryPincode,
+                           Long agentId, String agentName, LocalDateTime estimatedDeliveryTime,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.trackingId = trackingId != null ? trackingId : TrackingIds.encode(id);
+        this.status = status;
+        this.orderId = orderId;
+        this.buyerId = buyerId;
+        this.buyerName = buyerName;
+        this.sellerId = sellerId;
+        this.sellerName = sellerName;
+        this.deliveryPincode = deliveryPincode;
+        this.agentId = agentId;
+        this.agentName = agentName;
+        this.estimatedDeliveryTime = estimatedDeliveryTime;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+}
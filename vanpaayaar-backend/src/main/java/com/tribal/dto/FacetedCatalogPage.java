@@ -0,0 +1,18 @@
+package com.tribal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedCatalogPage {
+    private CursorPage<ProductSummary> page;
+    private int totalMatches;
+    private Map<String, Map<String, Integer>> facets; // facet -> value -> number of matching products
+}
@@ -0,0 +1,15 @@
+package com.tribal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// An account as stored in basetable: enough to sign in and to address an email, without loading the entity
+@Getter
+@AllArgsConstructor
+public class Identity {
+    private final Long id;
+    private final String role; // ADMIN, BUYER, SELLER
+    private final String name;
+    private final String email;
+    private final String password; // BCrypt hash, or the raw password on rows not yet upgraded
+}
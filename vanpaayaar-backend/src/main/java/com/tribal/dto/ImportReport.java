@@ -0,0 +1,39 @@
+package com.tribal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Progress and outcome of one bulk import; counters are updated while the import runs
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    private String importId;
+    private String type;            // serviceable-areas | agents
+    private String format;          // csv | json
+    private String fileName;
+    private volatile String status; // RUNNING, COMPLETED, FAILED
+    private volatile long rowsRead;
+    private volatile long rowsImported;
+    private volatile long rowsFailed;
+    private volatile int chunks;
+    private final List<RowError> errors = new CopyOnWriteArrayList<>();
+    private volatile boolean errorsTruncated;
+    private String message;
+    private LocalDateTime startedAt;
+    private volatile long durationMs;
+    private volatile long rowsPerSecond;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private long line;          // CSV line, or line where the JSON object starts
+        private String key;         // pincode or email when known
+        private String message;
+    }
+}
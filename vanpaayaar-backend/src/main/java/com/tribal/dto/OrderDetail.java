@@ -0,0 +1,65 @@
+package com.tribal.dto;
+
+import com.tribal.model.Cart;
+import com.tribal.model.Order;
+import com.tribal.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Order with its line items, built from an order loaded through the "detail" entity graph
+@Data
+@NoArgsConstructor
+public class OrderDetail {
+    private Long id;
+    private String status;
+    private Double totalAmount;
+    private LocalDateTime orderDate;
+    private OrderSummary.PartyRef buyer;
+    private OrderSummary.PartyRef seller;
+    private List<OrderLine> items;
+
+    public static OrderDetail from(Order order) {
+        OrderDetail d = new OrderDetail();
+        d.id = order.getId();
+        d.status = order.getStatus();
+        d.totalAmount = order.getTotalAmount();
+        d.orderDate = order.getOrderDate();
+        if (order.getBuyer() != null) d.buyer = new OrderSummary.PartyRef(order.getBuyer().getId(), order.getBuyer().getName());
+        if (order.getSeller() != null) d.seller = new OrderSummary.PartyRef(order.getSeller().getId(), order.getSeller().getName());
+        d.items = new ArrayList<>();
+        if (order.getItems() != null) {
+            for (Cart item : order.getItems()) {
+                Product p = item.getProduct();
+                ProductRef ref = p == null ? null
+                        : new ProductRef(p.getId(), p.getName(), p.getCategory(), p.getPrice(), p.getImageUrl());
+                d.items.add(new OrderLine(item.getId(), item.getQuantity(), ref));
+            }
+        }
+        return d;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrderLine {
+        private Long id;
+        private Integer quantity;
+        private ProductRef product;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductRef {
+        private Long id;
+        private String name;
+        private String category;
+        private Double price;
+        private String imageUrl;
+    }
+}
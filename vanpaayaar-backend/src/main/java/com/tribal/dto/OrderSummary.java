@@ -0,0 +1,40 @@
+package com.tribal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row per order for list views - no cart items, just their count
+@Data
+@NoArgsConstructor
+public class OrderSummary {
+    private Long id;
+    private String status;
+    private Double totalAmount;
+    private LocalDateTime orderDate;
+    private PartyRef buyer;
+    private PartyRef seller;
+    private long itemCount;
+
+    // Used by JPQL constructor expressions in OrderRepository
+    public OrderSummary(Long id, String status, Double totalAmount, LocalDateTime orderDate,
+                        Long buyerId, String buyerName, Long sellerId, String sellerName, Long itemCount) {
+        this.id = id;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.orderDate = orderDate;
+        this.buyer = buyerId != null ? new PartyRef(buyerId, buyerName) : null;
+        this.seller = sellerId != null ? new PartyRef(sellerId, sellerName) : null;
+        this.itemCount = itemCount != null ? itemCount : 0;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PartyRef {
+        private Long id;
+        private String name;
+    }
+}
@@ -0,0 +1,24 @@
+package com.tribal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// The payment columns the verify/fail paths need - read without loading the buyer or order entities
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentState {
+    private Long id;
+    private String razorpayOrderId;
+    private String razorpayPaymentId;
+    private String status;
+    private Double amount;
+    private String currency;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private String errorMessage;
+    private Long buyerId;
+}
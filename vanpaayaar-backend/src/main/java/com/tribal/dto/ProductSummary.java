@@ -0,0 +1,55 @@
+package com.tribal.dto;
+
+import com.tribal.model.Product;
+import com.tribal.model.Seller;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Flat catalog view of a product - no reviews/carts collections, only the seller fields shown on product cards
+@Data
+@NoArgsConstructor
+public class ProductSummary {
+    private Long id;
+    private String name;
+    private String description;
+    private String category;
+    private Double price;
+    private Integer stock;
+    private String imageUrl;
+    private Boolean featured;
+    private SellerSummary seller;
+
+    // Used by JPQL constructor expressions in ProductRepository
+    public ProductSummary(Long id, String name, String description, String category, Double price,
+                          Integer stock, String imageUrl, Boolean featured,
+                          Long sellerId, String sellerName, String tribeName, String region) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.category = category;
+        this.price = price;
+        this.stock = stock;
+        this.imageUrl = imageUrl;
+        this.featured = featured;
+        this.seller = sellerId != null ? new SellerSummary(sellerId, sellerName, tribeName, region) : null;
+    }
+
+    public static ProductSummary from(Product p) {
+        Seller s = p.getSeller();
+        return new ProductSummary(p.getId(), p.getName(), p.getDescription(), p.getCategory(), p.getPrice(),
+                p.getStock(), p.getImageUrl(), p.getFeatured(),
+                s != null ? s.getId() : null, s != null ? s.getName() : null,
+                s != null ? s.getTribeName() : null, s != null ? s.getRegion() : null);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SellerSummary {
+        private Long id;
+        private String name;
+        private String tribeName;
+        private String region;
+    }
+}
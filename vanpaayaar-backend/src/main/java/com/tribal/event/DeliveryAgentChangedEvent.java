@@ -0,0 +1,30 @@
+package com.tribal.event;
+
+import com.tribal.model.DeliveryAgent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Dispatch-relevant state of an agent as of the change; DeliveryDispatchIndex applies it after commit
+@Getter
+@AllArgsConstructor
+public class DeliveryAgentChangedEvent {
+    private final Long agentId;
+    private final boolean available;
+    private final Set<String> serviceablePincodes;
+    private final Double latitude;
+    private final Double longitude;
+
+    public static DeliveryAgentChangedEvent of(DeliveryAgent agent) {
+        Set<String> pincodes = new HashSet<>();
+        if (agent.getServiceablePincodes() != null) {
+            for (String pincode : agent.getServiceablePincodes()) {
+                if (pincode != null && !pincode.isBlank()) pincodes.add(pincode.trim());
+            }
+        }
+        return new DeliveryAgentChangedEvent(agent.getId(), agent.canTakeNewOrder(), pincodes,
+                agent.getCurrentLatitude(), agent.getCurrentLongitude());
+    }
+}
@@ -0,0 +1,14 @@
+package com.tribal.event;
+
+import com.tribal.model.Delivery;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// A delivery moved from one status to another; previous is null for a newly created delivery
+@Getter
+@AllArgsConstructor
+public class DeliveryStatusChangedEvent {
+    private final Long deliveryId;
+    private final Delivery.DeliveryStatus previous;
+    private final Delivery.DeliveryStatus current;
+}
@@ -0,0 +1,19 @@
+package com.tribal.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// A delivery timer came due; DeliveryServiceImpl re-checks the delivery and acts in its own transaction
+@Getter
+@AllArgsConstructor
+public class DeliveryTimerEvent {
+
+    public enum Type {
+        AGENT_ACCEPTANCE,   // assigned agent accepts (simulated; the mobile app would do this)
+        PICKUP_SLA,         // accepted but not picked up in time - hand the delivery back for reassignment
+        OVERDUE             // estimated delivery time passed without delivery
+    }
+
+    private final Long deliveryId;
+    private final Type type;
+}
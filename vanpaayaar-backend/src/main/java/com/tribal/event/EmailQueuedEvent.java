@@ -0,0 +1,11 @@
+package com.tribal.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// A notification email was written to the outbox; wakes the dispatcher once the transaction commits
+@Getter
+@AllArgsConstructor
+public class EmailQueuedEvent {
+    private final Long notificationId;
+}
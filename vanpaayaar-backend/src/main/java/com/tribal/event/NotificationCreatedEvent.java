@@ -0,0 +1,12 @@
+package com.tribal.event;
+
+import com.tribal.model.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Pushed to the recipient's open streams once the creating transaction commits
+@Getter
+@AllArgsConstructor
+public class NotificationCreatedEvent {
+    private final Notification notification;
+}
@@ -0,0 +1,14 @@
+package com.tribal.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Unread notifications went away (read or deleted); "all" means the user's unread count is now zero
+@Getter
+@AllArgsConstructor
+public class NotificationsReadEvent {
+    private final Long userId;
+    private final String userRole;
+    private final int count;
+    private final boolean all;
+}
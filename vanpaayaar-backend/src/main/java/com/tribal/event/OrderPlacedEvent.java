@@ -0,0 +1,37 @@
+package com.tribal.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Published by checkout; OrderPlacedListener handles it once the checkout transaction has committed
+@Getter
+@AllArgsConstructor
+public class OrderPlacedEvent {
+
+    private final Long buyerId;
+    private final String buyerName;
+    private final String deliveryPincode;
+    private final List<PlacedOrder> orders;
+    private final List<LowStock> lowStock;
+    private final List<Long> productIds;
+
+    @Getter
+    @AllArgsConstructor
+    public static class PlacedOrder {
+        private final Long orderId;
+        private final Long sellerId;
+        private final int itemCount;
+        private final double total;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class LowStock {
+        private final Long sellerId;
+        private final Long productId;
+        private final String productName;
+        private final int stock;
+    }
+}
@@ -0,0 +1,13 @@
+package com.tribal.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Stock moved outside the entity layer (reservation hold/release); the catalog indexes refresh after commit
+@Getter
+@AllArgsConstructor
+public class StockChangedEvent {
+    private final List<Long> productIds;
+}
@@ -1,5 +1,6 @@
 package com.tribal.model;
 
+import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
 import jakarta.persistence.PrimaryKeyJoinColumn;
 import jakarta.persistence.Table;
@@ -17,6 +18,7 @@ import lombok.experimental.SuperBuilder;
 @SuperBuilder
 @Table(name = "admins")
 @PrimaryKeyJoinColumn(name = "user_id")
+@DiscriminatorValue("ADMIN")
 public class Admin extends Base {
 
 }
@@ -15,6 +15,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @SuperBuilder
 @Inheritance(strategy = InheritanceType.JOINED)
+// Lets an account be resolved from basetable alone (see CredentialRepository) without joining the subtype tables
+@DiscriminatorColumn(name = "user_role", discriminatorType = DiscriminatorType.STRING, length = 10)
 public class Base {
 
     @Id
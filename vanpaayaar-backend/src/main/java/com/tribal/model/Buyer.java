@@ -18,6 +18,7 @@ import java.util.List;
 @SuperBuilder
 @Table(name = "buyers")
 @PrimaryKeyJoinColumn(name = "user_id")
+@DiscriminatorValue("BUYER")
 public class Buyer extends Base {
 
     // Relationships
@@ -1,14 +1,22 @@
 package com.tribal.model;
 
+import com.tribal.util.TrackingIds;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
-@Table(name = "deliveries")
+@Table(name = "deliveries", indexes = {
+        @Index(name = "idx_deliveries_buyer", columnList = "buyer_id, id"),
+        @Index(name = "idx_deliveries_seller", columnList = "seller_id, id"),
+        @Index(name = "idx_deliveries_agent", columnList = "agent_id, id"),
+        @Index(name = "idx_deliveries_status", columnList = "status, id"),
+        @Index(name = "idx_deliveries_tracking", columnList = "tracking_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -43,13 +51,22 @@ public class Delivery {
     @Column(nullable = false)
     private String deliveryPincode;
     
+    // Copied from the order so listings filter on an indexed column instead of joining orders
+    @Column(name = "buyer_id")
+    private Long buyerId;
+    
+    @Column(name = "seller_id")
+    private Long sellerId;
+    
     // Contact information
     private String buyerName;
     private String buyerPhone;
     private String sellerName;
     private String sellerPhone;
     
-    // Tracking information
+    // Tracking information - only stored for deliveries created before tracking IDs were
+    // derived from the id (see TrackingIds); newer rows leave it null and getTrackingId() encodes the id
+    @Column(name = "tracking_id")
     private String trackingId;
     
     // Location tracking
@@ -82,6 +99,10 @@ public class Delivery {
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    // Status history from the delivery event log; filled in for tracking responses only
+    @Transient
+    private List<DeliveryEvent> timeline;
+    
     public enum DeliveryStatus {
         CREATED,              // Delivery record created
         ASSIGNED,             // Agent assigned to delivery
@@ -152,8 +173,9 @@ public class Delivery {
         }
     }
     
-    public String generateTrackingId() {
-        return "VV" + System.currentTimeMillis() + String.format("%04d", id != null ? id : 0);
+    public String getTrackingId() {
+        if (trackingId != null) return trackingId;
+        return id != null ? TrackingIds.encode(id) : null;
     }
     
     public int getProgressPercentage() {
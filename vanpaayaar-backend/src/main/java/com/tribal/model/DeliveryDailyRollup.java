@@ -0,0 +1,36 @@
+package com.tribal.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Per-day, per-status event counts, maintained incrementally as delivery events are written
+@Entity
+@Table(name = "delivery_daily_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_delivery_rollup_day_status", columnNames = {"rollupDate", "status"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeliveryDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(nullable = false, length = 32)
+    private String status;
+
+    @Column(nullable = false)
+    private Long eventCount;
+
+    // DELIVERED rows: summed hours from delivery creation to delivery, for the average delivery time
+    @Column(nullable = false)
+    private Double hoursSum;
+}
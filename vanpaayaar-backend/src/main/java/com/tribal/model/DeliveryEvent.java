@@ -0,0 +1,37 @@
+package com.tribal.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// One status transition of a delivery; rows are only ever inserted (see DeliveryEventLog)
+@Entity
+@Table(name = "delivery_events", indexes = {
+        @Index(name = "idx_delivery_event_delivery", columnList = "deliveryId, id"),
+        @Index(name = "idx_delivery_event_occurred", columnList = "occurredAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeliveryEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long deliveryId;
+
+    @Column(nullable = false, length = 32)
+    private String status;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    private Long agentId;
+
+    private String note;
+}
@@ -9,7 +9,12 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+// Inbox pages walk (user, role[, is_read]) by descending id; the purge job walks created_at
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_inbox", columnList = "userId, userRole, id"),
+        @Index(name = "idx_notifications_unread", columnList = "userId, userRole, is_read, id"),
+        @Index(name = "idx_notifications_created", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
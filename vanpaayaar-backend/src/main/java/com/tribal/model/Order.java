@@ -37,7 +37,7 @@ public class Order {
                            "bankAccountNumber", "ifscCode", "panNumber", "bio", "createdAt"})
     private Seller seller;
 
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL) // lazy - list queries use entity graphs or projections
     @JsonIgnoreProperties({"order", "buyer"}) // Prevent circular reference
     private List<Cart> items;
 
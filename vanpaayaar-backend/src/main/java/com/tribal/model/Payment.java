@@ -8,7 +8,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_razorpay_payment", columnList = "razorpay_payment_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,7 +22,8 @@ public class Payment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
+    // Unique: the verify/fail paths look payments up by it and transition them with conditional UPDATEs
+    @Column(nullable = false, unique = true)
     private String razorpayOrderId;
 
     @Column
@@ -6,7 +6,9 @@ import lombok.*;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_price_id", columnList = "price, id") // keyset paging by price
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -32,6 +34,12 @@ public class Product {
     
     private Boolean featured;
 
+    // Bumped by every write, including the bulk stock updates in ProductStockRepository,
+    // so a seller edit based on a stale read can't overwrite a concurrent stock change
+    @Version
+    @Column(columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "seller_id")
     @JsonIgnoreProperties({"password", "confirmPassword", "email", "phone", "address", "pincode", 
@@ -13,6 +13,7 @@ import lombok.experimental.SuperBuilder;
 @AllArgsConstructor
 @SuperBuilder
 @PrimaryKeyJoinColumn(name = "user_id")
+@DiscriminatorValue("SELLER")
 public class Seller extends Base {
 
     @Column(length = 100)
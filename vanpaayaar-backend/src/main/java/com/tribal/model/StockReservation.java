@@ -0,0 +1,57 @@
+package com.tribal.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Stock held for one product of a checkout while the buyer pays; see StockReservationService
+@Entity
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_reservation_hold_key", columnList = "holdKey"),
+        @Index(name = "idx_reservation_razorpay_order", columnList = "razorpayOrderId"),
+        @Index(name = "idx_reservation_status_expiry", columnList = "status, expiresAt"),
+        @Index(name = "idx_reservation_buyer_status", columnList = "buyerId, status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+
+    public static final String HELD = "HELD";           // stock taken, payment pending
+    public static final String COMMITTED = "COMMITTED"; // payment verified, waiting for the order
+    public static final String CONSUMED = "CONSUMED";   // turned into an order by placeOrder
+    public static final String RELEASED = "RELEASED";   // payment failed or hold expired, stock returned
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Receipt sent to Razorpay; known before the gateway order id is
+    @Column(nullable = false, length = 40)
+    private String holdKey;
+
+    private String razorpayOrderId;
+
+    @Column(nullable = false)
+    private Long buyerId;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,38 @@
+package com.tribal.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Column-level agent position writes for the GPS ingest path - no entity load, no full-row update.
+ */
+@Repository
+public class AgentLocationRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AgentLocationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * One batched UPDATE per flush. Each row is {agentId, latitude, longitude, pincode (nullable), seenAt}.
+     * Returns the per-row update counts; 0 means the agent does not exist.
+     */
+    public int[] updatePositions(List<Object[]> rows) {
+        if (rows.isEmpty()) return new int[0];
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            args.add(new Object[]{row[1], row[2], row[3], Timestamp.valueOf((LocalDateTime) row[4]), row[0]});
+        }
+        return jdbcTemplate.batchUpdate(
+                "UPDATE delivery_agents SET current_latitude = ?, current_longitude = ?, " +
+                        "current_pincode = COALESCE(?, current_pincode), last_active_time = ? WHERE id = ?",
+                args);
+    }
+}
@@ -0,0 +1,103 @@
+package com.tribal.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+
+/**
+ * JDBC batch upserts for the bulk import of serviceable areas and delivery agents.
+ *
+ * Inserts take the entity defaults for columns the file leaves empty; on a duplicate key
+ * only the columns the file provides are overwritten (COALESCE(?, column)).
+ * Runs on the caller's transaction.
+ */
+@Repository
+public class BulkImportRepository {
+
+    // Columns after the key, in the order callers pass values; {column, default for new rows}
+    public static final String[][] AREA_COLUMNS = {
+            {"area_name", null}, {"city", null}, {"state", null},
+            {"is_active", "TRUE"}, {"is_premium", "FALSE"},
+            {"standard_delivery_days", "3"}, {"express_delivery_days", "1"},
+            {"delivery_charge", "50.0"}, {"express_delivery_charge", "100.0"},
+            {"latitude", null}, {"longitude", null}};
+
+    public static final String[][] AGENT_COLUMNS = {
+            {"name", null}, {"phone", null}, {"current_pincode", null},
+            {"vehicle_type", null}, {"vehicle_number", null}};
+
+    private static final String AREA_UPSERT = upsertSql("serviceable_areas", "pincode", AREA_COLUMNS, "", "");
+
+    // New agents start the way /api/agent/register leaves them
+    private static final String AGENT_UPSERT = upsertSql("delivery_agents", "email", AGENT_COLUMNS,
+            ", status, current_workload, rating, total_deliveries, is_online, last_active_time",
+            ", 'FREE', 0, 5.0, 0, TRUE, NOW()");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BulkImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Each row: pincode followed by AREA_COLUMNS values (null = not provided)
+    public void upsertAreas(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(AREA_UPSERT, bind(rows));
+    }
+
+    /**
+     * Each row: email followed by AGENT_COLUMNS values. The serviceable pincodes of every
+     * agent in the batch are replaced with the given lists.
+     */
+    public void upsertAgents(List<Object[]> rows, Map<String, List<String>> pincodesByEmail) {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(AGENT_UPSERT, bind(rows));
+
+        Map<Long, List<String>> pincodesById = new LinkedHashMap<>();
+        List<String> emails = new ArrayList<>(pincodesByEmail.keySet());
+        String placeholders = String.join(",", Collections.nCopies(emails.size(), "?"));
+        jdbcTemplate.query("SELECT id, email FROM delivery_agents WHERE email IN (" + placeholders + ")",
+                rs -> { pincodesById.put(rs.getLong(1), pincodesByEmail.get(rs.getString(2))); },
+                emails.toArray());
+        if (pincodesById.isEmpty()) return;
+
+        List<Long> ids = new ArrayList<>(pincodesById.keySet());
+        jdbcTemplate.update("DELETE FROM agent_serviceable_pincodes WHERE agent_id IN ("
+                + String.join(",", Collections.nCopies(ids.size(), "?")) + ")", ids.toArray());
+        List<Object[]> pincodeRows = new ArrayList<>();
+        for (Map.Entry<Long, List<String>> e : pincodesById.entrySet()) {
+            for (String pincode : e.getValue()) {
+                pincodeRows.add(new Object[]{e.getKey(), pincode});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO agent_serviceable_pincodes (agent_id, pincode) VALUES (?, ?)", pincodeRows);
+    }
+
+    // Values are bound twice: once for the insert, once for the COALESCE in the update clause
+    private static List<Object[]> bind(List<Object[]> rows) {
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Object[] bound = new Object[row.length * 2 - 1];
+            System.arraycopy(row, 0, bound, 0, row.length);
+            System.arraycopy(row, 1, bound, row.length, row.length - 1);
+            args.add(bound);
+        }
+        return args;
+    }
+
+    // extraColumns/extraValues are fixed values set on insert only
+    private static String upsertSql(String table, String key, String[][] columns, String extraColumns, String extraValues) {
+        StringBuilder names = new StringBuilder(key);
+        StringBuilder values = new StringBuilder("?");
+        StringBuilder updates = new StringBuilder();
+        for (String[] column : columns) {
+            names.append(", ").append(column[0]);
+            values.append(", ").append(column[1] == null ? "?" : "COALESCE(?, " + column[1] + ")");
+            updates.append(column[0]).append(" = COALESCE(?, ").append(column[0]).append("), ");
+        }
+        return "INSERT INTO " + table + " (" + names + extraColumns + ", created_at, updated_at) " +
+                "VALUES (" + values + extraValues + ", NOW(), NOW()) " +
+                "ON DUPLICATE KEY UPDATE " + updates + "updated_at = NOW()";
+    }
+}
@@ -0,0 +1,64 @@
+package com.tribal.repository;
+
+import com.tribal.dto.Identity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Account lookups and password writes on basetable, shared by admins, buyers and sellers.
+ * The user_role discriminator means neither needs the subtype tables: a lookup is one
+ * indexed single-table query (email is unique, id is the primary key).
+ */
+@Repository
+public class CredentialRepository {
+
+    private static final String IDENTITY_SELECT = "SELECT id, user_role, name, email, password FROM basetable ";
+
+    private static final RowMapper<Identity> IDENTITY_MAPPER = (rs, rowNum) -> new Identity(
+            rs.getLong("id"), rs.getString("user_role"), rs.getString("name"),
+            rs.getString("email"), rs.getString("password"));
+
+    // Subtype table per role, for filling in user_role on rows written before the column existed
+    private static final Map<String, String> ROLE_TABLES = Map.of(
+            "ADMIN", "admins",
+            "BUYER", "buyers",
+            "SELLER", "sellers");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CredentialRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Identity> findByEmail(String email) {
+        return jdbcTemplate.query(IDENTITY_SELECT + "WHERE email = ?", IDENTITY_MAPPER, email).stream().findFirst();
+    }
+
+    public Optional<Identity> findById(Long id) {
+        return jdbcTemplate.query(IDENTITY_SELECT + "WHERE id = ?", IDENTITY_MAPPER, id).stream().findFirst();
+    }
+
+    /**
+     * Replaces the stored password with an upgraded hash of the same password.
+     * Only applies while the row still holds expectedPassword, so a password change
+     * that lands between the login check and this write is never overwritten.
+     */
+    public boolean upgradePassword(Long id, String expectedPassword, String newHash) {
+        return jdbcTemplate.update(
+                "UPDATE basetable SET password = ?, confirm_password = ? WHERE id = ? AND password = ?",
+                newHash, newHash, id, expectedPassword) == 1;
+    }
+
+    public int backfillRoles() {
+        int updated = 0;
+        for (Map.Entry<String, String> roleTable : ROLE_TABLES.entrySet()) {
+            updated += jdbcTemplate.update("UPDATE basetable b JOIN " + roleTable.getValue() + " t ON t.user_id = b.id " +
+                    "SET b.user_role = ? WHERE b.user_role IS NULL OR b.user_role = ''", roleTable.getKey());
+        }
+        return updated;
+    }
+}
@@ -1,16 +1,28 @@
 package com.tribal.repository;
 
 import com.tribal.model.DeliveryAgent;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DeliveryAgentRepository extends JpaRepository<DeliveryAgent, Long> {
     
+    // All agents with their pincodes in one query (dispatch index rebuild)
+    @Query("SELECT DISTINCT da FROM DeliveryAgent da LEFT JOIN FETCH da.serviceablePincodes")
+    List<DeliveryAgent> findAllWithPincodes();
+    
+    // Heartbeat for every online agent in one statement
+    @Modifying
+    @Query("UPDATE DeliveryAgent da SET da.lastActiveTime = :now WHERE da.isOnline = true")
+    int touchOnlineAgents(@Param("now") LocalDateTime now);
+    
     // Find agents by status
     List<DeliveryAgent> findByStatus(DeliveryAgent.AgentStatus status);
     
@@ -40,6 +52,17 @@ public interface DeliveryAgentRepository extends JpaRepository<DeliveryAgent, Lo
     @Query("SELECT da FROM DeliveryAgent da WHERE da.isOnline = true ORDER BY da.rating DESC, da.totalDeliveries DESC")
     List<DeliveryAgent> findTopRatedAgents();
     
+    // Top rated agents, limited in the query (PageRequest.of(0, n))
+    @Query("SELECT da FROM DeliveryAgent da WHERE da.isOnline = true ORDER BY da.rating DESC, da.totalDeliveries DESC")
+    List<DeliveryAgent> findTopRatedAgents(Pageable pageable);
+    
+    // Total, online, available and overloaded agents in one row
+    @Query("SELECT COUNT(da), " +
+           "SUM(CASE WHEN da.isOnline = true THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN da.isOnline = true AND da.status = 'FREE' AND da.currentWorkload < 3 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN da.currentWorkload >= 3 THEN 1 ELSE 0 END) FROM DeliveryAgent da")
+    List<Object[]> getAgentCounts();
+    
     // Find agent by email
     Optional<DeliveryAgent> findByEmail(String email);
     
@@ -0,0 +1,20 @@
+package com.tribal.repository;
+
+import com.tribal.model.DeliveryDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface DeliveryDailyRollupRepository extends JpaRepository<DeliveryDailyRollup, Long> {
+
+    // Reads one row per day, not one per delivery
+    @Query("SELECT SUM(r.hoursSum) / SUM(r.eventCount) FROM DeliveryDailyRollup r WHERE r.status = 'DELIVERED'")
+    Double getAverageDeliveryTimeInHours();
+
+    @Query("SELECT COALESCE(SUM(r.eventCount), 0) FROM DeliveryDailyRollup r WHERE r.status = :status AND r.rollupDate >= :from")
+    Long countSince(@Param("status") String status, @Param("from") LocalDate from);
+}
@@ -0,0 +1,90 @@
+package com.tribal.repository;
+
+import com.tribal.model.DeliveryEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched writes for the delivery event log and its daily rollups.
+ * Runs on the caller's transaction (JdbcTemplate shares the JPA connection).
+ */
+@Repository
+public class DeliveryEventBatchRepository {
+
+    // Status -> timestamp column of deliveries, for backfilling history recorded before the event log existed
+    private static final Map<String, String> TIMESTAMP_COLUMNS = Map.of(
+            "CREATED", "created_at",
+            "ASSIGNED", "assigned_at",
+            "ACCEPTED_BY_AGENT", "accepted_at",
+            "PICKED_UP", "picked_up_at",
+            "IN_TRANSIT", "in_transit_at",
+            "OUT_FOR_DELIVERY", "out_for_delivery_at",
+            "DELIVERED", "delivered_at",
+            "COMPLETED", "completed_at");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeliveryEventBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertEvents(List<DeliveryEvent> events) {
+        if (events.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>(events.size());
+        for (DeliveryEvent e : events) {
+            args.add(new Object[]{e.getDeliveryId(), e.getStatus(), Timestamp.valueOf(e.getOccurredAt()), e.getAgentId(), e.getNote()});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO delivery_events (delivery_id, status, occurred_at, agent_id, note) VALUES (?, ?, ?, ?, ?)", args);
+    }
+
+    // Each row: {LocalDate day, String status, long count, double hours}; added onto whatever the day already holds
+    public void addToRollups(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            args.add(new Object[]{Date.valueOf((LocalDate) row[0]), row[1], row[2], row[3]});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO delivery_daily_rollups (rollup_date, status, event_count, hours_sum) VALUES (?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE event_count = event_count + VALUES(event_count), hours_sum = hours_sum + VALUES(hours_sum)",
+                args);
+    }
+
+    public boolean hasEvents() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM delivery_events)", Boolean.class));
+    }
+
+    /**
+     * One-time seed from the per-status timestamps on deliveries, then rollups from the seeded events.
+     * Terminal statuses without their own timestamp use updated_at.
+     */
+    public int backfill() {
+        int inserted = 0;
+        for (Map.Entry<String, String> e : TIMESTAMP_COLUMNS.entrySet()) {
+            inserted += jdbcTemplate.update(
+                    "INSERT INTO delivery_events (delivery_id, status, occurred_at, agent_id, note) " +
+                            "SELECT id, ?, " + e.getValue() + ", agent_id, 'backfill' FROM deliveries WHERE " + e.getValue() + " IS NOT NULL",
+                    e.getKey());
+        }
+        inserted += jdbcTemplate.update(
+                "INSERT INTO delivery_events (delivery_id, status, occurred_at, agent_id, note) " +
+                        "SELECT id, status, updated_at, agent_id, 'backfill' FROM deliveries " +
+                        "WHERE status IN ('FAILED', 'CANCELLED', 'RETURNED') AND updated_at IS NOT NULL");
+        jdbcTemplate.update("DELETE FROM delivery_daily_rollups");
+        jdbcTemplate.update(
+                "INSERT INTO delivery_daily_rollups (rollup_date, status, event_count, hours_sum) " +
+                        "SELECT DATE(e.occurred_at), e.status, COUNT(*), " +
+                        "COALESCE(SUM(CASE WHEN e.status = 'DELIVERED' THEN TIMESTAMPDIFF(SECOND, d.created_at, e.occurred_at) / 3600.0 ELSE 0 END), 0) " +
+                        "FROM delivery_events e JOIN deliveries d ON d.id = e.delivery_id " +
+                        "GROUP BY DATE(e.occurred_at), e.status");
+        return inserted;
+    }
+}
@@ -0,0 +1,14 @@
+package com.tribal.repository;
+
+import com.tribal.model.DeliveryEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeliveryEventRepository extends JpaRepository<DeliveryEvent, Long> {
+
+    // Full timeline of one delivery, oldest first
+    List<DeliveryEvent> findByDeliveryIdOrderByIdAsc(Long deliveryId);
+}
@@ -1,8 +1,11 @@
 package com.tribal.repository;
 
+import com.tribal.dto.DeliverySummary;
 import com.tribal.model.Delivery;
 import com.tribal.model.DeliveryAgent;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,6 +16,11 @@ import java.util.Optional;
 @Repository
 public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
     
+    // Shared projection for delivery listings - agent joined in the same select, order never loaded
+    String SUMMARY_SELECT = "SELECT new com.tribal.dto.DeliverySummary(d.id, d.trackingId, d.status, d.order.id, " +
+            "d.buyerId, d.buyerName, d.sellerId, d.sellerName, d.deliveryPincode, a.id, a.name, " +
+            "d.estimatedDeliveryTime, d.createdAt, d.updatedAt) FROM Delivery d LEFT JOIN d.agent a ";
+    
     // Find delivery by tracking ID
     Optional<Delivery> findByTrackingId(String trackingId);
     
@@ -51,21 +59,62 @@ public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
     @Query("SELECT d FROM Delivery d WHERE d.estimatedDeliveryTime < :currentTime AND d.status NOT IN ('DELIVERED', 'COMPLETED', 'FAILED', 'CANCELLED')")
     List<Delivery> findOverdueDeliveries(@Param("currentTime") LocalDateTime currentTime);
     
-    // Find deliveries by buyer (through order)
-    @Query("SELECT d FROM Delivery d WHERE d.order.buyer.id = :buyerId")
-    List<Delivery> findDeliveriesByBuyer(@Param("buyerId") Long buyerId);
+    // Status and timer-relevant timestamps of every open delivery: id, status, assignedAt, acceptedAt, estimatedDeliveryTime
+    @Query("SELECT d.id, d.status, d.assignedAt, d.acceptedAt, d.estimatedDeliveryTime FROM Delivery d WHERE d.status NOT IN ('COMPLETED', 'FAILED', 'CANCELLED', 'RETURNED')")
+    List<Object[]> findOpenDeliveryTimes();
+    
+    // Newest deliveries by buyer (denormalized buyer_id, indexed)
+    @Query("SELECT d FROM Delivery d WHERE d.buyerId = :buyerId ORDER BY d.id DESC")
+    List<Delivery> findDeliveriesByBuyer(@Param("buyerId") Long buyerId, Pageable pageable);
+    
+    // Newest deliveries by seller (denormalized seller_id, indexed)
+    @Query("SELECT d FROM Delivery d WHERE d.sellerId = :sellerId ORDER BY d.id DESC")
+    List<Delivery> findDeliveriesBySeller(@Param("sellerId") Long sellerId, Pageable pageable);
+    
+    // Newest deliveries by agent
+    @Query("SELECT d FROM Delivery d WHERE d.agent.id = :agentId ORDER BY d.id DESC")
+    List<Delivery> findRecentByAgent(@Param("agentId") Long agentId, Pageable pageable);
+    
+    // Newest deliveries overall
+    @Query("SELECT d FROM Delivery d ORDER BY d.id DESC")
+    List<Delivery> findRecent(Pageable pageable);
+    
+    // --- Keyset listing pages, newest first (pass PageRequest.of(0, limit) - the cursor replaces the offset) ---
+    
+    @Query(SUMMARY_SELECT + "WHERE d.buyerId = :buyerId AND d.id < :beforeId ORDER BY d.id DESC")
+    List<DeliverySummary> findBuyerPage(@Param("buyerId") Long buyerId, @Param("beforeId") Long beforeId, Pageable pageable);
     
-    // Find deliveries by seller (through order)
-    @Query("SELECT d FROM Delivery d WHERE d.order.seller.id = :sellerId")
-    List<Delivery> findDeliveriesBySeller(@Param("sellerId") Long sellerId);
+    @Query(SUMMARY_SELECT + "WHERE d.sellerId = :sellerId AND d.id < :beforeId ORDER BY d.id DESC")
+    List<DeliverySummary> findSellerPage(@Param("sellerId") Long sellerId, @Param("beforeId") Long beforeId, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE d.agent.id = :agentId AND d.id < :beforeId ORDER BY d.id DESC")
+    List<DeliverySummary> findAgentPage(@Param("agentId") Long agentId, @Param("beforeId") Long beforeId, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE d.id < :beforeId ORDER BY d.id DESC")
+    List<DeliverySummary> findPage(@Param("beforeId") Long beforeId, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE d.status = :status AND d.id < :beforeId ORDER BY d.id DESC")
+    List<DeliverySummary> findPageByStatus(@Param("status") Delivery.DeliveryStatus status,
+                                           @Param("beforeId") Long beforeId, Pageable pageable);
+    
+    // Fills buyer_id/seller_id on deliveries created before the columns existed
+    @Modifying
+    @Query(value = "UPDATE deliveries d JOIN orders o ON o.id = d.order_id " +
+            "SET d.buyer_id = o.buyer_id, d.seller_id = o.seller_id " +
+            "WHERE d.buyer_id IS NULL OR d.seller_id IS NULL", nativeQuery = true)
+    int backfillPartyIds();
+    
+    // Delivery count per status in one pass
+    @Query("SELECT d.status, COUNT(d) FROM Delivery d GROUP BY d.status")
+    List<Object[]> countGroupedByStatus();
     
     // Count deliveries by status
     @Query("SELECT COUNT(d) FROM Delivery d WHERE d.status = :status")
     Long countByStatus(@Param("status") Delivery.DeliveryStatus status);
     
-    // Find recent deliveries for dashboard
-    @Query("SELECT d FROM Delivery d ORDER BY d.createdAt DESC")
-    List<Delivery> findRecentDeliveries();
+    // Find recent deliveries for dashboard (PageRequest.of(0, n))
+    @Query("SELECT d FROM Delivery d ORDER BY d.id DESC")
+    List<Delivery> findRecentDeliveries(Pageable pageable);
     
     // Find deliveries in transit
     @Query("SELECT d FROM Delivery d WHERE d.status IN ('PICKED_UP', 'IN_TRANSIT', 'OUT_FOR_DELIVERY')")
@@ -74,11 +123,4 @@ public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
     // Find failed deliveries that can be retried
     @Query("SELECT d FROM Delivery d WHERE d.status = 'FAILED' AND d.attemptCount < 3")
     List<Delivery> findRetryableDeliveries();
-    
-    // Performance analytics queries
-    @Query("SELECT AVG(TIMESTAMPDIFF(HOUR, d.createdAt, d.deliveredAt)) FROM Delivery d WHERE d.status = 'DELIVERED' AND d.deliveredAt IS NOT NULL")
-    Double getAverageDeliveryTimeInHours();
-    
-    @Query("SELECT COUNT(d) * 100.0 / (SELECT COUNT(d2) FROM Delivery d2 WHERE d2.createdAt >= :startDate) FROM Delivery d WHERE d.status = 'DELIVERED' AND d.createdAt >= :startDate")
-    Double getDeliverySuccessRate(@Param("startDate") LocalDateTime startDate);
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.tribal.repository;
+
+import com.tribal.model.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    @Query("SELECT o.id FROM EmailOutbox o WHERE o.status = 'PENDING' AND o.nextAttemptAt <= :now ORDER BY o.nextAttemptAt ASC")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Only rows still PENDING are taken, so a concurrent dispatcher can't claim the same row
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.status = 'SENDING', o.claimToken = :token, o.claimedAt = :now " +
+            "WHERE o.id IN :ids AND o.status = 'PENDING'")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token, @Param("now") LocalDateTime now);
+
+    List<EmailOutbox> findByClaimToken(String claimToken);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.status = 'SENT', o.sentAt = :sentAt, o.claimToken = null WHERE o.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    // Rows left SENDING by a worker that died mid-batch go back in the queue
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.status = 'PENDING', o.claimToken = null WHERE o.status = 'SENDING' AND o.claimedAt < :before")
+    int reclaimStale(@Param("before") LocalDateTime before);
+
+    long countByStatus(String status);
+
+    // Outbox rows go with their notification when it is purged
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmailOutbox o WHERE o.notificationId IN :notificationIds")
+    int deleteByNotificationIdIn(@Param("notificationIds") Collection<Long> notificationIds);
+}
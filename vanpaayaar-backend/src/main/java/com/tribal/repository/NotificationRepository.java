@@ -1,11 +1,13 @@
 package com.tribal.repository;
 
 import com.tribal.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,26 +24,48 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     // Count unread notifications for a user
     Long countByUserIdAndUserRoleAndIsReadFalse(Long userId, String userRole);
     
+    // --- Keyset inbox pages, newest first (pass PageRequest.of(0, limit) - the cursor replaces the offset) ---
+    // Ids are assigned at insert time together with createdAt, so id order is creation order
+    
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId AND n.userRole = :userRole AND n.id < :beforeId ORDER BY n.id DESC")
+    List<Notification> findInboxPage(@Param("userId") Long userId, @Param("userRole") String userRole,
+                                     @Param("beforeId") Long beforeId, Pageable pageable);
+    
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId AND n.userRole = :userRole AND n.isRead = false " +
+            "AND n.id < :beforeId ORDER BY n.id DESC")
+    List<Notification> findUnreadInboxPage(@Param("userId") Long userId, @Param("userRole") String userRole,
+                                           @Param("beforeId") Long beforeId, Pageable pageable);
+    
     // Find notifications by type
     List<Notification> findByUserIdAndUserRoleAndTypeOrderByCreatedAtDesc(Long userId, String userRole, String type);
     
     // Find notifications by priority
     List<Notification> findByUserIdAndUserRoleAndPriorityOrderByCreatedAtDesc(Long userId, String userRole, String priority);
     
-    // Mark notification as read
+    // Mark notification as read; returns 0 when it already was
     @Modifying
-    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt WHERE n.id = :id")
-    void markAsRead(@Param("id") Long id, @Param("readAt") LocalDateTime readAt);
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt WHERE n.id = :id AND n.isRead = false")
+    int markAsRead(@Param("id") Long id, @Param("readAt") LocalDateTime readAt);
     
     // Mark all notifications as read for a user
     @Modifying
     @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt WHERE n.userId = :userId AND n.userRole = :userRole AND n.isRead = false")
     void markAllAsRead(@Param("userId") Long userId, @Param("userRole") String userRole, @Param("readAt") LocalDateTime readAt);
     
-    // Delete old notifications (older than specified days)
+    // Oldest expired notifications first, one purge chunk at a time
+    @Query("SELECT n.id FROM Notification n WHERE n.createdAt < :cutoffDate ORDER BY n.createdAt ASC")
+    List<Long> findIdsCreatedBefore(@Param("cutoffDate") LocalDateTime cutoffDate, Pageable pageable);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") java.util.Collection<Long> ids);
+    
+    // Flag notifications whose outbox email went out
     @Modifying
-    @Query("DELETE FROM Notification n WHERE n.createdAt < :cutoffDate")
-    void deleteOldNotifications(@Param("cutoffDate") LocalDateTime cutoffDate);
+    @Transactional
+    @Query("UPDATE Notification n SET n.isEmailSent = true WHERE n.id IN :ids")
+    void markEmailSent(@Param("ids") java.util.Collection<Long> ids);
     
     // Find notifications that need email sending
     List<Notification> findByIsEmailSentFalseAndCreatedAtAfter(LocalDateTime after);
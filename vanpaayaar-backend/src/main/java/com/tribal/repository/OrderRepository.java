@@ -1,18 +1,43 @@
 package com.tribal.repository;
 
+import com.tribal.dto.OrderSummary;
 import com.tribal.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    // Order list projections: buyer, seller and item count in a single grouped select
+    String SUMMARY_SELECT = "SELECT new com.tribal.dto.OrderSummary(o.id, o.status, o.totalAmount, o.orderDate, " +
+            "b.id, b.name, s.id, s.name, COUNT(i)) FROM Order o LEFT JOIN o.buyer b LEFT JOIN o.seller s LEFT JOIN o.items i ";
+    String SUMMARY_GROUP = "GROUP BY o.id, o.status, o.totalAmount, o.orderDate, b.id, b.name, s.id, s.name ORDER BY o.orderDate DESC";
+
+    // Full orders with items and their products fetched in one query instead of one select per item
+    @EntityGraph(attributePaths = {"buyer", "seller", "items", "items.product"})
     List<Order> findByBuyerId(Long buyerId);
+
+    @EntityGraph(attributePaths = {"buyer", "seller", "items", "items.product"})
     List<Order> findBySellerId(Long sellerId);
-    
+
+    @EntityGraph(attributePaths = {"buyer", "seller", "items", "items.product"})
+    Optional<Order> findDetailedById(Long id);
+
+    @Query(SUMMARY_SELECT + SUMMARY_GROUP)
+    List<OrderSummary> findAllSummaries();
+
+    @Query(SUMMARY_SELECT + "WHERE b.id = :buyerId " + SUMMARY_GROUP)
+    List<OrderSummary> findSummariesByBuyerId(@Param("buyerId") Long buyerId);
+
+    @Query(SUMMARY_SELECT + "WHERE s.id = :sellerId " + SUMMARY_GROUP)
+    List<OrderSummary> findSummariesBySellerId(@Param("sellerId") Long sellerId);
+
     // Admin dashboard methods
     long countByStatusNotIn(List<String> statuses);
     
@@ -1,9 +1,15 @@
 package com.tribal.repository;
 
+import com.tribal.dto.PaymentState;
 import com.tribal.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +19,33 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByRazorpayPaymentId(String razorpayPaymentId);
     List<Payment> findByBuyerId(Long buyerId);
     List<Payment> findByStatus(String status);
+
+    // One indexed read (unique razorpay_order_id) for the verify/fail paths - no buyer or order loading
+    @Query("SELECT new com.tribal.dto.PaymentState(p.id, p.razorpayOrderId, p.razorpayPaymentId, p.status, p.amount, " +
+            "p.currency, p.createdAt, p.completedAt, p.errorMessage, p.buyer.id) FROM Payment p WHERE p.razorpayOrderId = :orderId")
+    Optional<PaymentState> findStateByRazorpayOrderId(@Param("orderId") String razorpayOrderId);
+
+    @Query("SELECT new com.tribal.dto.PaymentState(p.id, p.razorpayOrderId, p.razorpayPaymentId, p.status, p.amount, " +
+            "p.currency, p.createdAt, p.completedAt, p.errorMessage, p.buyer.id) FROM Payment p WHERE p.razorpayPaymentId = :paymentId")
+    Optional<PaymentState> findStateByRazorpayPaymentId(@Param("paymentId") String razorpayPaymentId);
+
+    // Conditional transitions: of several concurrent callbacks for one payment, exactly one gets a row back.
+    // SUCCESS is final; a FAILED attempt can still be followed by a successful retry on the same order.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.status = 'SUCCESS', p.razorpayPaymentId = :paymentId, p.razorpaySignature = :signature, " +
+            "p.completedAt = :now, p.errorMessage = null WHERE p.id = :id AND p.status <> 'SUCCESS'")
+    int markSucceeded(@Param("id") Long id, @Param("paymentId") String razorpayPaymentId,
+                      @Param("signature") String razorpaySignature, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.status = 'FAILED', p.errorMessage = :error, p.completedAt = :now " +
+            "WHERE p.id = :id AND p.status IN ('CREATED', 'PENDING')")
+    int markFailed(@Param("id") Long id, @Param("error") String errorMessage, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.errorMessage = :error WHERE p.id = :id")
+    int setErrorMessage(@Param("id") Long id, @Param("error") String errorMessage);
 }
@@ -1,6 +1,8 @@
 package com.tribal.repository;
 
+import com.tribal.dto.ProductSummary;
 import com.tribal.model.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,21 +10,42 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product,Long> {
-    java.util.List<Product> findBySellerId(Long sellerId);
 
-    // Search by keyword in name or description - Using custom query for LONGTEXT compatibility
-    @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(CAST(p.description AS string)) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    java.util.List<Product> searchByKeyword(@Param("keyword") String keyword);
+    // Shared projection for catalog listings - one row per product, seller joined in the same select
+    String SUMMARY_SELECT = "SELECT new com.tribal.dto.ProductSummary(p.id, p.name, p.description, p.category, p.price, " +
+            "p.stock, p.imageUrl, p.featured, s.id, s.name, s.tribeName, s.region) FROM Product p LEFT JOIN p.seller s ";
 
-    // Filter by category (case-insensitive)
-    java.util.List<Product> findByCategoryIgnoreCase(String category);
+    java.util.List<Product> findBySellerId(Long sellerId);
 
     // Filter by price range
     java.util.List<Product> findByPriceBetween(Double min, Double max);
-    
+
     // Find products under a certain price
     java.util.List<Product> findByPriceLessThanEqual(Double maxPrice);
-    
+
     // Find products by category containing keyword (case-insensitive)
     java.util.List<Product> findByCategoryContainingIgnoreCase(String category);
+
+    // Hydrate ranked search hits (ids come from ProductSearchIndex); callers restore the rank order
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+    java.util.List<ProductSummary> findSummariesByIdIn(@Param("ids") java.util.Collection<Long> ids);
+
+    // --- Keyset catalog pages (pass PageRequest.of(0, limit) - the cursor replaces the offset) ---
+
+    @Query(SUMMARY_SELECT + "WHERE p.id > :afterId ORDER BY p.id ASC")
+    java.util.List<ProductSummary> findSummariesAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.id < :beforeId ORDER BY p.id DESC")
+    java.util.List<ProductSummary> findSummariesBeforeId(@Param("beforeId") Long beforeId, Pageable pageable);
+
+    // Products without a price cannot be ordered, so they are left out of the price-sorted views
+    @Query(SUMMARY_SELECT + "WHERE p.price IS NOT NULL AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+            "ORDER BY p.price ASC, p.id ASC")
+    java.util.List<ProductSummary> findSummariesByPriceAsc(@Param("afterPrice") Double afterPrice,
+                                                          @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.price IS NOT NULL AND (p.price < :beforePrice OR (p.price = :beforePrice AND p.id < :beforeId)) " +
+            "ORDER BY p.price DESC, p.id DESC")
+    java.util.List<ProductSummary> findSummariesByPriceDesc(@Param("beforePrice") Double beforePrice,
+                                                           @Param("beforeId") Long beforeId, Pageable pageable);
 }
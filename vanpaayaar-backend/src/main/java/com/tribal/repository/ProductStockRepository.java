@@ -0,0 +1,74 @@
+package com.tribal.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-row stock writes that Spring Data can't express as a single statement.
+ * Runs on the caller's transaction (JdbcTemplate shares the JPA connection).
+ */
+@Repository
+public class ProductStockRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductStockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Decrements stock for every product in {@code quantities} (productId -> quantity) in one
+     * conditional UPDATE. A row is only touched when it still has enough stock, so the caller
+     * compares the returned count with quantities.size() and rolls back on a shortfall.
+     */
+    public int decrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) return 0;
+
+        StringBuilder caseExpr = new StringBuilder("CASE id");
+        StringBuilder inList = new StringBuilder();
+        List<Object> caseArgs = new ArrayList<>();
+        List<Object> idArgs = new ArrayList<>();
+        for (Map.Entry<Long, Integer> e : quantities.entrySet()) {
+            caseExpr.append(" WHEN ? THEN ?");
+            caseArgs.add(e.getKey());
+            caseArgs.add(e.getValue());
+            inList.append(inList.length() == 0 ? "?" : ", ?");
+            idArgs.add(e.getKey());
+        }
+        caseExpr.append(" END");
+
+        String sql = "UPDATE products SET stock = stock - " + caseExpr + ", version = version + 1" +
+                " WHERE id IN (" + inList + ") AND stock >= " + caseExpr;
+        List<Object> args = new ArrayList<>(caseArgs);
+        args.addAll(idArgs);
+        args.addAll(caseArgs);
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+
+    // Current stock (productId -> stock) as this transaction sees it, i.e. after its own updates
+    public Map<Long, Integer> findStock(Collection<Long> productIds) {
+        Map<Long, Integer> stock = new HashMap<>();
+        if (productIds.isEmpty()) return stock;
+        String inList = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        jdbcTemplate.query("SELECT id, stock FROM products WHERE id IN (" + inList + ") AND stock IS NOT NULL",
+                rs -> { stock.put(rs.getLong("id"), rs.getInt("stock")); }, productIds.toArray());
+        return stock;
+    }
+
+    // Returns released stock (productId -> quantity) in one batch
+    public void incrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, Integer> e : quantities.entrySet()) {
+            rows.add(new Object[]{e.getValue(), e.getKey()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE products SET stock = stock + ?, version = version + 1 WHERE id = ? AND stock IS NOT NULL", rows);
+    }
+}
@@ -14,6 +14,8 @@ public interface ServiceableAreaRepository extends JpaRepository<ServiceableArea
     // Find serviceable area by pincode
     Optional<ServiceableArea> findByPincode(String pincode);
     
+    List<ServiceableArea> findByPincodeIn(java.util.Collection<String> pincodes);
+    
     // Check if pincode is serviceable
     @Query("SELECT CASE WHEN COUNT(sa) > 0 THEN true ELSE false END FROM ServiceableArea sa WHERE sa.pincode = :pincode AND sa.isActive = true")
     Boolean isPincodeServiceable(@Param("pincode") String pincode);
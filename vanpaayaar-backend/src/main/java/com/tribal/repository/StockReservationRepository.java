@@ -0,0 +1,38 @@
+package com.tribal.repository;
+
+import com.tribal.model.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Row locks serialize commit, release and the expiry sweep for the same checkout
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockReservation> findByRazorpayOrderId(String razorpayOrderId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockReservation> findByHoldKey(String holdKey);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockReservation> findByBuyerIdAndStatus(Long buyerId, String status);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.razorpayOrderId = :razorpayOrderId WHERE r.holdKey = :holdKey")
+    int attachRazorpayOrder(@Param("holdKey") String holdKey, @Param("razorpayOrderId") String razorpayOrderId);
+
+    @Query("SELECT DISTINCT r.holdKey FROM StockReservation r WHERE r.status = 'HELD' AND r.expiresAt < :now")
+    List<String> findExpiredHoldKeys(@Param("now") LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.status = 'COMMITTED' AND r.expiresAt < :now")
+    List<StockReservation> findExpiredCommitted(@Param("now") LocalDateTime now);
+}
@@ -1,5 +1,7 @@
 package com.tribal.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -16,9 +18,13 @@ public class JwtUtil {
 
     private final Key key;
 
+    // Immutable and thread-safe, so one parser serves every request
+    private final JwtParser parser;
+
     public JwtUtil(@Value("${jwt.secret}") String secret) {
         byte[] keyBytes = Decoders.BASE64.decode(toBase64(secret));
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     private String toBase64(String s) {
@@ -37,25 +43,27 @@ public class JwtUtil {
                 .compact();
     }
 
+    // Verifies the signature and expiry once and returns the claims, or null if the token is not valid
+    public Claims verify(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public String extractSubject(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token)
+        return parser.parseClaimsJws(token)
                 .getBody()
                 .getSubject();
     }
 
     public Map<String, Object> extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token)
+        return parser.parseClaimsJws(token)
                 .getBody();
     }
 
     public boolean isValid(String token) {
-        try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return verify(token) != null;
     }
 }
@@ -0,0 +1,184 @@
+package com.tribal.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BCrypt password hashing on a dedicated, bounded pool.
+ *
+ * The cost is calibrated at startup so one hash takes about target-ms on this machine
+ * (never below min-cost), unless app.security.password.cost pins it. Hashing is CPU-bound
+ * and deliberately slow, so it runs on its own few threads with a short queue: a burst of
+ * logins waits there or is turned away with BusyException instead of tying up the request
+ * threads that serve everything else.
+ *
+ * Rows written before hashing existed hold the raw password. They still verify (compared
+ * in constant time) and verify() hands back a fresh hash for the caller to store, as it
+ * does for hashes made with a lower cost than the current one.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final int MAX_COST = 16;
+
+    @Value("${app.security.password.cost:0}")
+    private int fixedCost;
+
+    @Value("${app.security.password.min-cost:10}")
+    private int minCost;
+
+    @Value("${app.security.password.target-ms:250}")
+    private long targetMillis;
+
+    @Value("${app.security.password.threads:2}")
+    private int threads;
+
+    @Value("${app.security.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.security.password.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    private volatile int cost;
+    private volatile BCryptPasswordEncoder encoder;
+    // Verified against when the email is unknown, so a miss costs the same as a wrong password
+    private volatile String dummyHash;
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    /** Result of a password check; rehash is non-null when the stored value should be replaced. */
+    public record Verification(boolean matches, String rehash) {
+    }
+
+    /** Thrown when the hashing pool and its queue are full. */
+    public static class BusyException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public BusyException() {
+            super("Too many sign-in attempts right now, please try again shortly");
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        cost = fixedCost > 0 ? Math.min(fixedCost, MAX_COST) : calibrate();
+        encoder = new BCryptPasswordEncoder(cost);
+        dummyHash = encoder.encode("not-a-real-password");
+        AtomicLong counter = new AtomicLong();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hasher-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        System.out.println("Password hashing: BCrypt cost " + cost + " on " + threads + " thread(s)");
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks a password against a stored value (BCrypt hash or legacy raw password).
+     * Pass null as stored for an unknown account - it is checked against a dummy hash
+     * and never matches. The future fails with BusyException if the pool is saturated
+     * and with TimeoutException after timeout-ms.
+     */
+    public CompletableFuture<Verification> verify(String raw, String stored) {
+        return submit(() -> {
+            if (stored == null) {
+                encoder.matches(raw, dummyHash);
+                return new Verification(false, null);
+            }
+            boolean matches = isHash(stored)
+                    ? encoder.matches(raw, stored)
+                    : MessageDigest.isEqual(raw.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+            return new Verification(matches, matches && needsRehash(stored) ? encoder.encode(raw) : null);
+        });
+    }
+
+    // Hashes a new password on the pool and waits for it; throws BusyException when saturated
+    public String hash(String raw) {
+        try {
+            return submit(() -> encoder.encode(raw)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusyException busy) throw busy;
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Raw (pre-hashing) values and hashes cheaper than the current cost get upgraded
+    public boolean needsRehash(String stored) {
+        if (!isHash(stored)) return true;
+        int storedCost = (stored.charAt(4) - '0') * 10 + (stored.charAt(5) - '0');
+        return storedCost < cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) return; // timed out while queued
+                try {
+                    future.complete(work.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            future.completeExceptionally(new BusyException());
+            return future;
+        }
+        return future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Every cost step doubles the work, so one timing at min-cost is enough to extrapolate
+    private int calibrate() {
+        long elapsed = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) { // first run includes JIT warm-up
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(minCost).encode("calibration");
+            elapsed = Math.min(elapsed, System.nanoTime() - start);
+        }
+        long target = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        int calibrated = minCost;
+        while (calibrated < MAX_COST && elapsed * 2 <= target) {
+            calibrated++;
+            elapsed *= 2;
+        }
+        return calibrated;
+    }
+
+    private static boolean isHash(String stored) {
+        return stored.length() == 60 && stored.charAt(0) == '$' && stored.charAt(1) == '2'
+                && stored.charAt(3) == '$' && Character.isDigit(stored.charAt(4)) && Character.isDigit(stored.charAt(5));
+    }
+}
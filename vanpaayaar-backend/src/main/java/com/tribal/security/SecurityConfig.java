@@ -30,6 +30,7 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/api/notifications/outbox/stats").hasRole("ADMIN") // Must precede the /api/notifications/** permitAll
                 .requestMatchers("/api/notifications/**").permitAll()
                 .requestMatchers("/api/chatbot/**").permitAll()
                 .requestMatchers("/api/test/**").permitAll() // Test endpoints
@@ -46,6 +47,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/delivery/agents/**").permitAll() // Agent endpoints (should be authenticated later)
                 .requestMatchers("/api/delivery/agent/**").permitAll() // Agent deliveries (should be authenticated later)
                 .requestMatchers("/auth/**").permitAll()
+                .requestMatchers("/payment/gateway/stats").hasRole("ADMIN") // Must precede the /payment/** permitAll
                 .requestMatchers("/payment/**").permitAll()
                 .requestMatchers("/public/**").permitAll() // Add public endpoints
                 .requestMatchers("/admin/**").hasRole("ADMIN")
@@ -0,0 +1,104 @@
+package com.tribal.security;
+
+import com.tribal.util.TtlCache;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bearer token verification for JwtAuthFilter.
+ *
+ * A token is signature-checked and parsed once; the resulting principal is cached
+ * under the SHA-256 of the token (raw tokens are never held) until the token expires
+ * or the cache TTL passes, whichever is sooner. Repeat requests with the same token
+ * cost one hash and a lock-free map lookup instead of an HMAC check and a JSON parse.
+ * Invalid tokens are not cached, so garbage cannot push real entries out.
+ */
+@Component
+public class TokenVerifier {
+
+    private final JwtUtil jwtUtil;
+    private final TtlCache<String, Principal> verified;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public TokenVerifier(JwtUtil jwtUtil,
+                         @Value("${app.jwt.cache.max-entries:10000}") int maxEntries,
+                         @Value("${app.jwt.cache.ttl-ms:300000}") long ttlMillis) {
+        this.jwtUtil = jwtUtil;
+        this.verified = new TtlCache<>(maxEntries, ttlMillis);
+    }
+
+    // The authenticated principal for a token, or null if it is not valid
+    public Principal verify(String token) {
+        if (token == null || token.isEmpty()) return null;
+        String key = hash(token);
+        Principal principal = verified.get(key);
+        if (principal != null) {
+            hits.incrementAndGet();
+            return principal;
+        }
+        misses.incrementAndGet();
+
+        Claims claims = jwtUtil.verify(token);
+        if (claims == null) return null;
+        Object role = claims.get("role");
+        principal = new Principal(claims.getSubject(),
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + (role == null ? "" : role.toString().toUpperCase()))));
+
+        Date expiration = claims.getExpiration();
+        long ttl = expiration == null ? Long.MAX_VALUE : expiration.getTime() - System.currentTimeMillis();
+        if (ttl > 0) verified.put(key, principal, ttl);
+        return principal;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return verified.size();
+    }
+
+    private static String hash(String token) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static class Principal {
+        private final String subject;
+        private final List<SimpleGrantedAuthority> authorities;
+
+        public Principal(String subject, List<SimpleGrantedAuthority> authorities) {
+            this.subject = subject;
+            this.authorities = authorities;
+        }
+
+        public String getSubject() { return subject; }
+        public List<SimpleGrantedAuthority> getAuthorities() { return authorities; }
+    }
+}
@@ -1,4 +1,8 @@
 package com.tribal.service;
+import com.tribal.dto.CursorPage;
+import com.tribal.dto.OrderDetail;
+import com.tribal.dto.OrderSummary;
+import com.tribal.dto.ProductSummary;
 import com.tribal.model.Order;
 import java.util.List;
 import com.tribal.model.*;
@@ -33,7 +37,7 @@ public interface AdminService {
 
 
     // --- PRODUCT MANAGEMENT ---
-    List<Product> getAllProducts();
+    CursorPage<ProductSummary> getAllProducts(String after, Integer limit, String sort);
     List<Product> getPendingProducts();
     Product approveProduct(Long productId);
 //    Product deactivateProduct(Long productId);
@@ -42,8 +46,8 @@ public interface AdminService {
 
 
     // --- ORDER MANAGEMENT ---
-    List<Order> getAllOrders();
-    public Order getOrderById(Long id);
+    List<OrderSummary> getAllOrders();
+    public OrderDetail getOrderById(Long id);
 //    Order updateOrderStatus(Long orderId, String status);
 
 
@@ -0,0 +1,137 @@
+package com.tribal.service;
+
+import com.tribal.repository.AgentLocationRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latest known position of every agent, fed by GPS pings.
+ *
+ * A ping only replaces the agent's entry in memory and marks it dirty; a scheduled flush
+ * writes all dirty agents to MySQL in one JDBC batch and moves them in the dispatch index.
+ * However many pings an agent sends between flushes, it costs one row update. Out-of-order
+ * pings (older timestamp than the stored one) are dropped.
+ */
+@Component
+public class AgentLocationTracker {
+
+    private final AgentLocationRepository agentLocationRepository;
+    private final DeliveryDispatchIndex dispatchIndex;
+
+    private final Map<Long, Position> positions = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong pingsTotal = new AtomicLong();
+    private final AtomicLong staleTotal = new AtomicLong();
+    private final AtomicLong rowsFlushedTotal = new AtomicLong();
+    private final AtomicLong flushesTotal = new AtomicLong();
+
+    public AgentLocationTracker(AgentLocationRepository agentLocationRepository, DeliveryDispatchIndex dispatchIndex) {
+        this.agentLocationRepository = agentLocationRepository;
+        this.dispatchIndex = dispatchIndex;
+    }
+
+    // Returns false when the ping is older than the position already held
+    public boolean record(Long agentId, double latitude, double longitude, String pincode, Long timestampMs) {
+        if (agentId == null) return false;
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Invalid coordinates for agent " + agentId);
+        }
+        pingsTotal.incrementAndGet();
+        long at = timestampMs != null ? timestampMs : System.currentTimeMillis();
+        Position ping = new Position(latitude, longitude, pincode == null || pincode.isBlank() ? null : pincode.trim(), at);
+        Position stored = positions.merge(agentId, ping, (current, incoming) ->
+                incoming.getRecordedAtMs() >= current.getRecordedAtMs() ? incoming.withPincodeFrom(current) : current);
+        if (stored.getRecordedAtMs() > at) {
+            staleTotal.incrementAndGet();
+            return false;
+        }
+        dirty.add(agentId);
+        return true;
+    }
+
+    public Optional<Position> getPosition(Long agentId) {
+        return Optional.ofNullable(positions.get(agentId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.delivery.location.flush-ms:2000}")
+    public void flush() {
+        if (dirty.isEmpty()) return;
+        List<Long> agentIds = new ArrayList<>(dirty.size());
+        List<Object[]> rows = new ArrayList<>(dirty.size());
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long agentId = it.next();
+            it.remove();
+            Position p = positions.get(agentId);
+            if (p == null) continue;
+            agentIds.add(agentId);
+            rows.add(new Object[]{agentId, p.getLatitude(), p.getLongitude(), p.getPincode(),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(p.getRecordedAtMs()), ZoneId.systemDefault())});
+        }
+
+        int[] counts;
+        try {
+            counts = agentLocationRepository.updatePositions(rows);
+        } catch (Exception e) {
+            // Try again next round
+            dirty.addAll(agentIds);
+            System.err.println("Agent location flush failed for " + rows.size() + " agents: " + e.getMessage());
+            return;
+        }
+        flushesTotal.incrementAndGet();
+        rowsFlushedTotal.addAndGet(rows.size());
+
+        for (int i = 0; i < agentIds.size(); i++) {
+            Long agentId = agentIds.get(i);
+            // Unknown agent - don't keep its pings around. Driver may report SUCCESS_NO_INFO (-2) for a batch row.
+            if (i < counts.length && counts[i] == 0) {
+                positions.remove(agentId);
+                continue;
+            }
+            Object[] row = rows.get(i);
+            dispatchIndex.move(agentId, (Double) row[1], (Double) row[2]);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedAgents", positions.size());
+        stats.put("dirtyAgents", dirty.size());
+        stats.put("pingsTotal", pingsTotal.get());
+        stats.put("stalePingsTotal", staleTotal.get());
+        stats.put("flushesTotal", flushesTotal.get());
+        stats.put("rowsFlushedTotal", rowsFlushedTotal.get());
+        return stats;
+    }
+
+    public static class Position {
+        private final double latitude;
+        private final double longitude;
+        private final String pincode;
+        private final long recordedAtMs;
+
+        public Position(double latitude, double longitude, String pincode, long recordedAtMs) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.pincode = pincode;
+            this.recordedAtMs = recordedAtMs;
+        }
+
+        // Pings without a pincode keep the last one reported
+        Position withPincodeFrom(Position previous) {
+            return pincode != null || previous.pincode == null ? this : new Position(latitude, longitude, previous.pincode, recordedAtMs);
+        }
+
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public String getPincode() { return pincode; }
+        public long getRecordedAtMs() { return recordedAtMs; }
+    }
+}
@@ -0,0 +1,443 @@
+package com.tribal.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tribal.dto.ImportReport;
+import com.tribal.repository.BulkImportRepository;
+import com.tribal.util.CsvReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk import of serviceable areas and delivery agents from CSV or JSON.
+ *
+ * The file is read one record at a time (CSV with a header row, or a JSON array of
+ * objects), each record is validated, and valid rows are upserted in chunks of
+ * chunk-size, one transaction per chunk - memory stays bounded by the chunk, not the
+ * file. When a chunk is rejected by the database its rows are retried one by one so
+ * only the offending rows are reported. Progress is visible through getImports()
+ * while an import runs.
+ *
+ * Column names are matched case-insensitively ignoring '_', '-' and spaces, so
+ * "area_name", "areaName" and "Area Name" are the same column.
+ */
+@Component
+public class BulkImportService {
+
+    public static final String AREAS = "serviceable-areas";
+    public static final String AGENTS = "agents";
+
+    private static final int KEEP_REPORTS = 20;
+
+    // Set by a record source on a record it could read but not map (e.g. too many CSV fields)
+    private static final String MALFORMED = "_malformed";
+
+    private static final Pattern PINCODE = Pattern.compile("\\d{6}");
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+    private static final Pattern PHONE = Pattern.compile("\\+?[0-9][0-9 -]{6,18}");
+
+    // Column names used by setup-delivery-system.sql
+    private static final Map<String, String> ALIASES = Map.of(
+            "isserviceable", "isactive",
+            "standarddeliverycharge", "deliverycharge");
+
+    private final BulkImportRepository importRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ServiceableAreaTable areaTable;
+    private final DeliveryDispatchIndex dispatchIndex;
+
+    @Value("${app.delivery.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.delivery.import.max-errors:200}")
+    private int maxErrors;
+
+    // Most recent imports, oldest dropped first
+    private final Map<String, ImportReport> reports = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImportReport> eldest) {
+            return size() > KEEP_REPORTS;
+        }
+    });
+
+    public BulkImportService(BulkImportRepository importRepository,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             ServiceableAreaTable areaTable,
+                             DeliveryDispatchIndex dispatchIndex) {
+        this.importRepository = importRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.areaTable = areaTable;
+        this.dispatchIndex = dispatchIndex;
+    }
+
+    public ImportReport importAreas(InputStream in, String format, String fileName) {
+        ImportReport report = run(AREAS, in, format, fileName, this::parseArea, chunk -> {
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            for (Row row : chunk) rows.add(row.values);
+            importRepository.upsertAreas(rows);
+        });
+        if (report.getRowsImported() > 0) areaTable.refresh();
+        return report;
+    }
+
+    public ImportReport importAgents(InputStream in, String format, String fileName) {
+        ImportReport report = run(AGENTS, in, format, fileName, this::parseAgent, chunk -> {
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            Map<String, List<String>> pincodesByEmail = new LinkedHashMap<>();
+            for (Row row : chunk) {
+                rows.add(row.values);
+                pincodesByEmail.put(row.key, row.pincodes);
+            }
+            importRepository.upsertAgents(rows, pincodesByEmail);
+        });
+        // Agents changed in bulk: one rebuild instead of an index event per row
+        if (report.getRowsImported() > 0) dispatchIndex.rebuild();
+        return report;
+    }
+
+    // Newest first
+    public List<ImportReport> getImports() {
+        List<ImportReport> list;
+        synchronized (reports) {
+            list = new ArrayList<>(reports.values());
+        }
+        Collections.reverse(list);
+        return list;
+    }
+
+    public Optional<ImportReport> getImport(String importId) {
+        return Optional.ofNullable(reports.get(importId));
+    }
+
+    // csv or json; an explicit format wins, otherwise the file extension decides
+    public static String resolveFormat(String format, String fileName, String contentType) {
+        if (format != null && !format.isBlank()) {
+            String f = format.trim().toLowerCase(Locale.ROOT);
+            if (!f.equals("csv") && !f.equals("json")) {
+                throw new IllegalArgumentException("Unsupported import format: " + format + " (use csv or json)");
+            }
+            return f;
+        }
+        if (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".json")) return "json";
+        if (contentType != null && contentType.contains("json")) return "json";
+        return "csv";
+    }
+
+    // --- import loop ---
+
+    private ImportReport run(String type, InputStream in, String format, String fileName,
+                             RowParser parser, ChunkWriter writer) {
+        ImportReport report = new ImportReport();
+        report.setImportId(UUID.randomUUID().toString().substring(0, 8));
+        report.setType(type);
+        report.setFormat(format);
+        report.setFileName(fileName);
+        report.setStatus("RUNNING");
+        report.setStartedAt(LocalDateTime.now());
+        reports.put(report.getImportId(), report);
+
+        long start = System.nanoTime();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        try (RecordSource source = "json".equals(format) ? new JsonSource(in) : new CsvSource(in)) {
+            Map<String, String> record;
+            while ((record = source.next()) != null) {
+                report.setRowsRead(report.getRowsRead() + 1);
+                try {
+                    if (record.containsKey(MALFORMED)) throw new IllegalArgumentException(record.get(MALFORMED));
+                    chunk.add(parser.parse(record, source.getLine()));
+                } catch (IllegalArgumentException e) {
+                    fail(report, source.getLine(), keyOf(record), e.getMessage());
+                }
+                if (chunk.size() >= chunkSize) {
+                    flush(report, chunk, writer);
+                    chunk.clear();
+                    updateTiming(report, start);
+                }
+            }
+            flush(report, chunk, writer);
+            report.setStatus("COMPLETED");
+        } catch (IOException | RuntimeException e) {
+            // Malformed file or lost database: rows flushed so far stay imported
+            report.setStatus("FAILED");
+            report.setMessage(e.getMessage());
+            System.err.println("Bulk import " + report.getImportId() + " (" + type + ") failed: " + e.getMessage());
+        }
+        updateTiming(report, start);
+        System.out.println("Bulk import " + report.getImportId() + " (" + type + "): " + report.getRowsImported()
+                + " imported, " + report.getRowsFailed() + " failed in " + report.getDurationMs() + " ms");
+        return report;
+    }
+
+    private void flush(ImportReport report, List<Row> chunk, ChunkWriter writer) {
+        if (chunk.isEmpty()) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> writer.write(chunk));
+            report.setRowsImported(report.getRowsImported() + chunk.size());
+        } catch (DataAccessException e) {
+            // One bad row rolls back the whole chunk; retry row by row to find it
+            for (Row row : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writer.write(List.of(row)));
+                    report.setRowsImported(report.getRowsImported() + 1);
+                } catch (DataAccessException rowError) {
+                    fail(report, row.line, row.key, rootMessage(rowError));
+                }
+            }
+        }
+        report.setChunks(report.getChunks() + 1);
+    }
+
+    private void fail(ImportReport report, long line, String key, String message) {
+        report.setRowsFailed(report.getRowsFailed() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ImportReport.RowError(line, key, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static void updateTiming(ImportReport report, long start) {
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        report.setDurationMs(elapsedMs);
+        report.setRowsPerSecond(report.getRowsRead() * 1000 / elapsedMs);
+    }
+
+    // --- row validation ---
+
+    // {pincode, area_name, city, state, is_active, is_premium, standard_delivery_days,
+    //  express_delivery_days, delivery_charge, express_delivery_charge, latitude, longitude}
+    private Row parseArea(Map<String, String> f, long line) {
+        String pincode = pincode(f.get("pincode"), "pincode");
+        String city = f.get("city");
+        String areaName = f.get("areaname") != null ? f.get("areaname") : city;
+        if (areaName == null) throw new IllegalArgumentException("areaName (or city) is required");
+        Object[] values = {
+                pincode, areaName, city, f.get("state"),
+                bool(f.get("isactive"), "isActive"), bool(f.get("ispremium"), "isPremium"),
+                integer(f.get("standarddeliverydays"), "standardDeliveryDays", 0, 60),
+                integer(f.get("expressdeliverydays"), "expressDeliveryDays", 0, 60),
+                decimal(f.get("deliverycharge"), "deliveryCharge", 0, 100000),
+                decimal(f.get("expressdeliverycharge"), "expressDeliveryCharge", 0, 100000),
+                decimal(f.get("latitude"), "latitude", -90, 90),
+                decimal(f.get("longitude"), "longitude", -180, 180)};
+        return new Row(line, pincode, values, null);
+    }
+
+    // {email, name, phone, current_pincode, vehicle_type, vehicle_number} + serviceable pincodes
+    private Row parseAgent(Map<String, String> f, long line) {
+        String email = f.get("email");
+        if (email == null) throw new IllegalArgumentException("email is required");
+        email = email.toLowerCase(Locale.ROOT);
+        if (!EMAIL.matcher(email).matches()) throw new IllegalArgumentException("Invalid email: " + email);
+        String name = f.get("name");
+        if (name == null) throw new IllegalArgumentException("name is required");
+        String phone = f.get("phone");
+        if (phone == null || !PHONE.matcher(phone).matches()) throw new IllegalArgumentException("Invalid phone: " + phone);
+        String currentPincode = pincode(f.get("currentpincode"), "currentPincode");
+        String vehicleType = f.get("vehicletype") != null ? f.get("vehicletype").toUpperCase(Locale.ROOT) : null;
+
+        // The file is the source of truth for the agents it lists; none given means the home pincode only
+        Set<String> pincodes = new LinkedHashSet<>();
+        String listed = f.get("serviceablepincodes");
+        if (listed != null) {
+            for (String p : listed.split("[,;|\\s]+")) {
+                if (!p.isEmpty()) pincodes.add(pincode(p, "serviceablePincodes"));
+            }
+        }
+        if (pincodes.isEmpty()) pincodes.add(currentPincode);
+
+        Object[] values = {email, name, phone, currentPincode, vehicleType, f.get("vehiclenumber")};
+        return new Row(line, email, values, new ArrayList<>(pincodes));
+    }
+
+    private static String pincode(String value, String field) {
+        if (value == null) throw new IllegalArgumentException(field + " is required");
+        if (!PINCODE.matcher(value).matches()) throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        return value;
+    }
+
+    private static Boolean bool(String value, String field) {
+        if (value == null) return null;
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true": case "1": case "yes": case "y": return true;
+            case "false": case "0": case "no": case "n": return false;
+            default: throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static Integer integer(String value, String field, int min, int max) {
+        if (value == null) return null;
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < min || parsed > max) throw new IllegalArgumentException(field + " must be between " + min + " and " + max);
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static Double decimal(String value, String field, double min, double max) {
+        if (value == null) return null;
+        try {
+            double parsed = Double.parseDouble(value);
+            if (!(parsed >= min && parsed <= max)) throw new IllegalArgumentException(field + " must be between " + min + " and " + max);
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static String keyOf(Map<String, String> record) {
+        return record.containsKey("pincode") ? record.get("pincode") : record.get("email");
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) root = root.getCause();
+        return root.getMessage();
+    }
+
+    // Lower-case, letters and digits only, aliases resolved
+    private static String column(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+        return ALIASES.getOrDefault(normalized, normalized);
+    }
+
+    private static String value(String raw) {
+        if (raw == null) return null;
+        String trimmed = raw.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // --- record sources ---
+
+    private interface RecordSource extends Closeable {
+        Map<String, String> next() throws IOException;
+        long getLine();
+    }
+
+    private static class CsvSource implements RecordSource {
+        private final CsvReader reader;
+        private List<String> header;
+
+        CsvSource(InputStream in) {
+            this.reader = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (header == null) {
+                List<String> names = reader.next();
+                if (names == null) return null;
+                header = new ArrayList<>(names.size());
+                for (String name : names) header.add(column(name));
+            }
+            List<String> fields = reader.next();
+            if (fields == null) return null;
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < header.size() && i < fields.size(); i++) {
+                record.put(header.get(i), value(fields.get(i)));
+            }
+            if (fields.size() > header.size()) {
+                record.put(MALFORMED, "Expected " + header.size() + " fields but found " + fields.size());
+            }
+            return record;
+        }
+
+        @Override
+        public long getLine() {
+            return reader.getLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private class JsonSource implements RecordSource {
+        private final JsonParser parser;
+        private long line;
+
+        JsonSource(InputStream in) throws IOException {
+            this.parser = objectMapper.getFactory().createParser(in);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of objects");
+            }
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) return null;
+            line = parser.currentTokenLocation().getLineNr();
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object on line " + line);
+            }
+            JsonNode node = objectMapper.readTree(parser);
+            Map<String, String> record = new HashMap<>();
+            node.properties().forEach(field -> {
+                JsonNode v = field.getValue();
+                String text;
+                if (v.isNull()) {
+                    text = null;
+                } else if (v.isArray()) {
+                    StringJoiner joined = new StringJoiner(",");
+                    v.forEach(item -> joined.add(item.asText()));
+                    text = joined.toString();
+                } else {
+                    text = v.asText();
+                }
+                record.put(column(field.getKey()), value(text));
+            });
+            return record;
+        }
+
+        @Override
+        public long getLine() {
+            return line;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        Row parse(Map<String, String> fields, long line);
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(List<Row> chunk);
+    }
+
+    private static class Row {
+        final long line;
+        final String key;
+        final Object[] values;
+        final List<String> pincodes;
+
+        Row(long line, String key, Object[] values, List<String> pincodes) {
+            this.line = line;
+            this.key = key;
+            this.values = values;
+            this.pincodes = pincodes;
+        }
+    }
+}
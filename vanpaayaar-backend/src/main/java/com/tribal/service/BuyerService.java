@@ -1,5 +1,10 @@
 package com.tribal.service;
 
+import com.tribal.dto.CatalogFilter;
+import com.tribal.dto.CursorPage;
+import com.tribal.dto.FacetedCatalogPage;
+import com.tribal.dto.OrderDetail;
+import com.tribal.dto.ProductSummary;
 import com.tribal.model.Cart;
 import com.tribal.model.Order;
 import com.tribal.model.Product;
@@ -10,7 +15,7 @@ import java.util.List;
 
 public interface BuyerService {
     // Products
-    List<Product> listProducts();
+    CursorPage<ProductSummary> listProducts(String after, Integer limit, String sort);
     Product getProduct(Long productId);
 
     // Cart
@@ -21,7 +26,7 @@ public interface BuyerService {
 
     // Orders
     List<Order> placeOrder(Long buyerId);
-    List<Order> getOrders(Long buyerId);
+    List<OrderDetail> getOrders(Long buyerId);
 
     // Reviews
     Review addReview(Long buyerId, Long productId, int rating, String comment);
@@ -37,7 +42,8 @@ public interface BuyerService {
     Buyer updateProfile(Long buyerId, Buyer updatedBuyer);
 
     // --- SEARCH / FILTER ---
-    List<Product> searchProducts(String keyword);
-    List<Product> filterProductsByCategory(String category);
+    List<ProductSummary> searchProducts(String keyword, Integer limit);
+    CursorPage<ProductSummary> filterProductsByCategory(String category, String after, Integer limit);
+    FacetedCatalogPage browseProducts(CatalogFilter filter, String after, Integer limit);
     List<Product> filterProductsByPriceRange(double min, double max);
 }
@@ -0,0 +1,35 @@
+package com.tribal.service;
+
+import com.tribal.dto.CatalogFilter;
+import com.tribal.dto.CursorPage;
+import com.tribal.dto.FacetedCatalogPage;
+import com.tribal.dto.ProductSummary;
+import com.tribal.model.Product;
+
+public interface CatalogService {
+
+    // Sort keys accepted by getProductPage
+    String SORT_ID = "id";
+    String SORT_NEWEST = "newest";
+    String SORT_PRICE_ASC = "price_asc";
+    String SORT_PRICE_DESC = "price_desc";
+
+    int DEFAULT_LIMIT = 50;
+    int MAX_LIMIT = 100;
+
+    // after: nextCursor of the previous page (null for the first page)
+    CursorPage<ProductSummary> getProductPage(String after, Integer limit, String sort);
+
+    // Combined category/price/region/tribe/featured/in-stock filter with live facet counts (id order)
+    FacetedCatalogPage browse(CatalogFilter filter, String after, Integer limit);
+
+    // Same filter and paging as browse, without counting facets
+    CursorPage<ProductSummary> filter(CatalogFilter filter, String after, Integer limit);
+
+    // Keep the in-memory search and facet indexes in step with product writes
+    void productSaved(Product product);
+    void productDeleted(Long productId);
+
+    // Re-read a batch of products in one query and refresh their index entries (e.g. after a bulk stock update)
+    void productsChanged(java.util.Collection<Long> productIds);
+}
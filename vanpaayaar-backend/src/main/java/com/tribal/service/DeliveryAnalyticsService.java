@@ -0,0 +1,145 @@
+package com.tribal.service;
+
+import com.tribal.event.DeliveryStatusChangedEvent;
+import com.tribal.model.Delivery;
+import com.tribal.repository.DeliveryAgentRepository;
+import com.tribal.repository.DeliveryDailyRollupRepository;
+import com.tribal.repository.DeliveryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivery dashboard numbers without scanning the deliveries table.
+ *
+ * Per-status delivery counts are seeded with one GROUP BY and then kept live from
+ * DeliveryStatusChangedEvent after each commit (re-seeded every few minutes to absorb
+ * changes made by other instances). Everything else on the dashboard - agent counts,
+ * averages from the daily rollups, the top-rated agents - is a handful of aggregate
+ * queries whose result is cached as a snapshot for cache-ms, so a dashboard request
+ * costs no queries at all while the snapshot is fresh.
+ */
+@Component
+public class DeliveryAnalyticsService {
+
+    private static final int TOP_AGENTS = 5;
+
+    private final DeliveryRepository deliveryRepository;
+    private final DeliveryAgentRepository agentRepository;
+    private final DeliveryDailyRollupRepository rollupRepository;
+
+    @Value("${app.delivery.analytics.cache-ms:5000}")
+    private long cacheMs;
+
+    private final Map<Delivery.DeliveryStatus, AtomicLong> statusCounts = new EnumMap<>(Delivery.DeliveryStatus.class);
+
+    private volatile Map<String, Object> snapshot;
+    private volatile long snapshotAt;
+
+    public DeliveryAnalyticsService(DeliveryRepository deliveryRepository,
+                                    DeliveryAgentRepository agentRepository,
+                                    DeliveryDailyRollupRepository rollupRepository) {
+        this.deliveryRepository = deliveryRepository;
+        this.agentRepository = agentRepository;
+        this.rollupRepository = rollupRepository;
+        for (Delivery.DeliveryStatus status : Delivery.DeliveryStatus.values()) {
+            statusCounts.put(status, new AtomicLong());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000)
+    public void reseed() {
+        Map<Delivery.DeliveryStatus, Long> counts = new EnumMap<>(Delivery.DeliveryStatus.class);
+        for (Object[] row : deliveryRepository.countGroupedByStatus()) {
+            if (row[0] != null) counts.put((Delivery.DeliveryStatus) row[0], ((Number) row[1]).longValue());
+        }
+        for (Map.Entry<Delivery.DeliveryStatus, AtomicLong> e : statusCounts.entrySet()) {
+            e.getValue().set(counts.getOrDefault(e.getKey(), 0L));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(DeliveryStatusChangedEvent event) {
+        if (event.getPrevious() == event.getCurrent()) return;
+        if (event.getPrevious() != null) statusCounts.get(event.getPrevious()).decrementAndGet();
+        if (event.getCurrent() != null) statusCounts.get(event.getCurrent()).incrementAndGet();
+    }
+
+    public long count(Delivery.DeliveryStatus status) {
+        return statusCounts.get(status).get();
+    }
+
+    public Map<String, Long> getStatusBreakdown() {
+        Map<String, Long> breakdown = new LinkedHashMap<>();
+        for (Map.Entry<Delivery.DeliveryStatus, AtomicLong> e : statusCounts.entrySet()) {
+            breakdown.put(e.getKey().name(), e.getValue().get());
+        }
+        return breakdown;
+    }
+
+    // Dashboard snapshot; rebuilt at most once per cache-ms, concurrent callers share one rebuild
+    public Map<String, Object> getSnapshot() {
+        Map<String, Object> current = snapshot;
+        if (current != null && System.currentTimeMillis() - snapshotAt < cacheMs) return current;
+        synchronized (this) {
+            if (snapshot != null && System.currentTimeMillis() - snapshotAt < cacheMs) return snapshot;
+            snapshot = Collections.unmodifiableMap(build());
+            snapshotAt = System.currentTimeMillis();
+            return snapshot;
+        }
+    }
+
+    private Map<String, Object> build() {
+        Map<String, Object> analytics = new LinkedHashMap<>();
+
+        long total = 0;
+        for (AtomicLong c : statusCounts.values()) total += c.get();
+        analytics.put("totalDeliveries", total);
+        analytics.put("activeDeliveries", count(Delivery.DeliveryStatus.PICKED_UP)
+                + count(Delivery.DeliveryStatus.IN_TRANSIT) + count(Delivery.DeliveryStatus.OUT_FOR_DELIVERY));
+        analytics.put("completedDeliveries", count(Delivery.DeliveryStatus.COMPLETED));
+        analytics.put("failedDeliveries", count(Delivery.DeliveryStatus.FAILED));
+
+        // total, online, available, overloaded - one row
+        List<Object[]> agentRows = agentRepository.getAgentCounts();
+        Object[] agents = agentRows.isEmpty() ? new Object[4] : agentRows.get(0);
+        analytics.put("totalAgents", asLong(agents[0]));
+        analytics.put("onlineAgents", asLong(agents[1]));
+        analytics.put("availableAgents", asLong(agents[2]));
+        analytics.put("overloadedAgents", asLong(agents[3]));
+
+        Double avgDeliveryTime = rollupRepository.getAverageDeliveryTimeInHours();
+        analytics.put("averageDeliveryTimeHours", avgDeliveryTime != null ? avgDeliveryTime : 0.0);
+
+        LocalDate weekAgo = LocalDate.now().minusWeeks(1);
+        long createdThisWeek = rollupRepository.countSince(Delivery.DeliveryStatus.CREATED.name(), weekAgo);
+        long deliveredThisWeek = rollupRepository.countSince(Delivery.DeliveryStatus.DELIVERED.name(), weekAgo);
+        analytics.put("weeklySuccessRate", createdThisWeek > 0 ? deliveredThisWeek * 100.0 / createdThisWeek : 0.0);
+
+        analytics.put("topRatedAgents", agentRepository.findTopRatedAgents(PageRequest.of(0, TOP_AGENTS)));
+
+        Map<String, Long> breakdown = getStatusBreakdown();
+        analytics.put("statusBreakdown", Map.of(
+                "created", breakdown.get("CREATED"),
+                "assigned", breakdown.get("ASSIGNED"),
+                "inTransit", breakdown.get("IN_TRANSIT"),
+                "delivered", breakdown.get("DELIVERED")));
+        analytics.put("statusCounts", breakdown);
+        analytics.put("generatedAt", java.time.Instant.now().toString());
+        return analytics;
+    }
+
+    private static long asLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+}
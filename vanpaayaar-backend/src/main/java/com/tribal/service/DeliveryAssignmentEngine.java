@@ -0,0 +1,228 @@
+package com.tribal.service;
+
+import com.tribal.model.Delivery;
+import com.tribal.model.DeliveryAgent;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Assigns a batch of pending deliveries to agents in one go.
+ *
+ * The batch is solved as a min-cost flow: source -> delivery (1 unit) -> candidate agent ->
+ * sink, with one unit-capacity agent -> sink edge per free workload slot. The k-th extra slot
+ * of an agent costs k * slotPenalty, which is exactly how the agent's score drops as its
+ * workload rises, so spreading work is priced the same way calculateAgentScore prices it.
+ * Edge costs are (C - score) for a constant C above every score, which makes the result
+ * assign as many deliveries as possible first and then maximise the total score among those
+ * assignments - unlike one-at-a-time greedy, where early deliveries take the best agents.
+ *
+ * Successive shortest paths with Dijkstra and potentials: O(F * E log V) for F assignments.
+ */
+@Component
+public class DeliveryAssignmentEngine {
+
+    public static final int MAX_WORKLOAD = 3;
+
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * @param deliveries  pending deliveries, oldest first (the greedy baseline walks them in this order)
+     * @param candidates  delivery id -> agents that may take it
+     * @param score       higher is better, evaluated at the agent's current workload
+     * @param slotPenalty score lost per extra delivery an agent already carries
+     */
+    public Result solve(List<Delivery> deliveries, Map<Long, List<DeliveryAgent>> candidates,
+                        ToDoubleBiFunction<DeliveryAgent, Delivery> score, double slotPenalty) {
+        // Dense node numbering: 0 = source, deliveries, agents, sink
+        Map<Long, Integer> agentNodes = new LinkedHashMap<>();
+        List<DeliveryAgent> agents = new ArrayList<>();
+        for (Delivery delivery : deliveries) {
+            for (DeliveryAgent agent : candidates.getOrDefault(delivery.getId(), Collections.emptyList())) {
+                if (capacity(agent) > 0 && !agentNodes.containsKey(agent.getId())) {
+                    agentNodes.put(agent.getId(), 1 + deliveries.size() + agents.size());
+                    agents.add(agent);
+                }
+            }
+        }
+        int source = 0;
+        int sink = 1 + deliveries.size() + agents.size();
+
+        // Score of every feasible pair, and C so that every edge cost is non-negative
+        double[][] pairScores = new double[deliveries.size()][];
+        double maxScore = 0;
+        int pairCount = 0;
+        for (int i = 0; i < deliveries.size(); i++) {
+            List<DeliveryAgent> options = candidates.getOrDefault(deliveries.get(i).getId(), Collections.emptyList());
+            pairScores[i] = new double[options.size()];
+            for (int j = 0; j < options.size(); j++) {
+                pairScores[i][j] = score.applyAsDouble(options.get(j), deliveries.get(i));
+                maxScore = Math.max(maxScore, pairScores[i][j]);
+                pairCount++;
+            }
+        }
+        double offset = maxScore + 1;
+
+        Graph graph = new Graph(sink + 1, deliveries.size() + pairCount + agents.size() * MAX_WORKLOAD);
+        for (int i = 0; i < deliveries.size(); i++) {
+            graph.addEdge(source, 1 + i, 0);
+            List<DeliveryAgent> options = candidates.getOrDefault(deliveries.get(i).getId(), Collections.emptyList());
+            for (int j = 0; j < options.size(); j++) {
+                Integer agentNode = agentNodes.get(options.get(j).getId());
+                if (agentNode != null) graph.addEdge(1 + i, agentNode, offset - pairScores[i][j]);
+            }
+        }
+        for (DeliveryAgent agent : agents) {
+            int node = agentNodes.get(agent.getId());
+            for (int k = 0; k < capacity(agent); k++) {
+                graph.addEdge(node, sink, k * slotPenalty);
+            }
+        }
+
+        graph.minCostFlow(source, sink);
+
+        // Read the assignment off the saturated delivery -> agent edges
+        Map<Long, DeliveryAgent> assignments = new LinkedHashMap<>();
+        double totalScore = 0;
+        for (int i = 0; i < deliveries.size(); i++) {
+            for (int e = graph.head[1 + i]; e >= 0; e = graph.next[e]) {
+                int to = graph.to[e];
+                if ((e & 1) == 0 && to != source && graph.cap[e] == 0) {
+                    DeliveryAgent agent = agents.get(to - 1 - deliveries.size());
+                    assignments.put(deliveries.get(i).getId(), agent);
+                    totalScore += offset - graph.cost[e];
+                    break;
+                }
+            }
+        }
+        // Workload penalties of the slots actually used
+        Map<Long, Integer> perAgent = new HashMap<>();
+        for (DeliveryAgent agent : assignments.values()) perAgent.merge(agent.getId(), 1, Integer::sum);
+        for (int used : perAgent.values()) totalScore -= slotPenalty * used * (used - 1) / 2.0;
+
+        Result greedy = greedy(deliveries, candidates, score, slotPenalty);
+        return new Result(assignments, totalScore, greedy.getAssignments().size(), greedy.getTotalScore());
+    }
+
+    // One delivery at a time, best remaining agent each - the baseline the batch result is compared against
+    public Result greedy(List<Delivery> deliveries, Map<Long, List<DeliveryAgent>> candidates,
+                         ToDoubleBiFunction<DeliveryAgent, Delivery> score, double slotPenalty) {
+        Map<Long, Integer> used = new HashMap<>();
+        Map<Long, DeliveryAgent> assignments = new LinkedHashMap<>();
+        double totalScore = 0;
+        for (Delivery delivery : deliveries) {
+            DeliveryAgent best = null;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (DeliveryAgent agent : candidates.getOrDefault(delivery.getId(), Collections.emptyList())) {
+                int taken = used.getOrDefault(agent.getId(), 0);
+                if (taken >= capacity(agent)) continue;
+                double s = score.applyAsDouble(agent, delivery) - taken * slotPenalty;
+                if (s > bestScore) {
+                    bestScore = s;
+                    best = agent;
+                }
+            }
+            if (best != null) {
+                used.merge(best.getId(), 1, Integer::sum);
+                assignments.put(delivery.getId(), best);
+                totalScore += bestScore;
+            }
+        }
+        return new Result(assignments, totalScore, assignments.size(), totalScore);
+    }
+
+    private static int capacity(DeliveryAgent agent) {
+        int workload = agent.getCurrentWorkload() == null ? 0 : agent.getCurrentWorkload();
+        return Math.max(0, MAX_WORKLOAD - workload);
+    }
+
+    public static class Result {
+        private final Map<Long, DeliveryAgent> assignments;
+        private final double totalScore;
+        private final int greedyAssigned;
+        private final double greedyScore;
+
+        public Result(Map<Long, DeliveryAgent> assignments, double totalScore, int greedyAssigned, double greedyScore) {
+            this.assignments = assignments;
+            this.totalScore = totalScore;
+            this.greedyAssigned = greedyAssigned;
+            this.greedyScore = greedyScore;
+        }
+
+        public Map<Long, DeliveryAgent> getAssignments() { return assignments; }
+        public double getTotalScore() { return totalScore; }
+        public int getGreedyAssigned() { return greedyAssigned; }
+        public double getGreedyScore() { return greedyScore; }
+    }
+
+    // Adjacency-array residual graph; edge e and e ^ 1 are a forward/backward pair
+    private static final class Graph {
+        final int[] head;
+        int[] next;
+        int[] to;
+        int[] cap;
+        double[] cost;
+        int edgeCount = 0;
+
+        Graph(int nodes, int edges) {
+            head = new int[nodes];
+            Arrays.fill(head, -1);
+            next = new int[edges * 2];
+            to = new int[edges * 2];
+            cap = new int[edges * 2];
+            cost = new double[edges * 2];
+        }
+
+        void addEdge(int from, int target, double edgeCost) {
+            add(from, target, 1, edgeCost);
+            add(target, from, 0, -edgeCost);
+        }
+
+        private void add(int from, int target, int capacity, double edgeCost) {
+            to[edgeCount] = target;
+            cap[edgeCount] = capacity;
+            cost[edgeCount] = edgeCost;
+            next[edgeCount] = head[from];
+            head[from] = edgeCount++;
+        }
+
+        void minCostFlow(int source, int sink) {
+            int n = head.length;
+            double[] potential = new double[n];
+            double[] dist = new double[n];
+            int[] via = new int[n];
+            while (true) {
+                Arrays.fill(dist, Double.POSITIVE_INFINITY);
+                Arrays.fill(via, -1);
+                dist[source] = 0;
+                PriorityQueue<double[]> queue = new PriorityQueue<>(Comparator.comparingDouble(a -> a[0]));
+                queue.add(new double[]{0, source});
+                while (!queue.isEmpty()) {
+                    double[] top = queue.poll();
+                    int u = (int) top[1];
+                    if (top[0] > dist[u] + EPSILON) continue;
+                    for (int e = head[u]; e >= 0; e = next[e]) {
+                        if (cap[e] == 0) continue;
+                        int v = to[e];
+                        double reduced = cost[e] + potential[u] - potential[v];
+                        if (dist[u] + reduced < dist[v] - EPSILON) {
+                            dist[v] = dist[u] + reduced;
+                            via[v] = e;
+                            queue.add(new double[]{dist[v], v});
+                        }
+                    }
+                }
+                if (dist[sink] == Double.POSITIVE_INFINITY) return;
+                for (int v = 0; v < n; v++) {
+                    if (dist[v] < Double.POSITIVE_INFINITY) potential[v] += dist[v];
+                }
+                // Every path carries one unit (source edges have capacity 1)
+                for (int v = sink; v != source; v = to[via[v] ^ 1]) {
+                    cap[via[v]]--;
+                    cap[via[v] ^ 1]++;
+                }
+            }
+        }
+    }
+}
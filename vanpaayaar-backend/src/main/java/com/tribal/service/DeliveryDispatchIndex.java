@@ -0,0 +1,235 @@
+package com.tribal.service;
+
+import com.tribal.event.DeliveryAgentChangedEvent;
+import com.tribal.model.DeliveryAgent;
+import com.tribal.repository.DeliveryAgentRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory dispatch index over delivery agents.
+ *
+ * Every agent gets a dense ordinal. Each serviceable pincode keeps a BitSet of the agents
+ * covering it (exact match, unlike the old LIKE '%pincode%' query), "available" holds the
+ * agents that can take a new order right now, and a uniform lat/lon grid keeps a BitSet
+ * per cell of agents last seen there. Finding candidates for a delivery is an AND of two
+ * bitsets, optionally narrowed to the grid cells nearest the pickup point.
+ *
+ * DeliveryServiceImpl publishes a DeliveryAgentChangedEvent whenever it changes an agent's
+ * availability, pincodes or position; the index applies it after commit. Callers still
+ * re-check candidates against the database, so a stale bit can cost a wasted lookup but
+ * never a wrong assignment.
+ */
+@Component
+public class DeliveryDispatchIndex {
+
+    // ~5.5 km per cell at Indian latitudes
+    private static final double CELL_DEGREES = 0.05;
+    private static final int MAX_RING = 6;
+
+    private final DeliveryAgentRepository agentRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] ordinalIds = new long[256];
+    private int ordinalCount = 0;
+
+    private final BitSet available = new BitSet();
+    private final Map<String, BitSet> byPincode = new HashMap<>();
+    private final Map<Long, BitSet> byCell = new HashMap<>();
+
+    // ordinal -> what it was indexed under, so an update can clear the old bits
+    private final Map<Integer, Set<String>> pincodesByOrdinal = new HashMap<>();
+    private final Map<Integer, Long> cellByOrdinal = new HashMap<>();
+
+    public DeliveryDispatchIndex(DeliveryAgentRepository agentRepository) {
+        this.agentRepository = agentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<DeliveryAgent> agents = agentRepository.findAllWithPincodes();
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            ordinalIds = new long[Math.max(256, agents.size() + agents.size() / 4)];
+            ordinalCount = 0;
+            available.clear();
+            byPincode.clear();
+            byCell.clear();
+            pincodesByOrdinal.clear();
+            cellByOrdinal.clear();
+            for (DeliveryAgent agent : agents) {
+                apply(DeliveryAgentChangedEvent.of(agent));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Delivery dispatch index built: " + agents.size() + " agents, " + byPincode.size() + " pincodes");
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAgentChanged(DeliveryAgentChangedEvent event) {
+        if (event.getAgentId() == null) return;
+        lock.writeLock().lock();
+        try {
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of available agents serving {@code pincode}. When a pickup position is known and more
+     * than {@code enough} agents qualify, only those in the nearest grid rings are returned
+     * (at least {@code enough} of them, if that many lie within MAX_RING cells).
+     */
+    public List<Long> candidates(String pincode, Double latitude, Double longitude, int enough) {
+        if (pincode == null) return Collections.emptyList();
+        lock.readLock().lock();
+        try {
+            BitSet serving = byPincode.get(pincode.trim());
+            if (serving == null) return Collections.emptyList();
+            BitSet matches = (BitSet) serving.clone();
+            matches.and(available);
+
+            if (latitude != null && longitude != null && matches.cardinality() > enough) {
+                BitSet near = new BitSet();
+                long row = cellIndex(latitude);
+                long col = cellIndex(longitude);
+                for (int ring = 0; ring <= MAX_RING && near.cardinality() < enough; ring++) {
+                    for (long r = row - ring; r <= row + ring; r++) {
+                        for (long c = col - ring; c <= col + ring; c++) {
+                            // Only the border of the square; the inside was covered by earlier rings
+                            if (Math.abs(r - row) != ring && Math.abs(c - col) != ring) continue;
+                            BitSet cell = byCell.get(cellKey(r, c));
+                            if (cell == null) continue;
+                            BitSet hit = (BitSet) cell.clone();
+                            hit.and(matches);
+                            near.or(hit);
+                        }
+                    }
+                }
+                if (near.cardinality() >= enough) matches = near;
+            }
+            return ids(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Available agents within roughly radiusKm of a point, regardless of pincode
+    public List<Long> availableNear(double latitude, double longitude, double radiusKm) {
+        int rings = (int) Math.ceil(radiusKm / (CELL_DEGREES * 111.0));
+        lock.readLock().lock();
+        try {
+            BitSet near = new BitSet();
+            long row = cellIndex(latitude);
+            long col = cellIndex(longitude);
+            for (long r = row - rings; r <= row + rings; r++) {
+                for (long c = col - rings; c <= col + rings; c++) {
+                    BitSet cell = byCell.get(cellKey(r, c));
+                    if (cell != null) near.or(cell);
+                }
+            }
+            near.and(available);
+            return ids(near);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Position-only update from the GPS ingest path; availability and pincodes are untouched
+    public void move(Long agentId, Double latitude, Double longitude) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(agentId);
+            if (ordinal != null) moveToCell(ordinal, latitude, longitude);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int availableCount() {
+        lock.readLock().lock();
+        try {
+            return available.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- internals (callers hold the write or read lock) ---
+
+    private void apply(DeliveryAgentChangedEvent event) {
+        int ordinal = ordinalFor(event.getAgentId());
+
+        available.set(ordinal, event.isAvailable());
+
+        Set<String> previous = pincodesByOrdinal.getOrDefault(ordinal, Collections.emptySet());
+        for (String pincode : previous) {
+            if (event.getServiceablePincodes().contains(pincode)) continue;
+            BitSet bits = byPincode.get(pincode);
+            if (bits == null) continue;
+            bits.clear(ordinal);
+            if (bits.isEmpty()) byPincode.remove(pincode);
+        }
+        for (String pincode : event.getServiceablePincodes()) {
+            byPincode.computeIfAbsent(pincode, p -> new BitSet()).set(ordinal);
+        }
+        pincodesByOrdinal.put(ordinal, event.getServiceablePincodes());
+
+        moveToCell(ordinal, event.getLatitude(), event.getLongitude());
+    }
+
+    private void moveToCell(int ordinal, Double latitude, Double longitude) {
+        Long oldCell = cellByOrdinal.remove(ordinal);
+        if (oldCell != null) {
+            BitSet bits = byCell.get(oldCell);
+            if (bits != null) {
+                bits.clear(ordinal);
+                if (bits.isEmpty()) byCell.remove(oldCell);
+            }
+        }
+        if (latitude != null && longitude != null) {
+            long cell = cellKey(cellIndex(latitude), cellIndex(longitude));
+            byCell.computeIfAbsent(cell, k -> new BitSet()).set(ordinal);
+            cellByOrdinal.put(ordinal, cell);
+        }
+    }
+
+    private int ordinalFor(Long agentId) {
+        Integer ordinal = ordinals.get(agentId);
+        if (ordinal != null) return ordinal;
+        if (ordinalCount == ordinalIds.length) {
+            ordinalIds = Arrays.copyOf(ordinalIds, ordinalIds.length * 2);
+        }
+        ordinal = ordinalCount++;
+        ordinalIds[ordinal] = agentId;
+        ordinals.put(agentId, ordinal);
+        return ordinal;
+    }
+
+    private List<Long> ids(BitSet bits) {
+        List<Long> ids = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            ids.add(ordinalIds[i]);
+        }
+        return ids;
+    }
+
+    private static long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) ^ (col & 0xffffffffL);
+    }
+}
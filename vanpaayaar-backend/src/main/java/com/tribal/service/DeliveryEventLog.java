@@ -0,0 +1,126 @@
+package com.tribal.service;
+
+import com.tribal.model.Delivery;
+import com.tribal.model.DeliveryEvent;
+import com.tribal.repository.DeliveryEventBatchRepository;
+import com.tribal.repository.DeliveryEventRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Append-only log of delivery status transitions.
+ *
+ * Transitions appended during a transaction are buffered and written just before it
+ * commits: the events in one JDBC batch, then the affected per-day rollups in one batch of
+ * INSERT ... ON DUPLICATE KEY UPDATE. Events and rollups therefore commit or roll back with
+ * the status change itself. The deliveries row stays the materialized current state; the log
+ * adds history (tracking timeline) and the rollups make SLA analytics O(days).
+ */
+@Component
+public class DeliveryEventLog {
+
+    private final DeliveryEventRepository deliveryEventRepository;
+    private final DeliveryEventBatchRepository batchRepository;
+
+    public DeliveryEventLog(DeliveryEventRepository deliveryEventRepository,
+                            DeliveryEventBatchRepository batchRepository) {
+        this.deliveryEventRepository = deliveryEventRepository;
+        this.batchRepository = batchRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (batchRepository.hasEvents()) return;
+        int inserted = batchRepository.backfill();
+        if (inserted > 0) {
+            System.out.println("Delivery event log backfilled with " + inserted + " events from delivery timestamps");
+        }
+    }
+
+    // Record that the delivery just moved to its current status
+    public void append(Delivery delivery, String note) {
+        if (delivery.getId() == null || delivery.getStatus() == null) return;
+        PendingEvent pending = new PendingEvent(
+                DeliveryEvent.builder()
+                        .deliveryId(delivery.getId())
+                        .status(delivery.getStatus().name())
+                        .occurredAt(LocalDateTime.now())
+                        .agentId(delivery.getAgent() != null ? delivery.getAgent().getId() : null)
+                        .note(note != null && note.length() > 255 ? note.substring(0, 255) : note)
+                        .build(),
+                delivery.getCreatedAt());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(List.of(pending));
+            return;
+        }
+        buffer().add(pending);
+    }
+
+    public List<DeliveryEvent> timeline(Long deliveryId) {
+        return deliveryEventRepository.findByDeliveryIdOrderByIdAsc(deliveryId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PendingEvent> buffer() {
+        List<PendingEvent> buffer = (List<PendingEvent>) TransactionSynchronizationManager.getResource(this);
+        if (buffer != null) return buffer;
+
+        List<PendingEvent> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                write(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(DeliveryEventLog.this);
+            }
+        });
+        return created;
+    }
+
+    private void write(List<PendingEvent> pending) {
+        if (pending.isEmpty()) return;
+        List<DeliveryEvent> events = new ArrayList<>(pending.size());
+        // (day, status) -> {count, hours}
+        Map<String, Object[]> rollups = new TreeMap<>(); // sorted, so concurrent commits lock rollup rows in the same order
+        for (PendingEvent p : pending) {
+            DeliveryEvent event = p.event;
+            events.add(event);
+            LocalDate day = event.getOccurredAt().toLocalDate();
+            double hours = 0;
+            if (Delivery.DeliveryStatus.DELIVERED.name().equals(event.getStatus()) && p.createdAt != null) {
+                hours = Duration.between(p.createdAt, event.getOccurredAt()).getSeconds() / 3600.0;
+            }
+            Object[] row = rollups.computeIfAbsent(day + "|" + event.getStatus(), k -> new Object[]{day, event.getStatus(), 0L, 0.0});
+            row[2] = (Long) row[2] + 1;
+            row[3] = (Double) row[3] + hours;
+        }
+        batchRepository.insertEvents(events);
+        batchRepository.addToRollups(new ArrayList<>(rollups.values()));
+        pending.clear();
+    }
+
+    private static final class PendingEvent {
+        final DeliveryEvent event;
+        final LocalDateTime createdAt;
+
+        PendingEvent(DeliveryEvent event, LocalDateTime createdAt) {
+            this.event = event;
+            this.createdAt = createdAt;
+        }
+    }
+}
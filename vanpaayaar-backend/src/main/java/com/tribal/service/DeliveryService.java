@@ -1,5 +1,7 @@
 package com.tribal.service;
 
+import com.tribal.dto.CursorPage;
+import com.tribal.dto.DeliverySummary;
 import com.tribal.model.Delivery;
 import com.tribal.model.DeliveryAgent;
 import com.tribal.model.Order;
@@ -24,8 +26,17 @@ public interface DeliveryService {
     
     // Tracking and monitoring
     Optional<Delivery> trackDelivery(String trackingId);
-    List<Delivery> getDeliveriesForAgent(Long agentId);
+    Optional<Delivery> getDelivery(Long deliveryId);
+    List<Delivery> getDeliveriesForAgent(Long agentId); // newest page only
     List<Delivery> getActiveDeliveries();
+    List<Delivery> getDeliveriesForBuyer(Long buyerId); // newest page only
+    List<Delivery> getDeliveriesForSeller(Long sellerId); // newest page only
+    
+    // Paginated listings, newest first: pass nextCursor back as "after" for the next page
+    CursorPage<DeliverySummary> getBuyerDeliveryPage(Long buyerId, String after, Integer limit);
+    CursorPage<DeliverySummary> getSellerDeliveryPage(Long sellerId, String after, Integer limit);
+    CursorPage<DeliverySummary> getAgentDeliveryPage(Long agentId, String after, Integer limit);
+    CursorPage<DeliverySummary> getDeliveryPage(String status, String after, Integer limit); // status optional
     Map<String, Object> getDeliveryAnalytics();
     
     // Serviceability
@@ -34,13 +45,13 @@ public interface DeliveryService {
     Integer getEstimatedDeliveryDays(String pincode, String deliveryType);
     
     // Admin functions
-    List<Delivery> getAllDeliveries();
+    List<Delivery> getAllDeliveries(); // newest page only; getDeliveryPage for the rest
     boolean reassignDelivery(Long deliveryId, Long newAgentId);
     List<Delivery> getOverdueDeliveries();
     Map<String, Object> getAgentPerformanceStats(Long agentId);
     
     // Simulation and automation
     void simulateDeliveryProgress(Long deliveryId);
-    void processAutomaticAssignments();
+    Map<String, Object> processAutomaticAssignments(); // returns batch size, assignments and the greedy baseline
     void updateAgentLocations();
 }
\ No newline at end of file
@@ -0,0 +1,188 @@
+package com.tribal.service;
+
+import com.tribal.event.DeliveryTimerEvent;
+import com.tribal.model.Delivery;
+import com.tribal.repository.DeliveryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivery state timers: simulated agent acceptance, pickup SLA and overdue checks.
+ *
+ * All timers live in one ScheduledThreadPoolExecutor with a fixed, small number of threads,
+ * replacing a sleeping platform thread per assignment. A due timer publishes a
+ * DeliveryTimerEvent, which DeliveryServiceImpl handles transactionally after re-checking the
+ * delivery's status, so a timer that outlived its purpose is a no-op.
+ *
+ * Nothing is stored for the timers themselves: each one is a function of a delivery's status
+ * and timestamps (assignedAt, acceptedAt, estimatedDeliveryTime), so on startup they are
+ * rebuilt from the open deliveries, and ones that came due while the app was down fire at once.
+ */
+@Component
+public class DeliveryTimerService {
+
+    private final DeliveryRepository deliveryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.delivery.timer-threads:2}")
+    private int timerThreads;
+
+    @Value("${app.delivery.simulated-acceptance-seconds:5}")
+    private long acceptanceSeconds;
+
+    @Value("${app.delivery.pickup-sla-minutes:120}")
+    private long pickupSlaMinutes;
+
+    private ScheduledThreadPoolExecutor scheduler;
+
+    // "<type>:<deliveryId>" -> pending timer, so a reschedule replaces and terminal states cancel
+    private final Map<String, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong scheduledTotal = new AtomicLong();
+    private final AtomicLong firedTotal = new AtomicLong();
+    private final AtomicLong failedTotal = new AtomicLong();
+
+    public DeliveryTimerService(DeliveryRepository deliveryRepository, ApplicationEventPublisher eventPublisher) {
+        this.deliveryRepository = deliveryRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicLong counter = new AtomicLong();
+        scheduler = new ScheduledThreadPoolExecutor(timerThreads, r -> {
+            Thread t = new Thread(r, "delivery-timer-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        int count = 0;
+        for (Object[] row : deliveryRepository.findOpenDeliveryTimes()) {
+            Long id = (Long) row[0];
+            Delivery.DeliveryStatus status = (Delivery.DeliveryStatus) row[1];
+            LocalDateTime assignedAt = (LocalDateTime) row[2];
+            LocalDateTime acceptedAt = (LocalDateTime) row[3];
+            LocalDateTime estimatedDeliveryTime = (LocalDateTime) row[4];
+
+            if (status == Delivery.DeliveryStatus.ASSIGNED) {
+                scheduleAcceptance(id, assignedAt);
+                count++;
+            } else if (status == Delivery.DeliveryStatus.ACCEPTED_BY_AGENT) {
+                schedulePickupSla(id, acceptedAt);
+                count++;
+            }
+            if (estimatedDeliveryTime != null && status != Delivery.DeliveryStatus.DELIVERED) {
+                scheduleOverdue(id, estimatedDeliveryTime);
+                count++;
+            }
+        }
+        System.out.println("Delivery timers reloaded: " + count);
+    }
+
+    public void scheduleAcceptance(Long deliveryId, LocalDateTime assignedAt) {
+        LocalDateTime from = assignedAt != null ? assignedAt : LocalDateTime.now();
+        schedule(deliveryId, DeliveryTimerEvent.Type.AGENT_ACCEPTANCE, from.plusSeconds(acceptanceSeconds));
+    }
+
+    public void schedulePickupSla(Long deliveryId, LocalDateTime acceptedAt) {
+        LocalDateTime from = acceptedAt != null ? acceptedAt : LocalDateTime.now();
+        schedule(deliveryId, DeliveryTimerEvent.Type.PICKUP_SLA, from.plusMinutes(pickupSlaMinutes));
+    }
+
+    public void scheduleOverdue(Long deliveryId, LocalDateTime estimatedDeliveryTime) {
+        if (estimatedDeliveryTime == null) return;
+        schedule(deliveryId, DeliveryTimerEvent.Type.OVERDUE, estimatedDeliveryTime);
+    }
+
+    // Drop every pending timer of a delivery (it reached a terminal state)
+    public void cancelAll(Long deliveryId) {
+        for (DeliveryTimerEvent.Type type : DeliveryTimerEvent.Type.values()) {
+            cancel(deliveryId, type);
+        }
+    }
+
+    public void cancel(Long deliveryId, DeliveryTimerEvent.Type type) {
+        ScheduledFuture<?> future = pending.remove(key(deliveryId, type));
+        if (future != null) future.cancel(false);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("threads", scheduler.getPoolSize());
+        stats.put("activeThreads", scheduler.getActiveCount());
+        stats.put("scheduledTotal", scheduledTotal.get());
+        stats.put("firedTotal", firedTotal.get());
+        stats.put("failedTotal", failedTotal.get());
+        return stats;
+    }
+
+    private void schedule(Long deliveryId, DeliveryTimerEvent.Type type, LocalDateTime dueAt) {
+        if (deliveryId == null) return;
+        // Arm the timer only once the state it belongs to is committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    arm(deliveryId, type, dueAt);
+                }
+            });
+        } else {
+            arm(deliveryId, type, dueAt);
+        }
+    }
+
+    private void arm(Long deliveryId, DeliveryTimerEvent.Type type, LocalDateTime dueAt) {
+        String key = key(deliveryId, type);
+        long delayMs = Math.max(0, Duration.between(LocalDateTime.now(), dueAt).toMillis());
+        ScheduledFuture<?>[] self = new ScheduledFuture<?>[1];
+        ScheduledFuture<?> future = scheduler.schedule(() -> {
+            pending.remove(key, self[0]);
+            fire(deliveryId, type);
+        }, delayMs, TimeUnit.MILLISECONDS);
+        self[0] = future;
+        ScheduledFuture<?> previous = pending.put(key, future);
+        if (previous != null) previous.cancel(false);
+        // A timer already due may have run before it was registered
+        if (future.isDone()) pending.remove(key, future);
+        scheduledTotal.incrementAndGet();
+    }
+
+    private void fire(Long deliveryId, DeliveryTimerEvent.Type type) {
+        try {
+            eventPublisher.publishEvent(new DeliveryTimerEvent(deliveryId, type));
+            firedTotal.incrementAndGet();
+        } catch (Exception e) {
+            failedTotal.incrementAndGet();
+            System.err.println("Delivery timer " + type + " for delivery " + deliveryId + " failed: " + e.getMessage());
+        }
+    }
+
+    private static String key(Long deliveryId, DeliveryTimerEvent.Type type) {
+        return type + ":" + deliveryId;
+    }
+}
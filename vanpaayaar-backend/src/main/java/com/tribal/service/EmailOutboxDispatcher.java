@@ -0,0 +1,308 @@
+package com.tribal.service;
+
+import com.tribal.event.EmailQueuedEvent;
+import com.tribal.model.EmailOutbox;
+import com.tribal.model.Notification;
+import com.tribal.repository.EmailOutboxRepository;
+import com.tribal.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the email outbox.
+ *
+ * A single dispatcher thread claims due rows in batches and hands each batch to a
+ * bounded worker pool; a worker sends its batch over one SMTP connection. Failed
+ * messages are retried with exponential backoff until max-attempts. The dispatcher
+ * wakes when a notification transaction commits and also polls, which picks up
+ * retries and anything queued while the app was down.
+ *
+ * Point spring.mail.host/port at an in-process SMTP server (e.g. GreenMail) to exercise it locally.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    // Recent enqueue-to-sent latencies kept for the stats endpoint
+    private static final int LATENCY_WINDOW = 1024;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final NotificationRepository notificationRepository;
+    private final EmailService emailService;
+
+    @Value("${app.mail.outbox.workers:2}")
+    private int workers;
+
+    @Value("${app.mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    private ExecutorService dispatcher;
+    private ExecutorService workerPool;
+    private Semaphore workerSlots;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    // Metrics
+    private final AtomicLong sentTotal = new AtomicLong();
+    private final AtomicLong retriedTotal = new AtomicLong();
+    private final AtomicLong failedTotal = new AtomicLong();
+    private final AtomicLong batchesTotal = new AtomicLong();
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount = 0;
+    private int latencyNext = 0;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 NotificationRepository notificationRepository,
+                                 EmailService emailService) {
+        this.outboxRepository = outboxRepository;
+        this.notificationRepository = notificationRepository;
+        this.emailService = emailService;
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher = Executors.newSingleThreadExecutor(named("email-outbox-dispatcher"));
+        workerPool = Executors.newFixedThreadPool(workers, named("email-outbox-worker"));
+        workerSlots = new Semaphore(workers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        dispatcher.shutdownNow();
+        workerPool.shutdown();
+        try {
+            workerPool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEmailQueued(EmailQueuedEvent event) {
+        wakeUp();
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    // Claims that outlived a generous send window belong to a worker or instance that died
+    @Scheduled(fixedDelay = 60000)
+    public void reclaimStaleClaims() {
+        int reclaimed = outboxRepository.reclaimStale(LocalDateTime.now().minusMinutes(10));
+        if (reclaimed > 0) {
+            System.err.println("Email outbox: re-queued " + reclaimed + " stale claimed message(s)");
+        }
+    }
+
+    public void wakeUp() {
+        // Coalesce wake-ups: at most one drain waiting to run
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drainScheduled.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                workerSlots.acquire();
+                // The permit belongs to the worker once submitted; any other exit gives it back
+                boolean handedOff = false;
+                try {
+                    List<EmailOutbox> batch = claimBatch();
+                    if (batch.isEmpty()) return;
+                    workerPool.execute(() -> {
+                        try {
+                            sendBatch(batch);
+                        } finally {
+                            workerSlots.release();
+                        }
+                    });
+                    handedOff = true;
+                } finally {
+                    if (!handedOff) workerSlots.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Email outbox dispatcher error: " + e.getMessage());
+        }
+    }
+
+    private List<EmailOutbox> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = outboxRepository.findDueIds(now, PageRequest.of(0, batchSize));
+        if (due.isEmpty()) return Collections.emptyList();
+        String token = UUID.randomUUID().toString();
+        if (outboxRepository.claim(due, token, now) == 0) return Collections.emptyList();
+        return outboxRepository.findByClaimToken(token);
+    }
+
+    private void sendBatch(List<EmailOutbox> batch) {
+        batchesTotal.incrementAndGet();
+        Map<Long, Notification> notifications = notificationRepository
+                .findAllById(batch.stream().map(EmailOutbox::getNotificationId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Notification::getId, Function.identity()));
+
+        List<MimeMessage> messages = new ArrayList<>();
+        Map<MimeMessage, EmailOutbox> rowByMessage = new IdentityHashMap<>();
+        List<EmailOutbox> retry = new ArrayList<>();
+        Map<EmailOutbox, String> errors = new HashMap<>();
+
+        for (EmailOutbox row : batch) {
+            Notification notification = notifications.get(row.getNotificationId());
+            try {
+                MimeMessage message = notification == null ? null : emailService.buildNotificationMessage(notification);
+                if (message == null) {
+                    // Notification deleted or recipient has no email - nothing to retry
+                    giveUp(row, notification == null ? "Notification no longer exists" : "User email not found");
+                    continue;
+                }
+                messages.add(message);
+                rowByMessage.put(message, row);
+            } catch (Exception e) {
+                retry.add(row);
+                errors.put(row, e.getMessage());
+            }
+        }
+
+        List<EmailOutbox> sent = new ArrayList<>();
+        try {
+            Map<Object, Exception> failed = emailService.sendBatch(messages);
+            for (MimeMessage message : messages) {
+                EmailOutbox row = rowByMessage.get(message);
+                Exception error = failed.get(message);
+                if (error == null) {
+                    sent.add(row);
+                } else {
+                    retry.add(row);
+                    errors.put(row, error.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            // Authentication or connection setup failed - the whole batch goes round again
+            for (MimeMessage message : messages) {
+                EmailOutbox row = rowByMessage.get(message);
+                retry.add(row);
+                errors.put(row, e.getMessage());
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            outboxRepository.markSent(sent.stream().map(EmailOutbox::getId).collect(Collectors.toList()), now);
+            notificationRepository.markEmailSent(sent.stream().map(EmailOutbox::getNotificationId).collect(Collectors.toList()));
+            sentTotal.addAndGet(sent.size());
+            for (EmailOutbox row : sent) {
+                recordLatency(Duration.between(row.getCreatedAt(), now).toMillis());
+            }
+        }
+        for (EmailOutbox row : retry) {
+            scheduleRetry(row, errors.get(row));
+        }
+        if (!retry.isEmpty()) {
+            outboxRepository.saveAll(retry);
+        }
+    }
+
+    private void scheduleRetry(EmailOutbox row, String error) {
+        int attempts = row.getAttempts() == null ? 1 : row.getAttempts() + 1;
+        row.setAttempts(attempts);
+        row.setClaimToken(null);
+        row.setLastError(truncate(error));
+        if (attempts >= maxAttempts) {
+            row.setStatus(EmailOutbox.FAILED);
+            failedTotal.incrementAndGet();
+            System.err.println("Giving up on email for notification " + row.getNotificationId() + ": " + error);
+            return;
+        }
+        // 30s, 1m, 2m, 4m ... capped at an hour
+        long delay = Math.min(retryBaseSeconds << (attempts - 1), 3600);
+        row.setStatus(EmailOutbox.PENDING);
+        row.setNextAttemptAt(LocalDateTime.now().plusSeconds(delay));
+        retriedTotal.incrementAndGet();
+    }
+
+    private void giveUp(EmailOutbox row, String reason) {
+        row.setStatus(EmailOutbox.FAILED);
+        row.setClaimToken(null);
+        row.setLastError(reason);
+        outboxRepository.save(row);
+        failedTotal.incrementAndGet();
+    }
+
+    private synchronized void recordLatency(long millis) {
+        latencies[latencyNext] = millis;
+        latencyNext = (latencyNext + 1) % LATENCY_WINDOW;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+    }
+
+    // Queue depth, throughput counters and enqueue-to-sent latency over the last LATENCY_WINDOW sends
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", outboxRepository.countByStatus(EmailOutbox.PENDING));
+        stats.put("sending", outboxRepository.countByStatus(EmailOutbox.SENDING));
+        stats.put("failed", outboxRepository.countByStatus(EmailOutbox.FAILED));
+        stats.put("busyWorkers", workers - workerSlots.availablePermits());
+        stats.put("workers", workers);
+        stats.put("sentTotal", sentTotal.get());
+        stats.put("retriedTotal", retriedTotal.get());
+        stats.put("failedTotal", failedTotal.get());
+        stats.put("batchesTotal", batchesTotal.get());
+
+        long[] window;
+        synchronized (this) {
+            window = Arrays.copyOf(latencies, latencyCount);
+        }
+        Arrays.sort(window);
+        if (window.length > 0) {
+            stats.put("latencyAvgMs", Arrays.stream(window).sum() / window.length);
+            stats.put("latencyP50Ms", window[window.length / 2]);
+            stats.put("latencyP95Ms", window[Math.min(window.length - 1, (int) (window.length * 0.95))]);
+            stats.put("latencyMaxMs", window[window.length - 1]);
+        }
+        return stats;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) return null;
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicLong counter = new AtomicLong();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.tribal.service;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A "{{name}}" HTML template parsed once into alternating literal and variable segments.
+ * Rendering is a straight walk over the segments into a per-thread buffer - no format
+ * string parsing and no regrowth of a fresh builder for every email.
+ * Values are inserted as-is (no HTML escaping), same as the String.format templates this replaced.
+ */
+public final class EmailTemplate {
+
+    // Buffers that grew past this are dropped after use instead of being kept per thread
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(16 * 1024));
+
+    // literals[i] comes before variables[i]; the final literal follows the last variable
+    private final String[] literals;
+    private final String[] variables;
+    private final int literalLength;
+
+    private EmailTemplate(List<String> literals, List<String> variables) {
+        this.literals = literals.toArray(new String[0]);
+        this.variables = variables.toArray(new String[0]);
+        int length = 0;
+        for (String literal : this.literals) length += literal.length();
+        this.literalLength = length;
+    }
+
+    public static EmailTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = source.indexOf("{{", pos);
+            int close = open < 0 ? -1 : source.indexOf("}}", open + 2);
+            if (close < 0) break;
+            literals.add(source.substring(pos, open));
+            variables.add(source.substring(open + 2, close).trim());
+            pos = close + 2;
+        }
+        literals.add(source.substring(pos));
+        return new EmailTemplate(literals, variables);
+    }
+
+    public static EmailTemplate load(String classpathLocation) {
+        try (InputStream in = new ClassPathResource(classpathLocation).getInputStream()) {
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load email template " + classpathLocation, e);
+        }
+    }
+
+    // Folds values that never change (app url etc.) into the literal text, so they cost nothing per render
+    public EmailTemplate bind(Map<String, String> constants) {
+        List<String> newLiterals = new ArrayList<>();
+        List<String> newVariables = new ArrayList<>();
+        StringBuilder pending = new StringBuilder(literals[0]);
+        for (int i = 0; i < variables.length; i++) {
+            String constant = constants.get(variables[i]);
+            if (constant != null) {
+                pending.append(constant).append(literals[i + 1]);
+            } else {
+                newLiterals.add(pending.toString());
+                newVariables.add(variables[i]);
+                pending = new StringBuilder(literals[i + 1]);
+            }
+        }
+        newLiterals.add(pending.toString());
+        return new EmailTemplate(newLiterals, newVariables);
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        out.ensureCapacity(literalLength + 1024);
+        for (int i = 0; i < variables.length; i++) {
+            out.append(literals[i]);
+            String value = values.get(variables[i]);
+            if (value != null) out.append(value);
+        }
+        out.append(literals[variables.length]);
+        String html = out.toString();
+        if (out.capacity() > MAX_RETAINED_BUFFER) BUFFER.remove();
+        return html;
+    }
+}
@@ -0,0 +1,82 @@
+package com.tribal.service;
+
+import com.tribal.dto.Identity;
+import com.tribal.repository.CredentialRepository;
+import com.tribal.util.TtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+
+/**
+ * Resolves accounts by email (login) or id (notification recipients) with one query on
+ * basetable, behind a short-lived cache.
+ *
+ * Identities are cached by id; the email cache only maps an email to that id, so
+ * evicting an id is enough after a profile or password change - a stale email entry
+ * then misses and goes back to the database. Unknown emails and ids are not cached.
+ */
+@Service
+public class IdentityService {
+
+    private final CredentialRepository credentialRepository;
+    private final TtlCache<Long, Identity> byId;
+    private final TtlCache<String, Long> idByEmail;
+
+    public IdentityService(CredentialRepository credentialRepository,
+                           @Value("${app.security.identity.cache.max-entries:10000}") int maxEntries,
+                           @Value("${app.security.identity.cache.ttl-ms:60000}") long ttlMillis) {
+        this.credentialRepository = credentialRepository;
+        this.byId = new TtlCache<>(maxEntries, ttlMillis);
+        this.idByEmail = new TtlCache<>(maxEntries, ttlMillis);
+    }
+
+    // Accounts created before the user_role column existed get it from their subtype table, once
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRoles() {
+        int updated = credentialRepository.backfillRoles();
+        if (updated > 0) {
+            System.out.println("Backfilled user_role on " + updated + " accounts");
+        }
+    }
+
+    public Identity findByEmail(String email) {
+        if (email == null) return null;
+        String key = email.toLowerCase(Locale.ROOT);
+        Long id = idByEmail.get(key);
+        Identity identity = id == null ? null : byId.get(id);
+        if (identity != null && identity.getEmail().equalsIgnoreCase(email)) {
+            return identity;
+        }
+        identity = credentialRepository.findByEmail(email).orElse(null);
+        if (identity != null) cache(identity);
+        return identity;
+    }
+
+    public Identity findById(Long id) {
+        if (id == null) return null;
+        Identity identity = byId.get(id);
+        if (identity != null) return identity;
+        identity = credentialRepository.findById(id).orElse(null);
+        if (identity != null) cache(identity);
+        return identity;
+    }
+
+    // Stores a stronger hash found at login; skipped if the password changed in the meantime
+    public void upgradePassword(Identity identity, String newHash) {
+        credentialRepository.upgradePassword(identity.getId(), identity.getPassword(), newHash);
+        evict(identity.getId());
+    }
+
+    // Call after any change to an account's name, email or password
+    public void evict(Long id) {
+        byId.invalidate(id);
+    }
+
+    private void cache(Identity identity) {
+        byId.put(identity.getId(), identity);
+        idByEmail.put(identity.getEmail().toLowerCase(Locale.ROOT), identity.getId());
+    }
+}
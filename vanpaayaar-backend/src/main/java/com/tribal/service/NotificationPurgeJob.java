@@ -0,0 +1,79 @@
+package com.tribal.service;
+
+import com.tribal.repository.EmailOutboxRepository;
+import com.tribal.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes notifications past the retention window in small chunks.
+ *
+ * Each chunk is its own short transaction keyed by primary key, with a pause in between,
+ * so the purge never holds long row locks or floods replication the way one
+ * DELETE ... WHERE created_at < ? over millions of rows would. A run stops after
+ * max-chunks; whatever is left is picked up by the next run.
+ */
+@Component
+public class NotificationPurgeJob {
+
+    private final NotificationRepository notificationRepository;
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    @Value("${app.notifications.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${app.notifications.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.notifications.purge.pause-ms:200}")
+    private long pauseMs;
+
+    @Value("${app.notifications.purge.max-chunks:500}")
+    private int maxChunks;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public NotificationPurgeJob(NotificationRepository notificationRepository,
+                                EmailOutboxRepository emailOutboxRepository) {
+        this.notificationRepository = notificationRepository;
+        this.emailOutboxRepository = emailOutboxRepository;
+    }
+
+    @Scheduled(cron = "${app.notifications.purge.cron:0 30 3 * * *}")
+    public void scheduledPurge() {
+        purge();
+    }
+
+    // Returns the number of notifications deleted; 0 if a purge is already running
+    public int purge() {
+        if (!running.compareAndSet(false, true)) return 0;
+        int deleted = 0;
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            for (int chunk = 0; chunk < maxChunks; chunk++) {
+                List<Long> ids = notificationRepository.findIdsCreatedBefore(cutoff, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) break;
+                emailOutboxRepository.deleteByNotificationIdIn(ids);
+                deleted += notificationRepository.deleteByIdIn(ids);
+                if (ids.size() < chunkSize) break;
+                Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Notification purge failed after " + deleted + " rows: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+        if (deleted > 0) {
+            System.out.println("Purged " + deleted + " notifications older than " + retentionDays + " days");
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,144 @@
+package com.tribal.service;
+
+import com.tribal.event.NotificationCreatedEvent;
+import com.tribal.event.NotificationsReadEvent;
+import com.tribal.model.Notification;
+import com.tribal.repository.NotificationRepository;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-sent event streams for the notification bell.
+ *
+ * Each open stream gets a "notification" event for every new notification and a "count"
+ * event whenever the unread count changes. Unread counts live in memory while the user has a
+ * stream open (loaded with one COUNT on connect, then adjusted as notifications are created,
+ * read or deleted), so neither the streams nor the count endpoint poll the database.
+ * Counters are dropped when a user's last stream closes; reconnecting reloads them, which
+ * also bounds any drift between app instances.
+ */
+@Component
+public class NotificationPushService {
+
+    // Browsers reconnect an EventSource on their own; a fresh stream also resyncs the count
+    private static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final NotificationRepository notificationRepository;
+
+    private final Map<String, List<SseEmitter>> streams = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> unreadCounts = new ConcurrentHashMap<>();
+
+    public NotificationPushService(NotificationRepository notificationRepository) {
+        this.notificationRepository = notificationRepository;
+    }
+
+    public SseEmitter subscribe(Long userId, String userRole) {
+        String key = key(userId, userRole);
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        streams.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(emitter);
+        emitter.onCompletion(() -> remove(key, emitter));
+        emitter.onTimeout(() -> remove(key, emitter));
+        emitter.onError(e -> remove(key, emitter));
+
+        // Current count straight away, so the client needs no separate request
+        send(key, emitter, "count", Map.of("count", counter(userId, userRole).get()));
+        return emitter;
+    }
+
+    // Served from memory when the user has a stream open; otherwise a single COUNT
+    public long getUnreadCount(Long userId, String userRole) {
+        AtomicLong count = unreadCounts.get(key(userId, userRole));
+        if (count != null) return count.get();
+        Long fromDb = notificationRepository.countByUserIdAndUserRoleAndIsReadFalse(userId, userRole);
+        return fromDb != null ? fromDb : 0L;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationCreated(NotificationCreatedEvent event) {
+        Notification notification = event.getNotification();
+        String key = key(notification.getUserId(), notification.getUserRole());
+        AtomicLong count = unreadCounts.get(key);
+        if (count != null && !Boolean.TRUE.equals(notification.getIsRead())) count.incrementAndGet();
+
+        List<SseEmitter> emitters = streams.get(key);
+        if (emitters == null) return;
+        for (SseEmitter emitter : emitters) {
+            send(key, emitter, "notification", notification);
+            if (count != null) send(key, emitter, "count", Map.of("count", count.get()));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationsRead(NotificationsReadEvent event) {
+        String key = key(event.getUserId(), event.getUserRole());
+        AtomicLong count = unreadCounts.get(key);
+        if (count == null) return;
+        long value = event.isAll() ? 0 : count.updateAndGet(c -> Math.max(0, c - event.getCount()));
+        if (event.isAll()) count.set(0);
+
+        List<SseEmitter> emitters = streams.get(key);
+        if (emitters == null) return;
+        for (SseEmitter emitter : emitters) {
+            send(key, emitter, "count", Map.of("count", value));
+        }
+    }
+
+    // Comment frames keep idle connections from being cut by proxies and reveal dead clients
+    @Scheduled(fixedDelay = 25000)
+    public void heartbeat() {
+        for (Map.Entry<String, List<SseEmitter>> entry : streams.entrySet()) {
+            for (SseEmitter emitter : entry.getValue()) {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    remove(entry.getKey(), emitter);
+                }
+            }
+        }
+    }
+
+    public int getOpenStreamCount() {
+        return streams.values().stream().mapToInt(List::size).sum();
+    }
+
+    private AtomicLong counter(Long userId, String userRole) {
+        return unreadCounts.computeIfAbsent(key(userId, userRole), k -> {
+            Long fromDb = notificationRepository.countByUserIdAndUserRoleAndIsReadFalse(userId, userRole);
+            return new AtomicLong(fromDb != null ? fromDb : 0L);
+        });
+    }
+
+    private void send(String key, SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            remove(key, emitter);
+        }
+    }
+
+    private void remove(String key, SseEmitter emitter) {
+        streams.computeIfPresent(key, (k, emitters) -> {
+            emitters.remove(emitter);
+            if (emitters.isEmpty()) {
+                unreadCounts.remove(k);
+                return null;
+            }
+            return emitters;
+        });
+    }
+
+    private static String key(Long userId, String userRole) {
+        return userRole + ":" + userId;
+    }
+}
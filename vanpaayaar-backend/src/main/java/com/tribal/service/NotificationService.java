@@ -1,8 +1,16 @@
 package com.tribal.service;
 
+import com.tribal.dto.CursorPage;
+import com.tribal.event.EmailQueuedEvent;
+import com.tribal.event.NotificationCreatedEvent;
+import com.tribal.event.NotificationsReadEvent;
+import com.tribal.model.EmailOutbox;
 import com.tribal.model.Notification;
+import com.tribal.repository.EmailOutboxRepository;
 import com.tribal.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +23,13 @@ public class NotificationService {
     
     private final NotificationRepository notificationRepository;
     private final EmailService emailService;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NotificationPushService notificationPushService;
+    private final NotificationPurgeJob notificationPurgeJob;
+    
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
     
     // Create a new notification
     @Transactional
@@ -39,59 +54,96 @@ public class NotificationService {
         
         Notification saved = notificationRepository.save(notification);
         
-        // Send email if requested
+        // Queue the email in the same transaction; EmailOutboxDispatcher sends it after commit
         if (sendEmail) {
-            try {
-                emailService.sendNotificationEmail(saved);
-                saved.setIsEmailSent(true);
-                notificationRepository.save(saved);
-            } catch (Exception e) {
-                // Log error but don't fail the notification creation
-                System.err.println("Failed to send email notification: " + e.getMessage());
-            }
+            LocalDateTime now = LocalDateTime.now();
+            emailOutboxRepository.save(EmailOutbox.builder()
+                    .notificationId(saved.getId())
+                    .status(EmailOutbox.PENDING)
+                    .nextAttemptAt(now)
+                    .createdAt(now)
+                    .build());
+            eventPublisher.publishEvent(new EmailQueuedEvent(saved.getId()));
         }
+        eventPublisher.publishEvent(new NotificationCreatedEvent(saved));
         
         return saved;
     }
     
-    // Get all notifications for a user
+    // Get the latest notifications for a user (first inbox page)
     public List<Notification> getUserNotifications(Long userId, String userRole) {
-        return notificationRepository.findByUserIdAndUserRoleOrderByCreatedAtDesc(userId, userRole);
+        return getInboxPage(userId, userRole, null, null, false).getItems();
     }
     
-    // Get unread notifications for a user
+    // Get the latest unread notifications for a user (first inbox page)
     public List<Notification> getUnreadNotifications(Long userId, String userRole) {
-        return notificationRepository.findByUserIdAndUserRoleAndIsReadFalseOrderByCreatedAtDesc(userId, userRole);
+        return getInboxPage(userId, userRole, null, null, true).getItems();
+    }
+    
+    // Newest-first inbox page; "after" is the nextCursor of the previous page
+    public CursorPage<Notification> getInboxPage(Long userId, String userRole, String after, Integer limit, boolean unreadOnly) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long beforeId = Long.MAX_VALUE;
+        if (after != null && !after.isBlank()) {
+            try {
+                beforeId = Long.parseLong(after.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+        }
+        
+        // One extra row tells us whether another page exists without a COUNT query
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        List<Notification> rows = unreadOnly
+                ? notificationRepository.findUnreadInboxPage(userId, userRole, beforeId, window)
+                : notificationRepository.findInboxPage(userId, userRole, beforeId, window);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) rows = rows.subList(0, pageSize);
+        
+        return CursorPage.<Notification>builder()
+                .items(rows)
+                .nextCursor(hasMore ? String.valueOf(rows.get(rows.size() - 1).getId()) : null)
+                .hasMore(hasMore)
+                .limit(pageSize)
+                .build();
     }
     
-    // Get unread count
+    // Get unread count (in-memory while the user has a live stream open)
     public Long getUnreadCount(Long userId, String userRole) {
-        return notificationRepository.countByUserIdAndUserRoleAndIsReadFalse(userId, userRole);
+        return notificationPushService.getUnreadCount(userId, userRole);
     }
     
     // Mark notification as read
     @Transactional
     public void markAsRead(Long notificationId) {
-        notificationRepository.markAsRead(notificationId, LocalDateTime.now());
+        Notification notification = notificationRepository.findById(notificationId).orElse(null);
+        if (notification == null) return;
+        if (notificationRepository.markAsRead(notificationId, LocalDateTime.now()) > 0) {
+            eventPublisher.publishEvent(new NotificationsReadEvent(notification.getUserId(), notification.getUserRole(), 1, false));
+        }
     }
     
     // Mark all notifications as read
     @Transactional
     public void markAllAsRead(Long userId, String userRole) {
         notificationRepository.markAllAsRead(userId, userRole, LocalDateTime.now());
+        eventPublisher.publishEvent(new NotificationsReadEvent(userId, userRole, 0, true));
     }
     
     // Delete notification
     @Transactional
     public void deleteNotification(Long notificationId) {
-        notificationRepository.deleteById(notificationId);
+        Notification notification = notificationRepository.findById(notificationId).orElse(null);
+        if (notification == null) return;
+        notificationRepository.delete(notification);
+        if (!Boolean.TRUE.equals(notification.getIsRead())) {
+            eventPublisher.publishEvent(new NotificationsReadEvent(notification.getUserId(), notification.getUserRole(), 1, false));
+        }
     }
     
-    // Delete old notifications (older than 30 days)
-    @Transactional
-    public void deleteOldNotifications() {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
-        notificationRepository.deleteOldNotifications(cutoffDate);
+    // Delete old notifications (past the retention window) in small chunks
+    public int deleteOldNotifications() {
+        return notificationPurgeJob.purge();
     }
     
     // Notification type constants and helper methods
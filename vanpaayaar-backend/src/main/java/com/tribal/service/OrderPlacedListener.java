@@ -0,0 +1,68 @@
+package com.tribal.service;
+
+import com.tribal.event.OrderPlacedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Post-checkout side effects: delivery creation, buyer/seller notifications (with email),
+ * low-stock alerts and search index refresh. Runs on the task executor after the checkout
+ * transaction commits, so stock row locks are never held while SMTP or dispatch is slow,
+ * and a rolled-back checkout produces no notifications.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderPlacedListener {
+
+    private final DeliveryService deliveryService;
+    private final NotificationService notificationService;
+    private final CatalogService catalogService;
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        catalogService.productsChanged(event.getProductIds());
+
+        for (OrderPlacedEvent.PlacedOrder order : event.getOrders()) {
+            // Create delivery for this order
+            try {
+                if (event.getDeliveryPincode() != null && !event.getDeliveryPincode().trim().isEmpty()) {
+                    deliveryService.createDelivery(order.getOrderId(), event.getDeliveryPincode());
+                    System.out.println("Delivery created for order: " + order.getOrderId() + " to pincode: " + event.getDeliveryPincode());
+                } else {
+                    System.err.println("Cannot create delivery: Buyer pincode is null or empty for order: " + order.getOrderId());
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to create delivery for order " + order.getOrderId() + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+
+            try {
+                notificationService.notifyOrderPlaced(
+                    event.getBuyerId(),
+                    order.getOrderId(),
+                    String.format("Order contains %d items worth ₹%.2f", order.getItemCount(), order.getTotal())
+                );
+                notificationService.notifySellerNewOrder(
+                    order.getSellerId(),
+                    order.getOrderId(),
+                    String.format("New order from %s containing %d items worth ₹%.2f",
+                        event.getBuyerName(), order.getItemCount(), order.getTotal())
+                );
+            } catch (Exception e) {
+                System.err.println("Failed to send order notifications for order " + order.getOrderId() + ": " + e.getMessage());
+            }
+        }
+
+        for (OrderPlacedEvent.LowStock low : event.getLowStock()) {
+            try {
+                notificationService.notifyLowStock(low.getSellerId(), low.getProductId(), low.getProductName(), low.getStock());
+            } catch (Exception e) {
+                System.err.println("Failed to send low stock alert for product " + low.getProductId() + ": " + e.getMessage());
+            }
+        }
+    }
+}
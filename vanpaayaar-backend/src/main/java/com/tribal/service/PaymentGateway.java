@@ -0,0 +1,18 @@
+package com.tribal.service;
+
+import com.razorpay.RazorpayException;
+
+/**
+ * The payment provider as PaymentServiceImpl sees it: create an order, check a checkout
+ * signature. Kept behind an interface so the payment flow can run against a stub.
+ */
+public interface PaymentGateway {
+
+    // Public key the frontend opens the checkout with
+    String getKeyId();
+
+    // Creates a provider order for the amount (in paise) and returns its id
+    String createOrder(int amountInPaise, String currency, String receipt) throws RazorpayException;
+
+    boolean verifySignature(String razorpayOrderId, String razorpayPaymentId, String razorpaySignature);
+}
@@ -0,0 +1,121 @@
+package com.tribal.service;
+
+import com.tribal.util.CircuitBreaker;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calls to the payment gateway, kept off the request threads.
+ *
+ * Order creation runs on a small dedicated pool with a short queue (the bulkhead), each call
+ * is given timeout-ms, and a circuit breaker stops calling a gateway that keeps failing or
+ * timing out. When the pool is full or the circuit is open the call fails at once with
+ * UnavailableException, so a slow gateway costs a fast 503 instead of a stuck Tomcat thread.
+ * Signature checks are local HMACs and go straight to the gateway.
+ */
+@Component
+public class PaymentGatewayClient {
+
+    private final PaymentGateway gateway;
+    private final CircuitBreaker breaker;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong shortCircuited = new AtomicLong();
+
+    /** Thrown when the gateway is not being called: circuit open or no capacity left. */
+    public static class UnavailableException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public UnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    public PaymentGatewayClient(PaymentGateway gateway,
+                                @Value("${app.payment.gateway.threads:8}") int threads,
+                                @Value("${app.payment.gateway.queue-capacity:16}") int queueCapacity,
+                                @Value("${app.payment.gateway.timeout-ms:8000}") long timeoutMillis,
+                                @Value("${app.payment.gateway.breaker.failure-threshold:5}") int failureThreshold,
+                                @Value("${app.payment.gateway.breaker.open-ms:30000}") long openMillis) {
+        this.gateway = gateway;
+        this.timeoutMillis = timeoutMillis;
+        this.breaker = new CircuitBreaker("payment-gateway", failureThreshold, openMillis);
+        AtomicLong counter = new AtomicLong();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "payment-gateway-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    // Provider order id; fails with UnavailableException, TimeoutException or the gateway's RazorpayException
+    public CompletableFuture<String> createOrder(int amountInPaise, String currency, String receipt) {
+        if (!breaker.tryAcquire()) {
+            shortCircuited.incrementAndGet();
+            return CompletableFuture.failedFuture(new UnavailableException("Payment gateway is unavailable, please try again shortly"));
+        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (result.isDone()) return; // timed out while queued
+                try {
+                    result.complete(gateway.createOrder(amountInPaise, currency, receipt));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            breaker.onSkipped();
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(new UnavailableException("Too many payments in progress, please try again shortly"));
+        }
+        calls.incrementAndGet();
+        return result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((orderId, error) -> {
+            if (error == null) {
+                breaker.onSuccess();
+            } else {
+                failures.incrementAndGet();
+                breaker.onFailure();
+            }
+        });
+    }
+
+    public boolean verifySignature(String razorpayOrderId, String razorpayPaymentId, String razorpaySignature) {
+        return gateway.verifySignature(razorpayOrderId, razorpayPaymentId, razorpaySignature);
+    }
+
+    public String getKeyId() {
+        return gateway.getKeyId();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("gateway", gateway.getClass().getSimpleName());
+        stats.put("circuit", breaker.getState().name());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("calls", calls.get());
+        stats.put("failures", failures.get());
+        stats.put("rejected", rejected.get());
+        stats.put("shortCircuited", shortCircuited.get());
+        return stats;
+    }
+}
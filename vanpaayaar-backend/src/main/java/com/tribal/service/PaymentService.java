@@ -6,12 +6,24 @@ import com.tribal.model.Payment;
 import org.json.JSONObject;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface PaymentService {
-    JSONObject createRazorpayOrder(PaymentRequest request) throws Exception;
+    // Completes once the gateway order exists; the calling thread only does the stock hold
+    CompletableFuture<JSONObject> createRazorpayOrder(PaymentRequest request);
+
+    /**
+     * Verifies a checkout callback and marks the payment SUCCESS. Idempotent: a repeat of
+     * an already applied callback returns the stored result without writing again.
+     * IllegalArgumentException if the order is unknown, IllegalStateException if it was
+     * already paid by a different payment.
+     */
     Payment verifyPayment(PaymentVerificationRequest request) throws Exception;
+
+    // Marks a CREATED/PENDING payment FAILED; false if unknown or already settled
+    boolean failPayment(String razorpayOrderId, String errorMessage);
+
     Payment getPaymentByRazorpayOrderId(String razorpayOrderId);
     List<Payment> getPaymentsByBuyerId(Long buyerId);
     Payment updatePaymentStatus(String razorpayPaymentId, String status, String errorMessage);
-    Payment updatePayment(Payment payment);
 }
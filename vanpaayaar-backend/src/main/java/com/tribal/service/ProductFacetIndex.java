@@ -0,0 +1,349 @@
+package com.tribal.service;
+
+import com.tribal.dto.CatalogFilter;
+import com.tribal.dto.ProductSummary;
+import com.tribal.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitset facet index for catalog browsing.
+ *
+ * Every product gets a dense ordinal (kept in id order) and each facet value
+ * keeps a BitSet of the ordinals carrying it. A filtered browse is then an AND of
+ * per-facet OR-ed bitsets, and facet counts are cardinalities of intersections -
+ * no database query is needed until the matching page is hydrated.
+ *
+ * Facet bitsets only ever hold live ordinals, so they can be counted and walked
+ * without intersecting them with "live" first.
+ */
+@Component
+public class ProductFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String PRICE = "price";
+    public static final String REGION = "region";
+    public static final String TRIBE = "tribe";
+    public static final String FEATURED = "featured";
+    public static final String IN_STOCK = "inStock";
+
+    private static final List<String> FACETS = List.of(CATEGORY, PRICE, REGION, TRIBE, FEATURED, IN_STOCK);
+
+    // Upper bounds (exclusive) of the price buckets; the last bucket is open-ended
+    private static final double[] PRICE_BOUNDS = {500, 1000, 2500, 5000};
+
+    private static final int REBUILD_BATCH = 500;
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ordinal -> product id, ascending; deleted products leave a cleared bit in "live"
+    private long[] ordinalIds = new long[1024];
+    private int ordinalCount = 0;
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final BitSet live = new BitSet();
+
+    // facet -> value -> ordinals
+    private final Map<String, Map<String, BitSet>> facets = new HashMap<>();
+
+    // ordinal -> facet values it was indexed under, so an update can clear the old bits
+    private final Map<Integer, Map<String, String>> valuesByOrdinal = new HashMap<>();
+
+    public ProductFacetIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+        for (String facet : FACETS) facets.put(facet, new HashMap<>());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductSummary> all = new ArrayList<>();
+        long afterId = 0L;
+        while (true) {
+            List<ProductSummary> batch = productRepository.findSummariesAfterId(afterId, PageRequest.of(0, REBUILD_BATCH));
+            if (batch.isEmpty()) break;
+            all.addAll(batch);
+            afterId = batch.get(batch.size() - 1).getId();
+            if (batch.size() < REBUILD_BATCH) break;
+        }
+
+        lock.writeLock().lock();
+        try {
+            reset(all.size());
+            for (ProductSummary p : all) {
+                setValues(assignOrdinal(p.getId()), p);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Product facet index built: " + all.size() + " products");
+    }
+
+    // Add or refresh a product's facet values
+    public void index(ProductSummary product) {
+        if (product == null || product.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(product.getId());
+            if (ordinal == null) {
+                ordinal = assignOrdinal(product.getId());
+            } else {
+                clearValues(ordinal);
+            }
+            setValues(ordinal, product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        if (productId == null) return;
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(productId);
+            if (ordinal != null) {
+                clearValues(ordinal);
+                live.clear(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of matching products after {@code afterId} in ascending id order (at most {@code limit}),
+     * the total number of matches, and per-facet value counts. Counts for a facet ignore that
+     * facet's own selection, so the client can show how many results each alternative would give.
+     */
+    public Result query(CatalogFilter filter, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> selections = selections(filter);
+            BitSet matches = intersect(selections, null);
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            BitSet scratch = new BitSet(ordinalCount);
+            for (String facet : FACETS) {
+                // Everything selected on the other facets; null when that is no restriction at all
+                BitSet base = intersect(selections, facet);
+                Map<String, Integer> valueCounts = new TreeMap<>();
+                for (Map.Entry<String, BitSet> v : facets.get(facet).entrySet()) {
+                    int c;
+                    if (base == null) {
+                        c = v.getValue().cardinality();
+                    } else {
+                        scratch.clear();
+                        scratch.or(v.getValue());
+                        scratch.and(base);
+                        c = scratch.cardinality();
+                    }
+                    if (c > 0) valueCounts.put(v.getKey(), c);
+                }
+                counts.put(facet, valueCounts);
+            }
+
+            return new Result(page(matches, afterId, limit), matches.cardinality(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like {@link #query} without the facet counts: one AND of the selected bitsets (none
+     * at all for a single-value filter) and a walk to the requested page.
+     */
+    public Result match(CatalogFilter filter, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = intersect(selections(filter), null);
+            return new Result(page(matches, afterId, limit), matches.cardinality(), Collections.emptyMap());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static String priceBucket(Double price) {
+        if (price == null) return "unpriced";
+        double lower = 0;
+        for (double bound : PRICE_BOUNDS) {
+            if (price < bound) return (long) lower + "-" + (long) bound;
+            lower = bound;
+        }
+        return (long) lower + "+";
+    }
+
+    // --- internals (callers hold the write or read lock) ---
+
+    // facet -> matching ordinals, null where the filter leaves the facet open
+    private Map<String, BitSet> selections(CatalogFilter filter) {
+        Map<String, BitSet> selections = new LinkedHashMap<>();
+        selections.put(CATEGORY, union(CATEGORY, filter.getCategory()));
+        selections.put(PRICE, union(PRICE, filter.getPrice()));
+        selections.put(REGION, union(REGION, filter.getRegion()));
+        selections.put(TRIBE, union(TRIBE, filter.getTribe()));
+        selections.put(FEATURED, filter.getFeatured() == null ? null : union(FEATURED, List.of(filter.getFeatured().toString())));
+        selections.put(IN_STOCK, filter.getInStock() == null ? null : union(IN_STOCK, List.of(filter.getInStock().toString())));
+        return selections;
+    }
+
+    /**
+     * AND of the selections other than {@code skip}. Read-only result: it may be "live" or an
+     * index bitset itself when there is nothing to intersect, and is null from the facet-count
+     * loop when no other facet is selected.
+     */
+    private BitSet intersect(Map<String, BitSet> selections, String skip) {
+        BitSet result = null;
+        boolean copied = false;
+        for (Map.Entry<String, BitSet> s : selections.entrySet()) {
+            if (s.getValue() == null || s.getKey().equals(skip)) continue;
+            if (result == null) {
+                result = s.getValue();
+            } else {
+                if (!copied) {
+                    result = (BitSet) result.clone();
+                    copied = true;
+                }
+                result.and(s.getValue());
+            }
+        }
+        if (result == null && skip == null) return live;
+        return result;
+    }
+
+    // Ordinals are in id order, so the cursor is a binary search away
+    private List<Long> page(BitSet matches, long afterId, int limit) {
+        int from = Arrays.binarySearch(ordinalIds, 0, ordinalCount, afterId);
+        from = from >= 0 ? from + 1 : -from - 1;
+        List<Long> ids = new ArrayList<>(limit);
+        for (int i = matches.nextSetBit(from); i >= 0 && ids.size() < limit; i = matches.nextSetBit(i + 1)) {
+            ids.add(ordinalIds[i]);
+        }
+        return ids;
+    }
+
+    private void reset(int expected) {
+        ordinalIds = new long[Math.max(1024, expected + expected / 4)];
+        ordinalCount = 0;
+        ordinals.clear();
+        live.clear();
+        valuesByOrdinal.clear();
+        for (Map<String, BitSet> values : facets.values()) values.clear();
+    }
+
+    private int assignOrdinal(Long id) {
+        if (ordinalCount == ordinalIds.length) {
+            ordinalIds = Arrays.copyOf(ordinalIds, ordinalIds.length * 2);
+        }
+        int ordinal;
+        if (ordinalCount == 0 || id > ordinalIds[ordinalCount - 1]) {
+            ordinal = ordinalCount++;
+        } else {
+            // An id committed after a newer one: ordinals must stay in id order for keyset
+            // paging, so reuse its old slot or open one in place
+            int pos = Arrays.binarySearch(ordinalIds, 0, ordinalCount, id);
+            ordinal = pos >= 0 ? pos : insertSlot(-pos - 1);
+        }
+        ordinalIds[ordinal] = id;
+        ordinals.put(id, ordinal);
+        live.set(ordinal);
+        return ordinal;
+    }
+
+    // Moves every ordinal from pos up by one. Late ids are close to the newest, so only a short tail moves
+    private int insertSlot(int pos) {
+        System.arraycopy(ordinalIds, pos, ordinalIds, pos + 1, ordinalCount - pos);
+        ordinalCount++;
+        for (int o = ordinalCount - 1; o > pos; o--) {
+            ordinals.replace(ordinalIds[o], o);
+            Map<String, String> values = valuesByOrdinal.remove(o - 1);
+            if (values != null) valuesByOrdinal.put(o, values);
+        }
+        shiftUp(live, pos);
+        for (Map<String, BitSet> values : facets.values()) {
+            for (BitSet bits : values.values()) shiftUp(bits, pos);
+        }
+        return pos;
+    }
+
+    private static void shiftUp(BitSet bits, int from) {
+        for (int i = bits.length() - 1; i >= from; i = bits.previousSetBit(i - 1)) {
+            bits.clear(i);
+            bits.set(i + 1);
+        }
+    }
+
+    private void setValues(int ordinal, ProductSummary p) {
+        Map<String, String> values = new HashMap<>();
+        values.put(CATEGORY, key(p.getCategory()));
+        values.put(PRICE, priceBucket(p.getPrice()));
+        values.put(REGION, p.getSeller() != null ? key(p.getSeller().getRegion()) : null);
+        values.put(TRIBE, p.getSeller() != null ? key(p.getSeller().getTribeName()) : null);
+        values.put(FEATURED, String.valueOf(Boolean.TRUE.equals(p.getFeatured())));
+        values.put(IN_STOCK, String.valueOf(p.getStock() != null && p.getStock() > 0));
+        for (Map.Entry<String, String> e : values.entrySet()) {
+            if (e.getValue() == null) continue;
+            facets.get(e.getKey()).computeIfAbsent(e.getValue(), v -> new BitSet()).set(ordinal);
+        }
+        valuesByOrdinal.put(ordinal, values);
+    }
+
+    private void clearValues(int ordinal) {
+        Map<String, String> values = valuesByOrdinal.remove(ordinal);
+        if (values == null) return;
+        for (Map.Entry<String, String> e : values.entrySet()) {
+            if (e.getValue() == null) continue;
+            Map<String, BitSet> byValue = facets.get(e.getKey());
+            BitSet bits = byValue.get(e.getValue());
+            if (bits == null) continue;
+            bits.clear(ordinal);
+            if (bits.isEmpty()) byValue.remove(e.getValue());
+        }
+    }
+
+    // OR of the bitsets of the selected values; null means "no restriction on this facet".
+    // A single value returns the index's own bitset, so callers must not modify the result
+    private BitSet union(String facet, List<String> selected) {
+        if (selected == null || selected.isEmpty()) return null;
+        Map<String, BitSet> byValue = facets.get(facet);
+        if (selected.size() == 1) {
+            BitSet bits = byValue.get(facetKey(facet, selected.get(0)));
+            return bits != null ? bits : new BitSet();
+        }
+        BitSet result = new BitSet();
+        for (String value : selected) {
+            BitSet bits = byValue.get(facetKey(facet, value));
+            if (bits != null) result.or(bits);
+        }
+        return result;
+    }
+
+    private static String facetKey(String facet, String value) {
+        return PRICE.equals(facet) ? value.trim() : key(value);
+    }
+
+    private static String key(String value) {
+        if (value == null || value.isBlank()) return null;
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static class Result {
+        private final List<Long> ids;
+        private final int total;
+        private final Map<String, Map<String, Integer>> facetCounts;
+
+        public Result(List<Long> ids, int total, Map<String, Map<String, Integer>> facetCounts) {
+            this.ids = ids;
+            this.total = total;
+            this.facetCounts = facetCounts;
+        }
+
+        public List<Long> getIds() { return ids; }
+        public int getTotal() { return total; }
+        public Map<String, Map<String, Integer>> getFacetCounts() { return facetCounts; }
+    }
+}
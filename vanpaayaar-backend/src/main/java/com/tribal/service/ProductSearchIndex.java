@@ -0,0 +1,223 @@
+package com.tribal.service;
+
+import com.tribal.dto.ProductSummary;
+import com.tribal.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the product catalog, ranked with BM25.
+ *
+ * Indexed fields: name, category, description and the seller's tribe/region.
+ * Terms are case-folded and accent-stripped; each query term also matches
+ * indexed terms that start with it, so "pott" finds "pottery".
+ * The index is built once on startup and then kept current by
+ * SellerServiceImpl / AdminServiceImpl through index() and remove().
+ */
+@Component
+public class ProductSearchIndex {
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Field boosts - a hit in the name counts more than one buried in the description
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float SELLER_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // Prefix expansions score a bit lower than exact term hits
+    private static final double PREFIX_FACTOR = 0.7;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final int REBUILD_BATCH = 500;
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (productId -> weighted term frequency); sorted so prefix lookups are a range scan
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    // productId -> its weighted term frequencies, needed to undo the postings on update/delete
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+    private final Map<Long, Float> documentLengths = new HashMap<>();
+    private double totalLength = 0;
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductSummary> all = new ArrayList<>();
+        long afterId = 0L;
+        while (true) {
+            List<ProductSummary> batch = productRepository.findSummariesAfterId(afterId, PageRequest.of(0, REBUILD_BATCH));
+            if (batch.isEmpty()) break;
+            all.addAll(batch);
+            afterId = batch.get(batch.size() - 1).getId();
+            if (batch.size() < REBUILD_BATCH) break;
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentLengths.clear();
+            totalLength = 0;
+            for (ProductSummary p : all) {
+                addDocument(p);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Product search index built: " + all.size() + " products, " + postings.size() + " terms");
+    }
+
+    // Add or replace a product in the index
+    public void index(ProductSummary product) {
+        if (product == null || product.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            addDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        if (productId == null) return;
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} product ids, best match first.
+     * Any query term may match (OR semantics); products matching more terms rank higher.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) return Collections.emptyList();
+
+        lock.readLock().lock();
+        try {
+            int n = documents.size();
+            if (n == 0) return Collections.emptyList();
+            double avgLength = totalLength / n;
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : new LinkedHashSet<>(terms)) {
+                int expansions = 0;
+                for (Map.Entry<String, Map<Long, Float>> entry : postings.tailMap(term, true).entrySet()) {
+                    String indexed = entry.getKey();
+                    if (!indexed.startsWith(term) || expansions++ >= MAX_PREFIX_EXPANSIONS) break;
+                    double factor = indexed.length() == term.length() ? 1.0 : PREFIX_FACTOR;
+                    scoreTerm(entry.getValue(), n, avgLength, factor, scores);
+                }
+            }
+            return topK(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- internals (callers hold the write or read lock) ---
+
+    private void scoreTerm(Map<Long, Float> docs, int n, double avgLength, double factor, Map<Long, Double> scores) {
+        int df = docs.size();
+        double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        for (Map.Entry<Long, Float> posting : docs.entrySet()) {
+            double tf = posting.getValue();
+            double length = documentLengths.getOrDefault(posting.getKey(), 0f);
+            double norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+            scores.merge(posting.getKey(), idf * norm * factor, Double::sum);
+        }
+    }
+
+    private List<Long> topK(Map<Long, Double> scores, int k) {
+        // Min-heap of the best k so far; ties broken by id for a stable order
+        Comparator<Map.Entry<Long, Double>> byScore = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(k + 1, byScore);
+        for (Map.Entry<Long, Double> e : scores.entrySet()) {
+            heap.offer(e);
+            if (heap.size() > k) heap.poll();
+        }
+        List<Long> ids = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) ids.add(heap.poll().getKey());
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private void addDocument(ProductSummary p) {
+        Map<String, Float> tf = new HashMap<>();
+        addField(tf, p.getName(), NAME_WEIGHT);
+        addField(tf, p.getCategory(), CATEGORY_WEIGHT);
+        addField(tf, p.getDescription(), DESCRIPTION_WEIGHT);
+        if (p.getSeller() != null) {
+            addField(tf, p.getSeller().getTribeName(), SELLER_WEIGHT);
+            addField(tf, p.getSeller().getRegion(), SELLER_WEIGHT);
+        }
+        float length = 0;
+        for (Map.Entry<String, Float> e : tf.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), t -> new HashMap<>()).put(p.getId(), e.getValue());
+            length += e.getValue();
+        }
+        documents.put(p.getId(), tf);
+        documentLengths.put(p.getId(), length);
+        totalLength += length;
+    }
+
+    private void removeDocument(Long id) {
+        Map<String, Float> tf = documents.remove(id);
+        if (tf == null) return;
+        for (String term : tf.keySet()) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs == null) continue;
+            docs.remove(id);
+            if (docs.isEmpty()) postings.remove(term);
+        }
+        Float length = documentLengths.remove(id);
+        if (length != null) totalLength -= length;
+    }
+
+    private static void addField(Map<String, Float> tf, String text, float weight) {
+        for (String token : tokenize(text)) {
+            tf.merge(token, weight, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return Collections.emptyList();
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+}
@@ -1,5 +1,6 @@
 package com.tribal.service;
 
+import com.tribal.dto.OrderDetail;
 import com.tribal.model.Seller;
 import com.tribal.model.Product;
 import com.tribal.model.Order;
@@ -31,7 +32,7 @@ public interface SellerService {
     Seller updateApprovalStatus(Long sellerId, String status);
 
     // --- ORDER MANAGEMENT ---
-    List<Order> getOrdersBySeller(Long sellerId);
+    List<OrderDetail> getOrdersBySeller(Long sellerId);
     Order updateOrderStatus(Long orderId, String status);  // e.g. DISPATCHED, DELIVERED
 
     // --- DASHBOARD ---
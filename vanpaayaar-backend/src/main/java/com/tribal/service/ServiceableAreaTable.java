@@ -0,0 +1,215 @@
+package com.tribal.service;
+
+import com.tribal.model.ServiceableArea;
+import com.tribal.repository.ServiceableAreaRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * The serviceable_areas table held in memory for pincode lookups.
+ *
+ * Indian PINs are six digits, so a pincode is parsed straight into an index of a dense
+ * int[1_000_000] holding the row number; the row's fields live in parallel primitive
+ * arrays. A lookup parses six chars and reads two arrays - no query, no allocation.
+ * Pincodes that are not six digits (legacy data) fall back to a small map.
+ *
+ * The table is immutable and swapped whole: admin edits go through put(), which copies
+ * the column arrays (and the slot array only when a new pincode appears). It is loaded
+ * on startup and reloaded periodically to pick up edits made on other instances.
+ */
+@Component
+public class ServiceableAreaTable {
+
+    private static final int PIN_SPACE = 1_000_000;
+
+    private final ServiceableAreaRepository serviceableAreaRepository;
+
+    private volatile Table table = Table.empty();
+
+    public ServiceableAreaTable(ServiceableAreaRepository serviceableAreaRepository) {
+        this.serviceableAreaRepository = serviceableAreaRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.delivery.areas.refresh-ms:300000}", initialDelayString = "${app.delivery.areas.refresh-ms:300000}")
+    public void refresh() {
+        List<ServiceableArea> areas = serviceableAreaRepository.findAll();
+        Table built = Table.build(areas);
+        synchronized (this) {
+            table = built;
+        }
+        System.out.println("Serviceable area table loaded: " + areas.size() + " pincodes");
+    }
+
+    // Add or replace one area after an admin edit has been saved
+    public synchronized void put(ServiceableArea area) {
+        if (area == null || area.getPincode() == null) return;
+        table = table.with(area);
+    }
+
+    public boolean isServiceable(String pincode) {
+        Table t = table;
+        int row = t.row(pincode);
+        return row >= 0 && t.active[row];
+    }
+
+    public boolean contains(String pincode) {
+        return table.row(pincode) >= 0;
+    }
+
+    // Charge for the area, or fallback when the pincode is unknown or has no charge set
+    public double charge(String pincode, boolean express, double fallback) {
+        Table t = table;
+        int row = t.row(pincode);
+        if (row < 0) return fallback;
+        double charge = express ? t.expressCharge[row] : t.standardCharge[row];
+        return Double.isNaN(charge) ? fallback : charge;
+    }
+
+    public int days(String pincode, boolean express, int fallback) {
+        Table t = table;
+        int row = t.row(pincode);
+        if (row < 0) return fallback;
+        int days = express ? t.expressDays[row] : t.standardDays[row];
+        return days < 0 ? fallback : days;
+    }
+
+    // NaN when the pincode is unknown or has no coordinates
+    public double latitude(String pincode) {
+        Table t = table;
+        int row = t.row(pincode);
+        return row < 0 ? Double.NaN : t.latitude[row];
+    }
+
+    public double longitude(String pincode) {
+        Table t = table;
+        int row = t.row(pincode);
+        return row < 0 ? Double.NaN : t.longitude[row];
+    }
+
+    public int size() {
+        return table.rows;
+    }
+
+    // Six ASCII digits -> 0..999999, anything else -> -1
+    static int pinIndex(String pincode) {
+        if (pincode == null || pincode.length() != 6) return -1;
+        int value = 0;
+        for (int i = 0; i < 6; i++) {
+            char c = pincode.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static final class Table {
+        // pin index -> row + 1 (0 = no area)
+        final int[] slots;
+        // rows for pincodes that are not six digits
+        final Map<String, Integer> others;
+        final int rows;
+        final boolean[] active;
+        final double[] standardCharge;
+        final double[] expressCharge;
+        final int[] standardDays;
+        final int[] expressDays;
+        final double[] latitude;
+        final double[] longitude;
+
+        Table(int[] slots, Map<String, Integer> others, int rows, boolean[] active,
+              double[] standardCharge, double[] expressCharge, int[] standardDays, int[] expressDays,
+              double[] latitude, double[] longitude) {
+            this.slots = slots;
+            this.others = others;
+            this.rows = rows;
+            this.active = active;
+            this.standardCharge = standardCharge;
+            this.expressCharge = expressCharge;
+            this.standardDays = standardDays;
+            this.expressDays = expressDays;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        static Table empty() {
+            return new Table(new int[PIN_SPACE], Collections.emptyMap(), 0, new boolean[0],
+                    new double[0], new double[0], new int[0], new int[0], new double[0], new double[0]);
+        }
+
+        int row(String pincode) {
+            int pin = pinIndex(pincode);
+            if (pin >= 0) return slots[pin] - 1;
+            if (pincode == null || others.isEmpty()) return -1;
+            Integer row = others.get(pincode.trim());
+            return row == null ? -1 : row;
+        }
+
+        static Table build(List<ServiceableArea> areas) {
+            int n = areas.size();
+            Table t = new Table(new int[PIN_SPACE], new HashMap<>(), 0, new boolean[n],
+                    new double[n], new double[n], new int[n], new int[n], new double[n], new double[n]);
+            int rows = 0;
+            for (ServiceableArea area : areas) {
+                if (area.getPincode() == null) continue;
+                String pincode = area.getPincode().trim();
+                int row = t.row(pincode);
+                if (row < 0) {
+                    row = rows++;
+                    int pin = pinIndex(pincode);
+                    if (pin >= 0) t.slots[pin] = row + 1;
+                    else t.others.put(pincode, row);
+                }
+                t.set(row, area);
+            }
+            return new Table(t.slots, t.others, rows, t.active, t.standardCharge, t.expressCharge,
+                    t.standardDays, t.expressDays, t.latitude, t.longitude);
+        }
+
+        // Copy-on-write: the slot array is only copied when a new pincode appears
+        Table with(ServiceableArea area) {
+            String pincode = area.getPincode().trim();
+            int row = row(pincode);
+            int[] newSlots = slots;
+            Map<String, Integer> newOthers = others;
+            int newRows = rows;
+            if (row < 0) {
+                row = newRows++;
+                int pin = pinIndex(pincode);
+                if (pin >= 0) {
+                    newSlots = slots.clone();
+                    newSlots[pin] = row + 1;
+                } else {
+                    newOthers = new HashMap<>(others);
+                    newOthers.put(pincode, row);
+                }
+            }
+            int capacity = Math.max(newRows, active.length);
+            Table t = new Table(newSlots, newOthers, newRows,
+                    Arrays.copyOf(active, capacity),
+                    Arrays.copyOf(standardCharge, capacity), Arrays.copyOf(expressCharge, capacity),
+                    Arrays.copyOf(standardDays, capacity), Arrays.copyOf(expressDays, capacity),
+                    Arrays.copyOf(latitude, capacity), Arrays.copyOf(longitude, capacity));
+            t.set(row, area);
+            return t;
+        }
+
+        private void set(int row, ServiceableArea area) {
+            active[row] = Boolean.TRUE.equals(area.getIsActive());
+            standardCharge[row] = orNaN(area.getDeliveryCharge());
+            expressCharge[row] = orNaN(area.getExpressDeliveryCharge());
+            standardDays[row] = area.getStandardDeliveryDays() != null ? area.getStandardDeliveryDays() : -1;
+            expressDays[row] = area.getExpressDeliveryDays() != null ? area.getExpressDeliveryDays() : -1;
+            latitude[row] = orNaN(area.getLatitude());
+            longitude[row] = orNaN(area.getLongitude());
+        }
+
+        private static double orNaN(Double value) {
+            return value != null ? value : Double.NaN;
+        }
+    }
+}
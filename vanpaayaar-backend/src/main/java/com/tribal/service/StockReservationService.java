@@ -0,0 +1,37 @@
+package com.tribal.service;
+
+import java.util.Map;
+
+/**
+ * Time-limited stock holds for a checkout that is waiting on Razorpay.
+ *
+ * HELD on order creation -> COMMITTED when the payment is verified -> CONSUMED by placeOrder.
+ * A failed payment or a hold older than HOLD_MINUTES goes to RELEASED and its stock is returned.
+ * A COMMITTED reservation that no order has used after COMMIT_HOURS is released the same way and
+ * logged for reconciliation; placeOrder then takes stock directly, as for an unreserved cart.
+ * Every stock change is a conditional UPDATE (stock >= qty), so concurrent checkouts can never
+ * take more than is on the shelf.
+ */
+public interface StockReservationService {
+
+    int HOLD_MINUTES = 15;
+
+    int COMMIT_HOURS = 24;
+
+    // Holds stock for the buyer's active cart, replacing any earlier hold; IllegalStateException if any item is short
+    void reserveCart(Long buyerId, String holdKey);
+
+    void attachRazorpayOrder(String holdKey, String razorpayOrderId);
+
+    // False when the hold had expired and the stock is no longer available
+    boolean commit(String razorpayOrderId);
+
+    void release(String razorpayOrderId);
+
+    void releaseHold(String holdKey);
+
+    // Committed quantities (productId -> quantity) for the buyer, marked as used by an order
+    Map<Long, Integer> consumeCommitted(Long buyerId);
+
+    void releaseExpired();
+}
@@ -1,8 +1,15 @@
 package com.tribal.service.impl;
 
+import com.tribal.dto.CursorPage;
+import com.tribal.dto.OrderDetail;
+import com.tribal.dto.OrderSummary;
+import com.tribal.dto.ProductSummary;
 import com.tribal.model.*;
 import com.tribal.repository.*;
+import com.tribal.security.PasswordHasher;
 import com.tribal.service.AdminService;
+import com.tribal.service.CatalogService;
+import com.tribal.service.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -34,6 +41,15 @@ public class AdminServiceImpl implements AdminService {
     @Autowired
     private ComplaintRepository complaintRepository;
 
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
     @Override
     public Map<String, Object> getDashboardMetrics() {
         Map<String, Object> metrics = new HashMap<>();
@@ -176,8 +192,8 @@ public class AdminServiceImpl implements AdminService {
     }
 
     @Override
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public CursorPage<ProductSummary> getAllProducts(String after, Integer limit, String sort) {
+        return catalogService.getProductPage(after, limit, sort);
     }
 
     @Override
@@ -202,22 +218,22 @@ public class AdminServiceImpl implements AdminService {
         if (optionalProduct.isPresent()){
             Product product = optionalProduct.get();
             productRepository.deleteById(productId);
+            catalogService.productDeleted(productId);
             return product;
         }
         return null;
     }
 
     @Override
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public List<OrderSummary> getAllOrders() {
+        return orderRepository.findAllSummaries();
     }
 
     @Override
-    public Order getOrderById(Long id){
-        Optional<Order> optionalOrder = orderRepository.findById(id);
+    public OrderDetail getOrderById(Long id){
+        Optional<Order> optionalOrder = orderRepository.findDetailedById(id);
         if(optionalOrder.isPresent()){
-            Order order = optionalOrder.get();
-            return order;
+            return OrderDetail.from(optionalOrder.get());
         }
         return null;
     }
@@ -312,9 +328,13 @@ public class AdminServiceImpl implements AdminService {
             admin.setEmail(updatedAdmin.getEmail());
             admin.setPhone(updatedAdmin.getPhone());
             admin.setPincode(updatedAdmin.getPincode());
-            admin.setConfirmPassword(updatedAdmin.getConfirmPassword());
+            if (updatedAdmin.getConfirmPassword() != null) {
+                admin.setConfirmPassword(passwordHasher.hash(updatedAdmin.getConfirmPassword()));
+            }
 
-            return adminRepository.save(admin);
+            Admin saved = adminRepository.save(admin);
+            emailService.evictRecipient(adminId);
+            return saved;
         }
         return null;
     }
@@ -324,15 +344,11 @@ public class AdminServiceImpl implements AdminService {
         Admin admin = getProfile();
         if (admin != null){
 
-            if(oldPassword == newPassword){
-                admin.setPassword(oldPassword);
-                admin.setConfirmPassword(oldPassword);
-                adminRepository.save(admin);
-            }else{
-                admin.setPassword(newPassword);
-                admin.setConfirmPassword(newPassword);
-                adminRepository.save(admin);
-            }
+            String hash = passwordHasher.hash(newPassword);
+            admin.setPassword(hash);
+            admin.setConfirmPassword(hash);
+            adminRepository.save(admin);
+            emailService.evictRecipient(admin.getId());
         }
         else{
             System.out.println("Admin Profile Not Found");
@@ -1,10 +1,21 @@
 package com.tribal.service.impl;
 
+import com.tribal.dto.CatalogFilter;
+import com.tribal.dto.CursorPage;
+import com.tribal.dto.FacetedCatalogPage;
+import com.tribal.dto.OrderDetail;
+import com.tribal.dto.ProductSummary;
+import com.tribal.event.OrderPlacedEvent;
 import com.tribal.model.*;
 import com.tribal.repository.*;
+import com.tribal.security.PasswordHasher;
 import com.tribal.service.BuyerService;
+import com.tribal.service.CatalogService;
+import com.tribal.service.ProductSearchIndex;
+import com.tribal.service.EmailService;
 import com.tribal.service.NotificationService;
-import com.tribal.service.DeliveryService;
+import com.tribal.service.StockReservationService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,7 +32,13 @@ public class BuyerServiceImpl implements BuyerService {
     private final ReviewRepository reviewRepository;
     private final WishlistRepository wishlistRepository;
     private final NotificationService notificationService;
-    private final DeliveryService deliveryService;
+    private final CatalogService catalogService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductStockRepository productStockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockReservationService stockReservationService;
+    private final EmailService emailService;
+    private final PasswordHasher passwordHasher;
 
     public BuyerServiceImpl(ProductRepository productRepository,
                             BuyerRepository buyerRepository,
@@ -30,7 +47,13 @@ public class BuyerServiceImpl implements BuyerService {
                             ReviewRepository reviewRepository,
                             WishlistRepository wishlistRepository,
                             NotificationService notificationService,
-                            DeliveryService deliveryService) {
+                            CatalogService catalogService,
+                            ProductSearchIndex productSearchIndex,
+                            ProductStockRepository productStockRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            StockReservationService stockReservationService,
+                            EmailService emailService,
+                            PasswordHasher passwordHasher) {
         this.productRepository = productRepository;
         this.buyerRepository = buyerRepository;
         this.cartRepository = cartRepository;
@@ -38,13 +61,19 @@ public class BuyerServiceImpl implements BuyerService {
         this.wishlistRepository = wishlistRepository;
         this.orderRepository = orderRepository;
         this.notificationService = notificationService;
-        this.deliveryService = deliveryService;
+        this.catalogService = catalogService;
+        this.productSearchIndex = productSearchIndex;
+        this.productStockRepository = productStockRepository;
+        this.eventPublisher = eventPublisher;
+        this.stockReservationService = stockReservationService;
+        this.emailService = emailService;
+        this.passwordHasher = passwordHasher;
     }
 
     // --------------------- Products ---------------------
     @Override
-    public List<Product> listProducts() {
-        return productRepository.findAll();
+    public CursorPage<ProductSummary> listProducts(String after, Integer limit, String sort) {
+        return catalogService.getProductPage(after, limit, sort);
     }
 
     @Override
@@ -115,82 +144,82 @@ public class BuyerServiceImpl implements BuyerService {
         List<Cart> activeCart = cartRepository.findByBuyerIdAndOrderIsNull(buyerId);
         if (activeCart.isEmpty()) return Collections.emptyList();
 
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<Long, Product> products = new LinkedHashMap<>();
+        for (Cart item : activeCart) {
+            Product product = item.getProduct();
+            products.put(product.getId(), product);
+            if (product.getStock() != null) quantities.merge(product.getId(), item.getQuantity(), Integer::sum);
+        }
+
+        // Stock already held for this buyer by a verified payment is used first; the rest is taken
+        // in one conditional UPDATE and any hold the cart no longer needs goes back on the shelf.
+        // Products without a stock figure are unlimited.
+        Map<Long, Integer> reserved = stockReservationService.consumeCommitted(buyerId);
+        Map<Long, Integer> toTake = new LinkedHashMap<>();
+        Map<Long, Integer> toReturn = new LinkedHashMap<>(reserved);
+        for (Map.Entry<Long, Integer> q : quantities.entrySet()) {
+            int diff = q.getValue() - Optional.ofNullable(toReturn.remove(q.getKey())).orElse(0);
+            if (diff > 0) toTake.put(q.getKey(), diff);
+            else if (diff < 0) toReturn.put(q.getKey(), -diff);
+        }
+        if (productStockRepository.decrementStock(toTake) != toTake.size()) {
+            throw new IllegalStateException("Insufficient stock for one or more items in the cart");
+        }
+        productStockRepository.incrementStock(toReturn);
+
         Map<Seller, List<Cart>> grouped = activeCart.stream()
                 .collect(Collectors.groupingBy(c -> c.getProduct().getSeller()));
 
         List<Order> created = new ArrayList<>();
+        List<List<Cart>> itemsByOrder = new ArrayList<>();
         for (Map.Entry<Seller, List<Cart>> entry : grouped.entrySet()) {
-            Seller seller = entry.getKey();
-            List<Cart> items = entry.getValue();
-            double total = items.stream()
+            double total = entry.getValue().stream()
                     .mapToDouble(i -> Optional.ofNullable(i.getProduct().getPrice()).orElse(0.0) * i.getQuantity())
                     .sum();
-            Order order = Order.builder()
+            created.add(Order.builder()
                     .buyer(buyer)
-                    .seller(seller)
+                    .seller(entry.getKey())
                     .status("Pending")
                     .totalAmount(total)
-                    .build();
-            order = orderRepository.save(order);
-            for (Cart item : items) {
-                item.setOrder(order);
-                cartRepository.save(item);
-                
-                // Decrement product stock
-                Product product = item.getProduct();
-                if (product.getStock() != null && product.getStock() >= item.getQuantity()) {
-                    product.setStock(product.getStock() - item.getQuantity());
-                    productRepository.save(product);
-                    
-                    // Check for low stock and notify seller
-                    if (product.getStock() <= 5) {
-                        notificationService.notifyLowStock(
-                            seller.getId(), 
-                            product.getId(), 
-                            product.getName(), 
-                            product.getStock()
-                        );
-                    }
-                }
-            }
-            
-            // Create delivery for this order
-            try {
-                if (buyer.getPincode() != null && !buyer.getPincode().trim().isEmpty()) {
-                    deliveryService.createDelivery(order.getId(), buyer.getPincode());
-                    System.out.println("Delivery created for order: " + order.getId() + " to pincode: " + buyer.getPincode());
-                } else {
-                    System.err.println("Cannot create delivery: Buyer pincode is null or empty for order: " + order.getId());
-                }
-            } catch (Exception e) {
-                System.err.println("Failed to create delivery for order " + order.getId() + ": " + e.getMessage());
-                e.printStackTrace();
+                    .build());
+            itemsByOrder.add(entry.getValue());
+        }
+        created = orderRepository.saveAll(created);
+
+        // Cart rows are managed, so linking them is flushed as one JDBC batch of updates at commit
+        List<OrderPlacedEvent.PlacedOrder> placed = new ArrayList<>();
+        for (int i = 0; i < created.size(); i++) {
+            Order order = created.get(i);
+            List<Cart> items = itemsByOrder.get(i);
+            for (Cart item : items) item.setOrder(order);
+            placed.add(new OrderPlacedEvent.PlacedOrder(order.getId(), order.getSeller().getId(), items.size(), order.getTotalAmount()));
+        }
+
+        // Stock figures on the loaded entities predate the UPDATE (and other checkouts), so read the new levels
+        List<OrderPlacedEvent.LowStock> lowStock = new ArrayList<>();
+        Map<Long, Integer> levels = productStockRepository.findStock(quantities.keySet());
+        for (Long productId : quantities.keySet()) {
+            Product product = products.get(productId);
+            Integer remaining = levels.get(productId);
+            if (remaining != null && remaining <= 5 && product.getSeller() != null) {
+                lowStock.add(new OrderPlacedEvent.LowStock(product.getSeller().getId(), product.getId(), product.getName(), remaining));
             }
-            
-            // Create notifications for order placement
-            // Notify buyer (with email)
-            notificationService.notifyOrderPlaced(
-                buyer.getId(), 
-                order.getId(), 
-                String.format("Order contains %d items worth ₹%.2f", items.size(), total)
-            );
-            
-            // Notify seller (with email)
-            notificationService.notifySellerNewOrder(
-                seller.getId(), 
-                order.getId(), 
-                String.format("New order from %s containing %d items worth ₹%.2f", 
-                    buyer.getName(), items.size(), total)
-            );
-            
-            created.add(order);
         }
+
+        // Delivery creation, notifications and index refresh happen after commit (see OrderPlacedListener)
+        Set<Long> touched = new LinkedHashSet<>(products.keySet());
+        touched.addAll(toReturn.keySet());
+        eventPublisher.publishEvent(new OrderPlacedEvent(
+                buyer.getId(), buyer.getName(), buyer.getPincode(), placed, lowStock, new ArrayList<>(touched)));
         return created;
     }
 
     @Override
-    public List<Order> getOrders(Long buyerId) {
-        return orderRepository.findByBuyerId(buyerId);
+    public List<OrderDetail> getOrders(Long buyerId) {
+        return orderRepository.findByBuyerId(buyerId).stream()
+                .map(OrderDetail::from)
+                .collect(Collectors.toList());
     }
 
     // ---------------------- Reviews ---------------------
@@ -287,23 +316,49 @@ public class BuyerServiceImpl implements BuyerService {
         Buyer b = opt.get();
         if (updatedBuyer.getName() != null) b.setName(updatedBuyer.getName());
         if (updatedBuyer.getEmail() != null) b.setEmail(updatedBuyer.getEmail());
-        if (updatedBuyer.getPassword() != null) b.setPassword(updatedBuyer.getPassword());
-        if (updatedBuyer.getConfirmPassword() != null) b.setConfirmPassword(updatedBuyer.getConfirmPassword());
+        if (updatedBuyer.getPassword() != null) {
+            String hash = passwordHasher.hash(updatedBuyer.getPassword());
+            b.setPassword(hash);
+            b.setConfirmPassword(hash);
+        }
         if (updatedBuyer.getPhone() != null) b.setPhone(updatedBuyer.getPhone());
         if (updatedBuyer.getAddress() != null) b.setAddress(updatedBuyer.getAddress());
         if (updatedBuyer.getPincode() != null) b.setPincode(updatedBuyer.getPincode());
-        return buyerRepository.save(b);
+        Buyer saved = buyerRepository.save(b);
+        emailService.evictRecipient(buyerId);
+        return saved;
     }
 
     // ------------------ Search / Filter -----------------
     @Override
-    public List<Product> searchProducts(String keyword) {
-        if (keyword == null) keyword = "";
-        return productRepository.searchByKeyword(keyword);
+    public List<ProductSummary> searchProducts(String keyword, Integer limit) {
+        int topK = limit == null ? CatalogService.DEFAULT_LIMIT : Math.max(1, Math.min(limit, CatalogService.MAX_LIMIT));
+        if (keyword == null || keyword.isBlank()) {
+            // No keyword: behave like browsing the first catalog page
+            return catalogService.getProductPage(null, topK, null).getItems();
+        }
+        List<Long> rankedIds = productSearchIndex.search(keyword, topK);
+        if (rankedIds.isEmpty()) return Collections.emptyList();
+
+        // Ranking comes from the index, current price/stock from one primary-key lookup
+        Map<Long, ProductSummary> byId = productRepository.findSummariesByIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(ProductSummary::getId, p -> p));
+        return rankedIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    @Override
+    public CursorPage<ProductSummary> filterProductsByCategory(String category, String after, Integer limit) {
+        CatalogFilter filter = new CatalogFilter();
+        filter.setCategory(List.of(category));
+        // A walk over the category's own bitset; no facet counts
+        return catalogService.filter(filter, after, limit);
     }
+
     @Override
-    public List<Product> filterProductsByCategory(String category) {
-        return productRepository.findByCategoryIgnoreCase(category);
+    public FacetedCatalogPage browseProducts(CatalogFilter filter, String after, Integer limit) {
+        return catalogService.browse(filter, after, limit);
     }
 
     @Override
@@ -0,0 +1,186 @@
+package com.tribal.service.impl;
+
+import com.tribal.dto.CatalogFilter;
+import com.tribal.dto.CursorPage;
+import com.tribal.dto.FacetedCatalogPage;
+import com.tribal.dto.ProductSummary;
+import com.tribal.event.StockChangedEvent;
+import com.tribal.model.Product;
+import com.tribal.repository.ProductRepository;
+import com.tribal.service.CatalogService;
+import com.tribal.service.ProductFacetIndex;
+import com.tribal.service.ProductSearchIndex;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Service
+public class CatalogServiceImpl implements CatalogService {
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+
+    public CatalogServiceImpl(ProductRepository productRepository,
+                              ProductSearchIndex productSearchIndex,
+                              ProductFacetIndex productFacetIndex) {
+        this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productFacetIndex = productFacetIndex;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ProductSummary> getProductPage(String after, Integer limit, String sort) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        String sortKey = sort == null || sort.isBlank() ? SORT_ID : sort.trim().toLowerCase();
+        boolean first = after == null || after.isBlank();
+
+        // Ask for one extra row so we know whether another page exists without a COUNT query
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        List<ProductSummary> rows;
+        switch (sortKey) {
+            case SORT_ID:
+                rows = productRepository.findSummariesAfterId(first ? 0L : parseId(after), window);
+                break;
+            case SORT_NEWEST:
+                rows = productRepository.findSummariesBeforeId(first ? Long.MAX_VALUE : parseId(after), window);
+                break;
+            case SORT_PRICE_ASC: {
+                double price = first ? -Double.MAX_VALUE : parsePrice(after);
+                long id = first ? 0L : parsePriceCursorId(after);
+                rows = productRepository.findSummariesByPriceAsc(price, id, window);
+                break;
+            }
+            case SORT_PRICE_DESC: {
+                double price = first ? Double.MAX_VALUE : parsePrice(after);
+                long id = first ? Long.MAX_VALUE : parsePriceCursorId(after);
+                rows = productRepository.findSummariesByPriceDesc(price, id, window);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown sort: " + sort);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ProductSummary last = items.get(items.size() - 1);
+            boolean byPrice = SORT_PRICE_ASC.equals(sortKey) || SORT_PRICE_DESC.equals(sortKey);
+            nextCursor = byPrice ? last.getPrice() + "_" + last.getId() : String.valueOf(last.getId());
+        }
+
+        return CursorPage.<ProductSummary>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .limit(pageSize)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FacetedCatalogPage browse(CatalogFilter filter, String after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        long afterId = after == null || after.isBlank() ? 0L : parseId(after);
+
+        // Filtering and counting happen on bitsets; only the page itself is read from the database
+        ProductFacetIndex.Result result = productFacetIndex.query(filter != null ? filter : new CatalogFilter(), afterId, pageSize + 1);
+        return FacetedCatalogPage.builder()
+                .page(hydrate(result.getIds(), pageSize))
+                .totalMatches(result.getTotal())
+                .facets(result.getFacetCounts())
+                .build();
+    }
+
+    @Override
+    public CursorPage<ProductSummary> filter(CatalogFilter filter, String after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        long afterId = after == null || after.isBlank() ? 0L : parseId(after);
+        ProductFacetIndex.Result result = productFacetIndex.match(filter != null ? filter : new CatalogFilter(), afterId, pageSize + 1);
+        return hydrate(result.getIds(), pageSize);
+    }
+
+    // One page from pageSize + 1 matching ids (the extra one only signals another page), read in one query
+    private CursorPage<ProductSummary> hydrate(List<Long> ids, int pageSize) {
+        boolean hasMore = ids.size() > pageSize;
+        List<Long> pageIds = hasMore ? ids.subList(0, pageSize) : ids;
+
+        List<ProductSummary> items = List.of();
+        if (!pageIds.isEmpty()) {
+            Map<Long, ProductSummary> byId = productRepository.findSummariesByIdIn(pageIds).stream()
+                    .collect(Collectors.toMap(ProductSummary::getId, p -> p));
+            items = pageIds.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+        }
+
+        return CursorPage.<ProductSummary>builder()
+                .items(items)
+                .nextCursor(hasMore ? String.valueOf(pageIds.get(pageIds.size() - 1)) : null)
+                .hasMore(hasMore)
+                .limit(pageSize)
+                .build();
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        if (product == null) return;
+        ProductSummary summary = ProductSummary.from(product);
+        productSearchIndex.index(summary);
+        productFacetIndex.index(summary);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void productsChanged(Collection<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) return;
+        for (ProductSummary summary : productRepository.findSummariesByIdIn(productIds)) {
+            productSearchIndex.index(summary);
+            productFacetIndex.index(summary);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStockChanged(StockChangedEvent event) {
+        productsChanged(event.getProductIds());
+    }
+
+    @Override
+    public void productDeleted(Long productId) {
+        productSearchIndex.remove(productId);
+        productFacetIndex.remove(productId);
+    }
+
+    // Cursor formats: "<id>" for id/newest, "<price>_<id>" for the price sorts
+    private long parseId(String cursor) {
+        try {
+            return Long.parseLong(cursor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private double parsePrice(String cursor) {
+        int sep = cursor.lastIndexOf('_');
+        if (sep <= 0) throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        try {
+            return Double.parseDouble(cursor.substring(0, sep));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private long parsePriceCursorId(String cursor) {
+        int sep = cursor.lastIndexOf('_');
+        if (sep <= 0) throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        return parseId(cursor.substring(sep + 1));
+    }
+}
@@ -1,14 +1,33 @@
 package com.tribal.service.impl;
 
+import com.tribal.dto.CursorPage;
+import com.tribal.dto.DeliverySummary;
+import com.tribal.event.DeliveryAgentChangedEvent;
+import com.tribal.event.DeliveryStatusChangedEvent;
+import com.tribal.event.DeliveryTimerEvent;
 import com.tribal.model.*;
 import com.tribal.repository.*;
+import com.tribal.service.DeliveryAnalyticsService;
+import com.tribal.service.DeliveryAssignmentEngine;
+import com.tribal.service.DeliveryDispatchIndex;
+import com.tribal.service.DeliveryEventLog;
 import com.tribal.service.DeliveryService;
+import com.tribal.service.DeliveryTimerService;
+import com.tribal.service.NotificationService;
+import com.tribal.service.ServiceableAreaTable;
+import com.tribal.util.TrackingIds;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,10 +41,47 @@ public class DeliveryServiceImpl implements DeliveryService {
     private DeliveryAgentRepository agentRepository;
     
     @Autowired
-    private ServiceableAreaRepository serviceableAreaRepository;
+    private ServiceableAreaTable areaTable;
     
     @Autowired
     private OrderRepository orderRepository;
+    
+    @Autowired
+    private DeliveryDispatchIndex dispatchIndex;
+    
+    @Autowired
+    private DeliveryAssignmentEngine assignmentEngine;
+    
+    @Autowired
+    private DeliveryTimerService deliveryTimerService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private DeliveryEventLog deliveryEventLog;
+    
+    @Autowired
+    private DeliveryAnalyticsService deliveryAnalyticsService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // Key for the tracking ID permutation, applied once at startup
+    @Value("${app.delivery.tracking-secret:vanvyaapaar}")
+    public void setTrackingSecret(String secret) {
+        TrackingIds.configure(secret);
+    }
+    
+    // Listing page size when none (or an out-of-range one) is requested
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    // Past this many qualifying agents, only the ones nearest the pickup point are scored
+    private static final int NEAREST_CANDIDATES = 10;
+    
+    // Score points per free workload slot (40% weight)
+    private static final double WORKLOAD_POINTS = 0.4 * 10;
 
     @Override
     public Delivery createDelivery(Order order, String deliveryAddress, String deliveryPincode) {
@@ -42,6 +98,8 @@ public class DeliveryServiceImpl implements DeliveryService {
                 .pickupPincode(order.getSeller().getPincode())
                 .deliveryAddress(deliveryAddress)
                 .deliveryPincode(deliveryPincode)
+                .buyerId(order.getBuyer().getId())
+                .sellerId(order.getSeller().getId())
                 .buyerName(order.getBuyer().getName())
                 .buyerPhone(order.getBuyer().getPhone())
                 .sellerName(order.getSeller().getName())
@@ -50,9 +108,11 @@ public class DeliveryServiceImpl implements DeliveryService {
                 .estimatedDeliveryTime(calculateEstimatedDeliveryTime(deliveryPincode))
                 .build();
         
+        // One insert: the tracking ID is derived from the generated id, nothing to write back
         delivery = deliveryRepository.save(delivery);
-        delivery.setTrackingId(delivery.generateTrackingId());
-        delivery = deliveryRepository.save(delivery);
+        deliveryEventLog.append(delivery, null);
+        eventPublisher.publishEvent(new DeliveryStatusChangedEvent(delivery.getId(), null, delivery.getStatus()));
+        deliveryTimerService.scheduleOverdue(delivery.getId(), delivery.getEstimatedDeliveryTime());
         
         // Try to assign agent immediately
         assignBestAgent(delivery.getId());
@@ -83,7 +143,7 @@ public class DeliveryServiceImpl implements DeliveryService {
         Delivery delivery = deliveryOpt.get();
         
         // Find best available agent for this pincode
-        List<DeliveryAgent> availableAgents = agentRepository.findAvailableAgentsByPincode(delivery.getDeliveryPincode());
+        List<DeliveryAgent> availableAgents = findCandidates(delivery);
         
         if (availableAgents.isEmpty()) {
             // No agents available, keep in CREATED status for later assignment
@@ -95,21 +155,52 @@ public class DeliveryServiceImpl implements DeliveryService {
         
         // Assign agent
         delivery.setAgent(bestAgent);
-        delivery.updateStatus(Delivery.DeliveryStatus.ASSIGNED);
+        changeStatus(delivery, Delivery.DeliveryStatus.ASSIGNED, null);
         
         // Update agent status
         bestAgent.setStatus(DeliveryAgent.AgentStatus.ASSIGNED);
         bestAgent.incrementWorkload();
         agentRepository.save(bestAgent);
+        agentChanged(bestAgent);
         
         delivery = deliveryRepository.save(delivery);
         
         // Simulate agent acceptance after a delay (in real system, agent would accept via mobile app)
-        simulateAgentAcceptance(delivery.getId());
+        simulateAgentAcceptance(delivery);
         
         return Optional.of(delivery);
     }
 
+    // Candidate ids come from the dispatch index; the rows are re-checked since the index trails commits
+    private List<DeliveryAgent> findCandidates(Delivery delivery) {
+        List<Long> candidateIds = dispatchIndex.candidates(delivery.getDeliveryPincode(),
+                coordinate(areaTable.latitude(delivery.getPickupPincode())),
+                coordinate(areaTable.longitude(delivery.getPickupPincode())),
+                NEAREST_CANDIDATES);
+        if (candidateIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return agentRepository.findAllById(candidateIds).stream()
+                .filter(DeliveryAgent::canTakeNewOrder)
+                .collect(Collectors.toList());
+    }
+    
+    private static Double coordinate(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+    
+    // Every status transition goes through here so the event log sees it
+    private void changeStatus(Delivery delivery, Delivery.DeliveryStatus status, String note) {
+        Delivery.DeliveryStatus previous = delivery.getStatus();
+        delivery.updateStatus(status);
+        deliveryEventLog.append(delivery, note);
+        eventPublisher.publishEvent(new DeliveryStatusChangedEvent(delivery.getId(), previous, status));
+    }
+    
+    private void agentChanged(DeliveryAgent agent) {
+        eventPublisher.publishEvent(DeliveryAgentChangedEvent.of(agent));
+    }
+    
     private DeliveryAgent selectBestAgent(List<DeliveryAgent> agents, Delivery delivery) {
         // Scoring algorithm for agent selection
         return agents.stream()
@@ -121,7 +212,7 @@ public class DeliveryServiceImpl implements DeliveryService {
         double score = 0.0;
         
         // Prefer agents with lower workload (40% weight)
-        score += (3 - agent.getCurrentWorkload()) * 0.4 * 10;
+        score += (3 - agent.getCurrentWorkload()) * WORKLOAD_POINTS;
         
         // Prefer higher rated agents (30% weight)
         score += agent.getRating() * 0.3 * 10;
@@ -154,12 +245,16 @@ public class DeliveryServiceImpl implements DeliveryService {
         }
         
         // Update delivery status
-        delivery.updateStatus(Delivery.DeliveryStatus.ACCEPTED_BY_AGENT);
+        changeStatus(delivery, Delivery.DeliveryStatus.ACCEPTED_BY_AGENT, null);
         deliveryRepository.save(delivery);
         
         // Update agent status
         agent.setStatus(DeliveryAgent.AgentStatus.BUSY);
         agentRepository.save(agent);
+        agentChanged(agent);
+        
+        // Hand the delivery back if it isn't picked up in time
+        deliveryTimerService.schedulePickupSla(deliveryId, delivery.getAcceptedAt());
         
         // Start delivery simulation
         simulateDeliveryProgress(deliveryId);
@@ -175,7 +270,7 @@ public class DeliveryServiceImpl implements DeliveryService {
         }
         
         Delivery delivery = deliveryOpt.get();
-        delivery.updateStatus(status);
+        changeStatus(delivery, status, notes);
         
         if (notes != null && !notes.trim().isEmpty()) {
             delivery.setAgentNotes(notes);
@@ -193,7 +288,11 @@ public class DeliveryServiceImpl implements DeliveryService {
                     agent.setTotalDeliveries(agent.getTotalDeliveries() + 1);
                 }
                 agentRepository.save(agent);
+                agentChanged(agent);
             }
+            deliveryTimerService.cancelAll(deliveryId);
+        } else if (status == Delivery.DeliveryStatus.DELIVERED) {
+            deliveryTimerService.cancel(deliveryId, DeliveryTimerEvent.Type.OVERDUE);
         }
         
         deliveryRepository.save(delivery);
@@ -204,7 +303,9 @@ public class DeliveryServiceImpl implements DeliveryService {
     public DeliveryAgent createAgent(DeliveryAgent agent) {
         agent.setCreatedAt(LocalDateTime.now());
         agent.setUpdatedAt(LocalDateTime.now());
-        return agentRepository.save(agent);
+        DeliveryAgent saved = agentRepository.save(agent);
+        agentChanged(saved);
+        return saved;
     }
 
     @Override
@@ -226,7 +327,9 @@ public class DeliveryServiceImpl implements DeliveryService {
         
         existingAgent.setUpdatedAt(LocalDateTime.now());
         
-        return agentRepository.save(existingAgent);
+        DeliveryAgent saved = agentRepository.save(existingAgent);
+        agentChanged(saved);
+        return saved;
     }
 
     @Override
@@ -247,40 +350,125 @@ public class DeliveryServiceImpl implements DeliveryService {
         }
         
         agentRepository.save(agent);
+        agentChanged(agent);
         return true;
     }
 
     @Override
     public List<DeliveryAgent> getAvailableAgents(String pincode) {
-        return agentRepository.findAvailableAgentsByPincode(pincode);
+        List<Long> candidateIds = dispatchIndex.candidates(pincode, null, null, Integer.MAX_VALUE);
+        if (candidateIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return agentRepository.findAllById(candidateIds).stream()
+                .filter(DeliveryAgent::canTakeNewOrder)
+                .collect(Collectors.toList());
     }
 
     @Override
     public Optional<Delivery> trackDelivery(String trackingId) {
         try {
-            // Try to find by tracking ID first
-            Optional<Delivery> delivery = deliveryRepository.findByTrackingId(trackingId);
-            if (delivery.isPresent()) {
-                return delivery;
-            }
+            // Current tracking IDs decode to the delivery id - a primary-key lookup.
+            // Anything else can only be a tracking ID stored before that, looked up on its index.
+            long deliveryId = TrackingIds.decode(trackingId);
+            Optional<Delivery> delivery = deliveryId >= 0
+                    // a row that still has a stored ID was only ever published under that one
+                    ? deliveryRepository.findById(deliveryId).filter(d -> TrackingIds.decode(d.getTrackingId()) == deliveryId)
+                    : deliveryRepository.findByTrackingId(trackingId);
             
-            // If not found and it's a numeric ID, try to find by ID
-            try {
-                Long deliveryId = Long.parseLong(trackingId);
-                return deliveryRepository.findById(deliveryId);
-            } catch (NumberFormatException e) {
-                // Not a numeric ID, return empty
-                return Optional.empty();
-            }
+            delivery.ifPresent(d -> d.setTimeline(deliveryEventLog.timeline(d.getId())));
+            return delivery;
         } catch (Exception e) {
             System.err.println("Error tracking delivery: " + e.getMessage());
             return Optional.empty();
         }
     }
 
+    @Override
+    public Optional<Delivery> getDelivery(Long deliveryId) {
+        Optional<Delivery> delivery = deliveryRepository.findById(deliveryId);
+        delivery.ifPresent(d -> d.setTimeline(deliveryEventLog.timeline(d.getId())));
+        return delivery;
+    }
+
+    // The full-entity lists return the newest MAX_PAGE_SIZE deliveries; older ones are
+    // reached through the cursor pages below
     @Override
     public List<Delivery> getDeliveriesForAgent(Long agentId) {
-        return deliveryRepository.findByAgentId(agentId);
+        return deliveryRepository.findRecentByAgent(agentId, PageRequest.of(0, MAX_PAGE_SIZE));
+    }
+
+    @Override
+    public List<Delivery> getDeliveriesForBuyer(Long buyerId) {
+        return deliveryRepository.findDeliveriesByBuyer(buyerId, PageRequest.of(0, MAX_PAGE_SIZE));
+    }
+
+    @Override
+    public List<Delivery> getDeliveriesForSeller(Long sellerId) {
+        return deliveryRepository.findDeliveriesBySeller(sellerId, PageRequest.of(0, MAX_PAGE_SIZE));
+    }
+
+    @Override
+    public CursorPage<DeliverySummary> getBuyerDeliveryPage(Long buyerId, String after, Integer limit) {
+        return page(after, limit, (beforeId, window) -> deliveryRepository.findBuyerPage(buyerId, beforeId, window));
+    }
+
+    @Override
+    public CursorPage<DeliverySummary> getSellerDeliveryPage(Long sellerId, String after, Integer limit) {
+        return page(after, limit, (beforeId, window) -> deliveryRepository.findSellerPage(sellerId, beforeId, window));
+    }
+
+    @Override
+    public CursorPage<DeliverySummary> getAgentDeliveryPage(Long agentId, String after, Integer limit) {
+        return page(after, limit, (beforeId, window) -> deliveryRepository.findAgentPage(agentId, beforeId, window));
+    }
+
+    @Override
+    public CursorPage<DeliverySummary> getDeliveryPage(String status, String after, Integer limit) {
+        if (status == null || status.isBlank()) {
+            return page(after, limit, deliveryRepository::findPage);
+        }
+        Delivery.DeliveryStatus deliveryStatus;
+        try {
+            deliveryStatus = Delivery.DeliveryStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid delivery status: " + status);
+        }
+        return page(after, limit, (beforeId, window) -> deliveryRepository.findPageByStatus(deliveryStatus, beforeId, window));
+    }
+
+    // Keyset page on id, newest first; the cursor is the last id of the previous page
+    private CursorPage<DeliverySummary> page(String after, Integer limit, BiFunction<Long, PageRequest, List<DeliverySummary>> query) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long beforeId = Long.MAX_VALUE;
+        if (after != null && !after.isBlank()) {
+            try {
+                beforeId = Long.parseLong(after.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+        }
+        
+        // One extra row tells us whether another page exists without a COUNT query
+        List<DeliverySummary> rows = query.apply(beforeId, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) rows = rows.subList(0, pageSize);
+        
+        return CursorPage.<DeliverySummary>builder()
+                .items(rows)
+                .nextCursor(hasMore ? String.valueOf(rows.get(rows.size() - 1).getId()) : null)
+                .hasMore(hasMore)
+                .limit(pageSize)
+                .build();
+    }
+
+    // Deliveries created before buyer_id/seller_id existed get them from their order, once
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPartyIds() {
+        int updated = deliveryRepository.backfillPartyIds();
+        if (updated > 0) {
+            System.out.println("Backfilled buyer/seller ids on " + updated + " deliveries");
+        }
     }
 
     @Override
@@ -293,24 +481,12 @@ public class DeliveryServiceImpl implements DeliveryService {
         Map<String, Object> analytics = new HashMap<>();
         
         try {
-            // Basic counts
-            analytics.put("totalDeliveries", deliveryRepository.count());
-            analytics.put("activeDeliveries", deliveryRepository.findInTransitDeliveries().size());
-            analytics.put("completedDeliveries", deliveryRepository.countByStatus(Delivery.DeliveryStatus.COMPLETED));
-            analytics.put("failedDeliveries", deliveryRepository.countByStatus(Delivery.DeliveryStatus.FAILED));
-            
-            // Agent stats
-            analytics.put("totalAgents", agentRepository.count());
-            analytics.put("onlineAgents", agentRepository.findByIsOnlineTrue().size());
-            analytics.put("availableAgents", agentRepository.findAvailableAgents().size());
-            
-            // Performance metrics
-            Double avgDeliveryTime = deliveryRepository.getAverageDeliveryTimeInHours();
-            analytics.put("averageDeliveryTimeHours", avgDeliveryTime != null ? avgDeliveryTime : 0.0);
-            
-            LocalDateTime weekAgo = LocalDateTime.now().minusWeeks(1);
-            Double successRate = deliveryRepository.getDeliverySuccessRate(weekAgo);
-            analytics.put("weeklySuccessRate", successRate != null ? successRate : 0.0);
+            // Served from DeliveryAnalyticsService's cached snapshot - no table scans
+            Map<String, Object> snapshot = deliveryAnalyticsService.getSnapshot();
+            for (String key : List.of("totalDeliveries", "activeDeliveries", "completedDeliveries", "failedDeliveries",
+                    "totalAgents", "onlineAgents", "availableAgents", "averageDeliveryTimeHours", "weeklySuccessRate")) {
+                analytics.put(key, snapshot.get(key));
+            }
             
         } catch (Exception e) {
             System.err.println("Error getting analytics, using fallback: " + e.getMessage());
@@ -333,7 +509,7 @@ public class DeliveryServiceImpl implements DeliveryService {
     @Override
     public boolean isPincodeServiceable(String pincode) {
         try {
-            return serviceableAreaRepository.isPincodeServiceable(pincode);
+            return areaTable.isServiceable(pincode);
         } catch (Exception e) {
             // Fallback: assume common Indian pincodes are serviceable
             System.err.println("Error checking serviceability, using fallback: " + e.getMessage());
@@ -343,37 +519,21 @@ public class DeliveryServiceImpl implements DeliveryService {
 
     @Override
     public Double getDeliveryCharge(String pincode, String deliveryType) {
-        try {
-            Optional<ServiceableArea> areaOpt = serviceableAreaRepository.findByPincode(pincode);
-            if (areaOpt.isPresent()) {
-                return areaOpt.get().getDeliveryChargeForType(deliveryType);
-            }
-        } catch (Exception e) {
-            System.err.println("Error getting delivery charge, using fallback: " + e.getMessage());
-        }
-        
-        // Fallback charges
-        return "EXPRESS".equalsIgnoreCase(deliveryType) ? 100.0 : 50.0;
+        boolean express = "EXPRESS".equalsIgnoreCase(deliveryType);
+        // Fallback charges for pincodes without an area
+        return areaTable.charge(pincode, express, express ? 100.0 : 50.0);
     }
 
     @Override
     public Integer getEstimatedDeliveryDays(String pincode, String deliveryType) {
-        try {
-            Optional<ServiceableArea> areaOpt = serviceableAreaRepository.findByPincode(pincode);
-            if (areaOpt.isPresent()) {
-                return areaOpt.get().getDeliveryDaysForType(deliveryType);
-            }
-        } catch (Exception e) {
-            System.err.println("Error getting delivery days, using fallback: " + e.getMessage());
-        }
-        
-        // Fallback days
-        return "EXPRESS".equalsIgnoreCase(deliveryType) ? 1 : 3;
+        boolean express = "EXPRESS".equalsIgnoreCase(deliveryType);
+        // Fallback days for pincodes without an area
+        return areaTable.days(pincode, express, express ? 1 : 3);
     }
 
     @Override
     public List<Delivery> getAllDeliveries() {
-        return deliveryRepository.findAll();
+        return deliveryRepository.findRecent(PageRequest.of(0, MAX_PAGE_SIZE));
     }
 
     @Override
@@ -393,16 +553,19 @@ public class DeliveryServiceImpl implements DeliveryService {
             DeliveryAgent currentAgent = delivery.getAgent();
             currentAgent.decrementWorkload();
             agentRepository.save(currentAgent);
+            agentChanged(currentAgent);
         }
         
         // Assign new agent
         delivery.setAgent(newAgent);
-        delivery.updateStatus(Delivery.DeliveryStatus.ASSIGNED);
+        changeStatus(delivery, Delivery.DeliveryStatus.ASSIGNED, null);
         
         newAgent.incrementWorkload();
         agentRepository.save(newAgent);
+        agentChanged(newAgent);
         
         deliveryRepository.save(delivery);
+        simulateAgentAcceptance(delivery);
         return true;
     }
 
@@ -456,33 +619,86 @@ public class DeliveryServiceImpl implements DeliveryService {
         
         // Simulate pickup after 30 minutes
         if (delivery.getStatus() == Delivery.DeliveryStatus.ACCEPTED_BY_AGENT) {
-            delivery.updateStatus(Delivery.DeliveryStatus.PICKED_UP);
+            changeStatus(delivery, Delivery.DeliveryStatus.PICKED_UP, null);
             deliveryRepository.save(delivery);
         }
     }
 
     @Override
-    public void processAutomaticAssignments() {
-        // Find unassigned deliveries and try to assign them
+    public Map<String, Object> processAutomaticAssignments() {
+        // Find unassigned deliveries and assign them together rather than one at a time
         List<Delivery> pendingDeliveries = deliveryRepository.findPendingAssignments();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("pending", pendingDeliveries.size());
+        if (pendingDeliveries.isEmpty()) {
+            report.put("assigned", 0);
+            return report;
+        }
+        
+        Map<Long, List<Long>> candidateIds = new HashMap<>();
+        Set<Long> allCandidateIds = new HashSet<>();
+        for (Delivery delivery : pendingDeliveries) {
+            // Pickup coordinates come from the in-memory area table
+            List<Long> ids = dispatchIndex.candidates(delivery.getDeliveryPincode(),
+                    coordinate(areaTable.latitude(delivery.getPickupPincode())),
+                    coordinate(areaTable.longitude(delivery.getPickupPincode())),
+                    NEAREST_CANDIDATES);
+            candidateIds.put(delivery.getId(), ids);
+            allCandidateIds.addAll(ids);
+        }
+        
+        // Every candidate agent loaded once, re-checked since the index trails commits
+        Map<Long, DeliveryAgent> agents = agentRepository.findAllById(allCandidateIds).stream()
+                .filter(DeliveryAgent::canTakeNewOrder)
+                .collect(Collectors.toMap(DeliveryAgent::getId, agent -> agent));
+        Map<Long, List<DeliveryAgent>> candidates = new HashMap<>();
+        for (Map.Entry<Long, List<Long>> entry : candidateIds.entrySet()) {
+            candidates.put(entry.getKey(), entry.getValue().stream()
+                    .map(agents::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+        }
+        
+        DeliveryAssignmentEngine.Result result = assignmentEngine.solve(
+                pendingDeliveries, candidates, this::calculateAgentScore, WORKLOAD_POINTS);
         
+        List<Delivery> assigned = new ArrayList<>();
+        Map<Long, DeliveryAgent> touchedAgents = new LinkedHashMap<>();
         for (Delivery delivery : pendingDeliveries) {
-            assignBestAgent(delivery.getId());
+            DeliveryAgent agent = result.getAssignments().get(delivery.getId());
+            if (agent == null) continue;
+            delivery.setAgent(agent);
+            changeStatus(delivery, Delivery.DeliveryStatus.ASSIGNED, null);
+            agent.incrementWorkload();
+            if (agent.getStatus() == DeliveryAgent.AgentStatus.FREE) {
+                agent.setStatus(DeliveryAgent.AgentStatus.ASSIGNED);
+            }
+            assigned.add(delivery);
+            touchedAgents.put(agent.getId(), agent);
         }
+        
+        // One flush for the whole batch (JDBC batching is on for updates)
+        agentRepository.saveAll(touchedAgents.values());
+        deliveryRepository.saveAll(assigned);
+        touchedAgents.values().forEach(this::agentChanged);
+        for (Delivery delivery : assigned) {
+            simulateAgentAcceptance(delivery);
+        }
+        
+        report.put("assigned", assigned.size());
+        report.put("agentsUsed", touchedAgents.size());
+        report.put("score", Math.round(result.getTotalScore() * 10) / 10.0);
+        report.put("greedyAssigned", result.getGreedyAssigned());
+        report.put("greedyScore", Math.round(result.getGreedyScore() * 10) / 10.0);
+        System.out.println("Batch assignment: " + report);
+        return report;
     }
 
     @Override
     public void updateAgentLocations() {
-        // In real implementation, this would update agent locations based on GPS
-        // For simulation, we can randomly update some agent locations
-        List<DeliveryAgent> activeAgents = agentRepository.findByIsOnlineTrue();
-        
-        for (DeliveryAgent agent : activeAgents) {
-            agent.setLastActiveTime(LocalDateTime.now());
-            // Could update lat/lng here for map simulation
-        }
-        
-        agentRepository.saveAll(activeAgents);
+        // GPS positions arrive through AgentLocationTracker; this only bumps lastActiveTime,
+        // in one UPDATE rather than loading and saving every online agent
+        agentRepository.touchOnlineAgents(LocalDateTime.now());
     }
     
     // Helper methods
@@ -491,22 +707,50 @@ public class DeliveryServiceImpl implements DeliveryService {
         return LocalDateTime.now().plusDays(deliveryDays);
     }
     
-    private void simulateAgentAcceptance(Long deliveryId) {
+    private void simulateAgentAcceptance(Delivery delivery) {
         // In real system, agent would accept via mobile app
-        // For demo, we simulate acceptance after a short delay
-        new Thread(() -> {
-            try {
-                Thread.sleep(5000); // 5 second delay
-                Optional<Delivery> deliveryOpt = deliveryRepository.findById(deliveryId);
-                if (deliveryOpt.isPresent()) {
-                    Delivery delivery = deliveryOpt.get();
-                    if (delivery.getStatus() == Delivery.DeliveryStatus.ASSIGNED) {
-                        acceptDelivery(deliveryId, delivery.getAgent().getId());
-                    }
+        // For demo, we simulate acceptance after a short delay (see onDeliveryTimer)
+        deliveryTimerService.scheduleAcceptance(delivery.getId(), delivery.getAssignedAt());
+    }
+    
+    // Timers fire on DeliveryTimerService threads; each one re-checks the delivery before acting
+    @EventListener
+    public void onDeliveryTimer(DeliveryTimerEvent event) {
+        Optional<Delivery> deliveryOpt = deliveryRepository.findById(event.getDeliveryId());
+        if (!deliveryOpt.isPresent()) {
+            return;
+        }
+        Delivery delivery = deliveryOpt.get();
+        
+        switch (event.getType()) {
+            case AGENT_ACCEPTANCE:
+                if (delivery.getStatus() == Delivery.DeliveryStatus.ASSIGNED && delivery.getAgent() != null) {
+                    acceptDelivery(delivery.getId(), delivery.getAgent().getId());
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }).start();
+                break;
+            case PICKUP_SLA:
+                if (delivery.getStatus() == Delivery.DeliveryStatus.ACCEPTED_BY_AGENT && delivery.getAgent() != null) {
+                    // Free the agent and put the delivery back in the assignment queue
+                    DeliveryAgent agent = delivery.getAgent();
+                    agent.decrementWorkload();
+                    agentRepository.save(agent);
+                    agentChanged(agent);
+                    delivery.setAgent(null);
+                    delivery.setAgentNotes("Pickup SLA missed by agent " + agent.getId());
+                    changeStatus(delivery, Delivery.DeliveryStatus.CREATED, "Pickup SLA missed by agent " + agent.getId());
+                    deliveryRepository.save(delivery);
+                }
+                break;
+            case OVERDUE:
+                if (delivery.isInProgress() && delivery.getStatus() != Delivery.DeliveryStatus.DELIVERED
+                        && delivery.getOrder() != null && delivery.getOrder().getBuyer() != null) {
+                    notificationService.createNotification(
+                            delivery.getOrder().getBuyer().getId(), "BUYER", "DELIVERY_DELAYED",
+                            "Delivery Delayed",
+                            "Your delivery " + delivery.getTrackingId() + " is taking longer than estimated. We're on it.",
+                            "NORMAL", delivery.getId(), "DELIVERY", "/buyer/orders", false);
+                }
+                break;
+        }
     }
 }
\ No newline at end of file
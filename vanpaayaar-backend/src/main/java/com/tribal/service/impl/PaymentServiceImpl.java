@@ -1,136 +1,222 @@
 package com.tribal.service.impl;
 
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
-import com.razorpay.Utils;
 import com.tribal.dto.PaymentRequest;
+import com.tribal.dto.PaymentState;
 import com.tribal.dto.PaymentVerificationRequest;
 import com.tribal.model.Buyer;
 import com.tribal.model.Payment;
 import com.tribal.repository.BuyerRepository;
 import com.tribal.repository.PaymentRepository;
+import com.tribal.service.NotificationService;
+import com.tribal.service.PaymentGatewayClient;
 import com.tribal.service.PaymentService;
+import com.tribal.service.StockReservationService;
 import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Payment lifecycle: CREATED on order creation, then SUCCESS or FAILED from the checkout callbacks.
+ *
+ * Callbacks can arrive more than once and concurrently (client retries, /verify and /success
+ * for the same checkout). Each is applied with one read of the payment's state and one
+ * conditional UPDATE, so exactly one caller wins a transition; the winner alone commits the
+ * stock hold and sends the notification, and repeats get the stored outcome back.
+ * The Razorpay payment id is the idempotency key: a repeat with the same id is a no-op.
+ */
 @Service
 public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final BuyerRepository buyerRepository;
-    private final RazorpayClient razorpayClient;
-
-    @Value("${razorpay.key.id}")
-    private String razorpayKeyId;
+    private final PaymentGatewayClient paymentGateway;
+    private final StockReservationService stockReservationService;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
 
-    @Value("${razorpay.key.secret}")
-    private String razorpayKeySecret;
+    // Order creations in progress, by buyer and amount - a double-submitted checkout shares one order
+    private final ConcurrentHashMap<String, CompletableFuture<JSONObject>> ordersInFlight = new ConcurrentHashMap<>();
 
     public PaymentServiceImpl(
             PaymentRepository paymentRepository,
             BuyerRepository buyerRepository,
-            @Value("${razorpay.key.id}") String keyId,
-            @Value("${razorpay.key.secret}") String keySecret
-    ) throws RazorpayException {
+            PaymentGatewayClient paymentGateway,
+            StockReservationService stockReservationService,
+            NotificationService notificationService,
+            PlatformTransactionManager transactionManager
+    ) {
         this.paymentRepository = paymentRepository;
         this.buyerRepository = buyerRepository;
-        this.razorpayClient = new RazorpayClient(keyId, keySecret);
-        this.razorpayKeyId = keyId;
-        this.razorpayKeySecret = keySecret;
+        this.paymentGateway = paymentGateway;
+        this.stockReservationService = stockReservationService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
-    public JSONObject createRazorpayOrder(PaymentRequest request) throws Exception {
+    public CompletableFuture<JSONObject> createRazorpayOrder(PaymentRequest request) {
+        String key = request.getBuyerId() + ":" + request.getAmount() + ":" + request.getCurrency();
+        CompletableFuture<JSONObject> created = new CompletableFuture<>();
+        CompletableFuture<JSONObject> existing = ordersInFlight.putIfAbsent(key, created);
+        if (existing != null) return existing;
+
+        CompletableFuture<JSONObject> order;
         try {
-            // Validate buyer
-            Buyer buyer = buyerRepository.findById(request.getBuyerId())
-                    .orElseThrow(() -> new RuntimeException("Buyer not found"));
-
-            // Convert amount to paise (Razorpay uses smallest currency unit)
-            int amountInPaise = (int) (request.getAmount() * 100);
-
-            // Create Razorpay order
-            JSONObject orderRequest = new JSONObject();
-            orderRequest.put("amount", amountInPaise);
-            orderRequest.put("currency", request.getCurrency());
-            orderRequest.put("receipt", "order_rcptid_" + System.currentTimeMillis());
-
-            Order razorpayOrder = razorpayClient.orders.create(orderRequest);
-
-            // Save payment record
-            Payment payment = Payment.builder()
-                    .razorpayOrderId(razorpayOrder.get("id"))
-                    .amount(request.getAmount())
-                    .currency(request.getCurrency())
-                    .status("CREATED")
-                    .buyer(buyer)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-
-            paymentRepository.save(payment);
-
-            // Return order details for frontend
-            JSONObject response = new JSONObject();
-            response.put("orderId", (String) razorpayOrder.get("id"));
-            response.put("amount", (Integer) amountInPaise);
-            response.put("currency", (String) request.getCurrency());
-            response.put("keyId", (String) razorpayKeyId);
-
-            return response;
-
-        } catch (RazorpayException e) {
-            throw new Exception("Failed to create Razorpay order: " + e.getMessage(), e);
+            order = startOrder(request);
         } catch (Exception e) {
-            throw new Exception("Error creating payment order: " + e.getMessage(), e);
+            order = CompletableFuture.failedFuture(e);
         }
+        order.whenComplete((response, error) -> {
+            ordersInFlight.remove(key, created);
+            if (error != null) created.completeExceptionally(error);
+            else created.complete(response);
+        });
+        return created;
+    }
+
+    // Stock is held on the calling thread; the gateway call runs on PaymentGatewayClient's pool
+    private CompletableFuture<JSONObject> startOrder(PaymentRequest request) {
+        // Validate buyer
+        Buyer buyer = buyerRepository.findById(request.getBuyerId())
+                .orElseThrow(() -> new RuntimeException("Buyer not found"));
+
+        // Convert amount to paise (Razorpay uses smallest currency unit)
+        int amountInPaise = (int) (request.getAmount() * 100);
+
+        // Hold the cart's stock before taking money; the receipt doubles as the hold key.
+        // Out of stock throws IllegalStateException, which the controller answers with 409
+        String receipt = "rcpt_" + buyer.getId() + "_" + System.currentTimeMillis();
+        stockReservationService.reserveCart(buyer.getId(), receipt);
+
+        return paymentGateway.createOrder(amountInPaise, request.getCurrency(), receipt)
+                .thenApply(razorpayOrderId -> {
+                    stockReservationService.attachRazorpayOrder(receipt, razorpayOrderId);
+
+                    // Save payment record
+                    Payment payment = Payment.builder()
+                            .razorpayOrderId(razorpayOrderId)
+                            .amount(request.getAmount())
+                            .currency(request.getCurrency())
+                            .status("CREATED")
+                            .buyer(buyer)
+                            .createdAt(LocalDateTime.now())
+                            .build();
+                    paymentRepository.save(payment);
+
+                    // Return order details for frontend
+                    JSONObject response = new JSONObject();
+                    response.put("orderId", razorpayOrderId);
+                    response.put("amount", (Integer) amountInPaise);
+                    response.put("currency", (String) request.getCurrency());
+                    response.put("keyId", paymentGateway.getKeyId());
+                    return response;
+                })
+                .whenComplete((response, error) -> {
+                    // Gateway down, timed out or the save failed - give the stock back
+                    if (error != null) stockReservationService.releaseHold(receipt);
+                });
     }
 
     @Override
     public Payment verifyPayment(PaymentVerificationRequest request) throws Exception {
-        try {
-            // Verify signature
-            JSONObject options = new JSONObject();
-            options.put("razorpay_order_id", request.getRazorpayOrderId());
-            options.put("razorpay_payment_id", request.getRazorpayPaymentId());
-            options.put("razorpay_signature", request.getRazorpaySignature());
+        String orderId = request.getRazorpayOrderId();
+        String paymentId = request.getRazorpayPaymentId();
+        PaymentState state = paymentRepository.findStateByRazorpayOrderId(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Payment not found"));
+
+        if ("SUCCESS".equals(state.getStatus())) {
+            // Repeat of a callback that was already applied
+            if (paymentId.equals(state.getRazorpayPaymentId())) return toPayment(state);
+            throw new IllegalStateException("Order " + orderId + " was already paid by another payment");
+        }
 
-            boolean isValidSignature = Utils.verifyPaymentSignature(options, razorpayKeySecret);
+        // Anyone can post here, so an unsigned callback must not touch the payment or its stock hold
+        if (!paymentGateway.verifySignature(orderId, paymentId, request.getRazorpaySignature())) {
+            throw new Exception("Invalid payment signature");
+        }
 
-            if (!isValidSignature) {
-                throw new Exception("Invalid payment signature");
+        LocalDateTime now = LocalDateTime.now();
+        String stockError = "Stock hold expired and the items are no longer available - refund required";
+        // The transition and the stock commit go together: a rollback leaves the payment retryable
+        Boolean won = transactionTemplate.execute(status -> {
+            if (paymentRepository.markSucceeded(state.getId(), paymentId, request.getRazorpaySignature(), now) == 0) {
+                return false;
+            }
+            // Turn the stock hold into a committed reservation for placeOrder
+            if (!stockReservationService.commit(orderId)) {
+                paymentRepository.setErrorMessage(state.getId(), stockError);
+                state.setErrorMessage(stockError);
+            } else {
+                state.setErrorMessage(null);
             }
+            return true;
+        });
+
+        if (!Boolean.TRUE.equals(won)) {
+            // A concurrent callback settled it first; answer with what it stored
+            PaymentState current = paymentRepository.findStateByRazorpayOrderId(orderId).orElseThrow();
+            if ("SUCCESS".equals(current.getStatus()) && paymentId.equals(current.getRazorpayPaymentId())) {
+                return toPayment(current);
+            }
+            throw new IllegalStateException("Order " + orderId + " was already paid by another payment");
+        }
 
-            // Update payment record
-            Payment payment = paymentRepository.findByRazorpayOrderId(request.getRazorpayOrderId())
-                    .orElseThrow(() -> new RuntimeException("Payment not found"));
+        state.setStatus("SUCCESS");
+        state.setRazorpayPaymentId(paymentId);
+        state.setCompletedAt(now);
+        notifyBuyer(state, "PAYMENT_SUCCESS", "Payment Successful",
+                "Your payment of ₹" + state.getAmount() + " was processed successfully.", "NORMAL");
+        return toPayment(state);
+    }
 
-            payment.setRazorpayPaymentId(request.getRazorpayPaymentId());
-            payment.setRazorpaySignature(request.getRazorpaySignature());
-            payment.setStatus("SUCCESS");
-            payment.setCompletedAt(LocalDateTime.now());
+    @Override
+    public boolean failPayment(String razorpayOrderId, String errorMessage) {
+        PaymentState state = paymentRepository.findStateByRazorpayOrderId(razorpayOrderId).orElse(null);
+        return state != null && fail(state, errorMessage != null ? errorMessage : "Payment failed");
+    }
 
-            return paymentRepository.save(payment);
+    // CREATED/PENDING -> FAILED; only the caller that makes the change releases stock and notifies
+    private boolean fail(PaymentState state, String errorMessage) {
+        if (paymentRepository.markFailed(state.getId(), errorMessage, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        stockReservationService.release(state.getRazorpayOrderId());
+        notifyBuyer(state, "PAYMENT_FAILED", "Payment Failed",
+                "Your payment of ₹" + state.getAmount() + " failed. Please try again or contact support.", "HIGH");
+        return true;
+    }
 
-        } catch (RazorpayException e) {
-            throw new Exception("Payment verification failed: " + e.getMessage(), e);
+    private void notifyBuyer(PaymentState state, String type, String title, String message, String priority) {
+        if (state.getBuyerId() == null) return;
+        try {
+            notificationService.createNotification(state.getBuyerId(), "BUYER", type, title, message,
+                    priority, state.getId(), "PAYMENT", null, true);
         } catch (Exception e) {
-            // Update payment status to failed
-            Payment payment = paymentRepository.findByRazorpayOrderId(request.getRazorpayOrderId())
-                    .orElse(null);
-            if (payment != null) {
-                payment.setStatus("FAILED");
-                payment.setErrorMessage(e.getMessage());
-                paymentRepository.save(payment);
-            }
-            throw new Exception("Error verifying payment: " + e.getMessage(), e);
+            System.err.println("Failed to send " + type + " notification for payment " + state.getId() + ": " + e.getMessage());
         }
     }
 
+    // Detached view for API responses; the buyer and order are not loaded on this path
+    private static Payment toPayment(PaymentState state) {
+        return Payment.builder()
+                .id(state.getId())
+                .razorpayOrderId(state.getRazorpayOrderId())
+                .razorpayPaymentId(state.getRazorpayPaymentId())
+                .amount(state.getAmount())
+                .currency(state.getCurrency())
+                .status(state.getStatus())
+                .errorMessage(state.getErrorMessage())
+                .createdAt(state.getCreatedAt())
+                .completedAt(state.getCompletedAt())
+                .build();
+    }
+
     @Override
     public Payment getPaymentByRazorpayOrderId(String razorpayOrderId) {
         return paymentRepository.findByRazorpayOrderId(razorpayOrderId)
@@ -144,21 +230,17 @@ public class PaymentServiceImpl implements PaymentService {
 
     @Override
     public Payment updatePaymentStatus(String razorpayPaymentId, String status, String errorMessage) {
-        Payment payment = paymentRepository.findByRazorpayPaymentId(razorpayPaymentId)
+        PaymentState state = paymentRepository.findStateByRazorpayPaymentId(razorpayPaymentId)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
-
-        payment.setStatus(status);
-        if (errorMessage != null) {
-            payment.setErrorMessage(errorMessage);
+        // Successes only come in through verifyPayment, with a signature
+        if (!"FAILED".equals(status)) {
+            throw new IllegalArgumentException("Unsupported payment status: " + status);
         }
-        if ("SUCCESS".equals(status)) {
-            payment.setCompletedAt(LocalDateTime.now());
+        if (!fail(state, errorMessage != null ? errorMessage : "Payment failed")) {
+            return toPayment(state); // already settled - SUCCESS stays final
         }
-
-        return paymentRepository.save(payment);
-    }
-
-    public Payment updatePayment(Payment payment) {
-        return paymentRepository.save(payment);
+        return paymentRepository.findStateByRazorpayOrderId(state.getRazorpayOrderId())
+                .map(PaymentServiceImpl::toPayment)
+                .orElse(toPayment(state));
     }
 }
@@ -0,0 +1,57 @@
+package com.tribal.service.impl;
+
+import com.razorpay.Order;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import com.tribal.service.PaymentGateway;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "app.payment.gateway.provider", havingValue = "razorpay", matchIfMissing = true)
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    private final RazorpayClient razorpayClient;
+    private final String keyId;
+    private final String keySecret;
+
+    public RazorpayPaymentGateway(@Value("${razorpay.key.id}") String keyId,
+                                  @Value("${razorpay.key.secret}") String keySecret) throws RazorpayException {
+        this.razorpayClient = new RazorpayClient(keyId, keySecret);
+        this.keyId = keyId;
+        this.keySecret = keySecret;
+    }
+
+    @Override
+    public String getKeyId() {
+        return keyId;
+    }
+
+    @Override
+    public String createOrder(int amountInPaise, String currency, String receipt) throws RazorpayException {
+        JSONObject orderRequest = new JSONObject();
+        orderRequest.put("amount", amountInPaise);
+        orderRequest.put("currency", currency);
+        orderRequest.put("receipt", receipt);
+        Order order = razorpayClient.orders.create(orderRequest);
+        return order.get("id");
+    }
+
+    // HMAC check done locally with the key secret - no call to Razorpay
+    @Override
+    public boolean verifySignature(String razorpayOrderId, String razorpayPaymentId, String razorpaySignature) {
+        JSONObject options = new JSONObject();
+        options.put("razorpay_order_id", razorpayOrderId);
+        options.put("razorpay_payment_id", razorpayPaymentId);
+        options.put("razorpay_signature", razorpaySignature);
+        try {
+            return Utils.verifyPaymentSignature(options, keySecret);
+        } catch (RazorpayException e) {
+            System.err.println("Razorpay signature check failed for order " + razorpayOrderId + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.tribal.service.impl;
 
+import com.tribal.dto.OrderDetail;
+import com.tribal.dto.OrderSummary;
 import com.tribal.model.Product;
 import com.tribal.model.Seller;
 import com.tribal.repository.ProductRepository;
 import com.tribal.repository.SellerRepository;
+import com.tribal.security.PasswordHasher;
 import com.tribal.service.SellerService;
 import com.tribal.service.NotificationService;
+import com.tribal.service.CatalogService;
+import com.tribal.service.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -30,6 +35,15 @@ public class SellerServiceImpl implements SellerService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
     @Override
     public Seller getSellerById(Long sellerId) {
         Optional<Seller> sellerOptional = sellerRepository.findById(sellerId);
@@ -50,8 +64,11 @@ public class SellerServiceImpl implements SellerService {
             // Basic field updates (beginner-friendly): copy only non-null fields
             if (updatedSeller.getName() != null) seller.setName(updatedSeller.getName());
             if (updatedSeller.getEmail() != null) seller.setEmail(updatedSeller.getEmail());
-            if (updatedSeller.getPassword() != null) seller.setPassword(updatedSeller.getPassword());
-            if (updatedSeller.getConfirmPassword() != null) seller.setConfirmPassword(updatedSeller.getConfirmPassword());
+            if (updatedSeller.getPassword() != null) {
+                String hash = passwordHasher.hash(updatedSeller.getPassword());
+                seller.setPassword(hash);
+                seller.setConfirmPassword(hash);
+            }
             if (updatedSeller.getPhone() != null) seller.setPhone(updatedSeller.getPhone());
             if (updatedSeller.getAddress() != null) seller.setAddress(updatedSeller.getAddress());
             if (updatedSeller.getPincode() != null) seller.setPincode(updatedSeller.getPincode());
@@ -68,6 +85,14 @@ public class SellerServiceImpl implements SellerService {
 
             // Do not directly set adminApprovalStatus here unless part of business rules
             Seller saved = sellerRepository.save(seller);
+            emailService.evictRecipient(sellerId);
+
+            // Tribe/region are searchable and filterable on every product of this seller
+            if (updatedSeller.getTribeName() != null || updatedSeller.getRegion() != null) {
+                for (Product p : productRepository.findBySellerId(sellerId)) {
+                    catalogService.productSaved(p);
+                }
+            }
             return saved;
         }
         return null;
@@ -90,7 +115,9 @@ public class SellerServiceImpl implements SellerService {
         if (optionalSeller.isEmpty()) return null;
         Seller seller = optionalSeller.get();
         product.setSeller(seller);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogService.productSaved(saved);
+        return saved;
     }
 
     @Override
@@ -111,13 +138,16 @@ public class SellerServiceImpl implements SellerService {
         if (product.getStock() != null) existing.setStock(product.getStock());
         if (product.getImageUrl() != null) existing.setImageUrl(product.getImageUrl());
         if (product.getFeatured() != null) existing.setFeatured(product.getFeatured());
-        return productRepository.save(existing);
+        Product saved = productRepository.save(existing);
+        catalogService.productSaved(saved);
+        return saved;
     }
 
     @Override
     public void deleteProduct(Long productId) {
         if (productRepository.existsById(productId)) {
             productRepository.deleteById(productId);
+            catalogService.productDeleted(productId);
         }
     }
 
@@ -184,8 +214,10 @@ public class SellerServiceImpl implements SellerService {
 
     // --- ORDER MANAGEMENT ---
     @Override
-    public List<Order> getOrdersBySeller(Long sellerId) {
-        return orderRepository.findBySellerId(sellerId);
+    public List<OrderDetail> getOrdersBySeller(Long sellerId) {
+        return orderRepository.findBySellerId(sellerId).stream()
+                .map(OrderDetail::from)
+                .collect(java.util.stream.Collectors.toList());
     }
 
     @Override
@@ -222,13 +254,13 @@ public class SellerServiceImpl implements SellerService {
     public Map<String, Object> getSellerDashboard(Long sellerId) {
         Map<String, Object> data = new HashMap<>();
         List<Product> products = productRepository.findBySellerId(sellerId);
-        List<Order> orders = orderRepository.findBySellerId(sellerId);
+        List<OrderSummary> orders = orderRepository.findSummariesBySellerId(sellerId);
 
         // Calculate monthly sales (last 30 days)
         java.time.LocalDateTime now = java.time.LocalDateTime.now();
         java.time.LocalDateTime monthStart = now.minusMonths(1);
         
-        List<Order> monthlyOrders = orders.stream()
+        List<OrderSummary> monthlyOrders = orders.stream()
                 .filter(order -> order.getOrderDate() != null)
                 .filter(order -> {
                     java.time.LocalDateTime orderDate = order.getOrderDate();
@@ -251,7 +283,7 @@ public class SellerServiceImpl implements SellerService {
     // --- NOTIFICATIONS ---
     @Override
     public List<String> getSellerNotifications(Long sellerId) {
-        List<Order> orders = orderRepository.findBySellerId(sellerId);
+        List<OrderSummary> orders = orderRepository.findSummariesBySellerId(sellerId);
         long pending = orders.stream().filter(o -> "Pending".equalsIgnoreCase(o.getStatus())).count();
         return java.util.List.of(
                 "You have " + pending + " pending orders.",
@@ -0,0 +1,174 @@
+package com.tribal.service.impl;
+
+import com.tribal.event.StockChangedEvent;
+import com.tribal.model.Cart;
+import com.tribal.model.StockReservation;
+import com.tribal.repository.CartRepository;
+import com.tribal.repository.ProductStockRepository;
+import com.tribal.repository.StockReservationRepository;
+import com.tribal.service.StockReservationService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductStockRepository productStockRepository;
+    private final CartRepository cartRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockReservationServiceImpl(StockReservationRepository reservationRepository,
+                                       ProductStockRepository productStockRepository,
+                                       CartRepository cartRepository,
+                                       ApplicationEventPublisher eventPublisher) {
+        this.reservationRepository = reservationRepository;
+        this.productStockRepository = productStockRepository;
+        this.cartRepository = cartRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public void reserveCart(Long buyerId, String holdKey) {
+        // A retried or abandoned checkout's holds go back first so the buyer never holds the cart twice.
+        // If that earlier payment still completes, commit() wins the stock back as for an expired hold.
+        releaseHeld(reservationRepository.findByBuyerIdAndStatus(buyerId, StockReservation.HELD), null);
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (Cart item : cartRepository.findByBuyerIdAndOrderIsNull(buyerId)) {
+            // Products without a stock figure are unlimited and need no hold
+            if (item.getProduct().getStock() != null) {
+                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        if (quantities.isEmpty()) return;
+
+        if (productStockRepository.decrementStock(quantities) != quantities.size()) {
+            throw new IllegalStateException("Insufficient stock for one or more items in the cart");
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(HOLD_MINUTES);
+        List<StockReservation> holds = new ArrayList<>();
+        for (Map.Entry<Long, Integer> e : quantities.entrySet()) {
+            holds.add(StockReservation.builder()
+                    .holdKey(holdKey)
+                    .buyerId(buyerId)
+                    .productId(e.getKey())
+                    .quantity(e.getValue())
+                    .status(StockReservation.HELD)
+                    .expiresAt(expiresAt)
+                    .build());
+        }
+        reservationRepository.saveAll(holds);
+        eventPublisher.publishEvent(new StockChangedEvent(new ArrayList<>(quantities.keySet())));
+    }
+
+    @Override
+    @Transactional
+    public void attachRazorpayOrder(String holdKey, String razorpayOrderId) {
+        reservationRepository.attachRazorpayOrder(holdKey, razorpayOrderId);
+    }
+
+    @Override
+    @Transactional
+    public boolean commit(String razorpayOrderId) {
+        List<StockReservation> rows = reservationRepository.findByRazorpayOrderId(razorpayOrderId);
+
+        // Holds that expired before the payment came through must win their stock back first
+        Map<Long, Integer> reacquire = new LinkedHashMap<>();
+        for (StockReservation r : rows) {
+            if (StockReservation.RELEASED.equals(r.getStatus())) {
+                reacquire.merge(r.getProductId(), r.getQuantity(), Integer::sum);
+            }
+        }
+        if (!reacquire.isEmpty()) {
+            if (productStockRepository.decrementStock(reacquire) != reacquire.size()) {
+                System.err.println("Stock for Razorpay order " + razorpayOrderId + " was released and is no longer available");
+                return false;
+            }
+            eventPublisher.publishEvent(new StockChangedEvent(new ArrayList<>(reacquire.keySet())));
+        }
+
+        // Paid stock waits for placeOrder, but not forever (see releaseExpired)
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(COMMIT_HOURS);
+        for (StockReservation r : rows) {
+            if (StockReservation.HELD.equals(r.getStatus()) || StockReservation.RELEASED.equals(r.getStatus())) {
+                r.setStatus(StockReservation.COMMITTED);
+                r.setExpiresAt(expiresAt);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void release(String razorpayOrderId) {
+        releaseHeld(reservationRepository.findByRazorpayOrderId(razorpayOrderId), null);
+    }
+
+    @Override
+    @Transactional
+    public void releaseHold(String holdKey) {
+        releaseHeld(reservationRepository.findByHoldKey(holdKey), null);
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, Integer> consumeCommitted(Long buyerId) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (StockReservation r : reservationRepository.findByBuyerIdAndStatus(buyerId, StockReservation.COMMITTED)) {
+            quantities.merge(r.getProductId(), r.getQuantity(), Integer::sum);
+            r.setStatus(StockReservation.CONSUMED);
+        }
+        return quantities;
+    }
+
+    @Override
+    @Scheduled(fixedDelay = 60000)
+    @Transactional
+    public void releaseExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> expired = reservationRepository.findExpiredHoldKeys(now);
+        for (String holdKey : expired) {
+            // Re-checked under the row lock: a payment may have committed the hold meanwhile
+            releaseHeld(reservationRepository.findByHoldKey(holdKey), now);
+        }
+        if (!expired.isEmpty()) {
+            System.out.println("Released " + expired.size() + " expired stock reservation(s)");
+        }
+
+        // Paid for but never turned into an order: return the stock and leave a trail for reconciliation
+        Map<Long, Integer> unclaimed = new LinkedHashMap<>();
+        for (StockReservation r : reservationRepository.findExpiredCommitted(now)) {
+            System.err.println("Releasing unclaimed committed reservation " + r.getId() + " (Razorpay order "
+                    + r.getRazorpayOrderId() + ", buyer " + r.getBuyerId() + ", product " + r.getProductId()
+                    + " x" + r.getQuantity() + ")");
+            unclaimed.merge(r.getProductId(), r.getQuantity(), Integer::sum);
+            r.setStatus(StockReservation.RELEASED);
+        }
+        if (!unclaimed.isEmpty()) {
+            productStockRepository.incrementStock(unclaimed);
+            eventPublisher.publishEvent(new StockChangedEvent(new ArrayList<>(unclaimed.keySet())));
+        }
+    }
+
+    // Returns the stock of rows still HELD (and expired, when a cutoff is given) and marks them RELEASED
+    private void releaseHeld(List<StockReservation> rows, LocalDateTime expiredBefore) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (StockReservation r : rows) {
+            if (!StockReservation.HELD.equals(r.getStatus())) continue;
+            if (expiredBefore != null && !r.getExpiresAt().isBefore(expiredBefore)) continue;
+            quantities.merge(r.getProductId(), r.getQuantity(), Integer::sum);
+            r.setStatus(StockReservation.RELEASED);
+        }
+        if (quantities.isEmpty()) return;
+        productStockRepository.incrementStock(quantities);
+        eventPublisher.publishEvent(new StockChangedEvent(new ArrayList<>(quantities.keySet())));
+    }
+}
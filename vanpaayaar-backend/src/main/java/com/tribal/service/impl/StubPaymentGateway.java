@@ -0,0 +1,80 @@
+package com.tribal.service.impl;
+
+import com.tribal.service.PaymentGateway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Offline stand-in for Razorpay (app.payment.gateway.provider=stub), for local runs and load tests.
+ *
+ * Orders get random ids after latency-ms, failing with probability failure-rate, and signatures
+ * are the same HMAC-SHA256 of "orderId|paymentId" that Razorpay sends, keyed with stub secret -
+ * so the whole create -> pay -> verify flow works without network access. sign() plays the part
+ * of the Razorpay checkout (exposed as POST /payment/stub/pay/{orderId}).
+ */
+@Component
+@ConditionalOnProperty(name = "app.payment.gateway.provider", havingValue = "stub")
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final String secret;
+    private final long latencyMillis;
+    private final double failureRate;
+
+    public StubPaymentGateway(@Value("${app.payment.stub.secret:stub_secret}") String secret,
+                              @Value("${app.payment.stub.latency-ms:50}") long latencyMillis,
+                              @Value("${app.payment.stub.failure-rate:0}") double failureRate) {
+        this.secret = secret;
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+        System.out.println("Payment gateway: using the local stub - no real payments will be taken");
+    }
+
+    @Override
+    public String getKeyId() {
+        return "rzp_test_stub";
+    }
+
+    @Override
+    public String createOrder(int amountInPaise, String currency, String receipt) {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while creating stub order");
+            }
+        }
+        if (failureRate > 0 && Math.random() < failureRate) {
+            throw new RuntimeException("Stub gateway failure (simulated)");
+        }
+        return "order_stub" + UUID.randomUUID().toString().replace("-", "").substring(0, 14);
+    }
+
+    @Override
+    public boolean verifySignature(String razorpayOrderId, String razorpayPaymentId, String razorpaySignature) {
+        if (razorpaySignature == null) return false;
+        return MessageDigest.isEqual(sign(razorpayOrderId, razorpayPaymentId).getBytes(StandardCharsets.UTF_8),
+                razorpaySignature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // What Razorpay's checkout would hand the frontend after a successful payment
+    public String sign(String razorpayOrderId, String razorpayPaymentId) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] digest = mac.doFinal((razorpayOrderId + "|" + razorpayPaymentId).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
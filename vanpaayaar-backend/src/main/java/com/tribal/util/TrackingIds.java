@@ -0,0 +1,150 @@
+package com.tribal.util;
+
+/**
+ * Public tracking IDs derived from delivery primary keys.
+ *
+ * A tracking ID is "VV" followed by 10 Crockford base32 characters holding 50 bits:
+ * the delivery id (up to 2^40) run through a keyed 4-round Feistel permutation, then a
+ * 10-bit keyed checksum. Because it is a pure function of the id, nothing has to be
+ * generated or stored at insert time, and decoding gives the id back for a primary-key
+ * lookup. The permutation keeps consecutive deliveries from having consecutive IDs, and
+ * the checksum rejects mistyped or guessed IDs before they reach the database.
+ *
+ * Encoding allocates only the result string; decoding allocates nothing.
+ */
+public final class TrackingIds {
+
+    private static final String PREFIX = "VV";
+    private static final int LENGTH = PREFIX.length() + 10;
+    private static final long MAX_ID = (1L << 40) - 1;
+    private static final int HALF_BITS = 20;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final int CHECK_BITS = 10;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        java.util.Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGITS[ALPHABET[i]] = (byte) i;
+            DIGITS[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+        // Crockford: letters that are easily misread map to the digit they look like
+        DIGITS['O'] = DIGITS['o'] = 0;
+        DIGITS['I'] = DIGITS['i'] = DIGITS['L'] = DIGITS['l'] = 1;
+    }
+
+    // Round keys 0-3 for the permutation, 4 for the checksum
+    private static volatile long[] keys = deriveKeys("vanvyaapaar");
+
+    private TrackingIds() {
+    }
+
+    // Set once at startup from configuration; changing it changes every tracking ID
+    public static void configure(String secret) {
+        if (secret != null && !secret.isBlank()) {
+            keys = deriveKeys(secret);
+        }
+    }
+
+    public static String encode(long id) {
+        if (id < 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("Delivery id out of tracking ID range: " + id);
+        }
+        long[] k = keys;
+        long permuted = permute(id, k);
+        long value = (permuted << CHECK_BITS) | checksum(permuted, k);
+        char[] out = new char[LENGTH];
+        out[0] = PREFIX.charAt(0);
+        out[1] = PREFIX.charAt(1);
+        for (int i = LENGTH - 1; i >= PREFIX.length(); i--) {
+            out[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(out);
+    }
+
+    /**
+     * The delivery id inside a tracking ID, or -1 if the string is not a well-formed
+     * tracking ID (wrong shape, unknown characters or a failed checksum).
+     * Case, hyphens and spaces are ignored, so "vv-0bgq-pk31-de" reads like "VV0BGQPK31DE".
+     */
+    public static long decode(String trackingId) {
+        if (trackingId == null || trackingId.length() < LENGTH) return -1;
+        int read = 0;
+        long value = 0;
+        for (int i = 0; i < trackingId.length(); i++) {
+            char c = trackingId.charAt(i);
+            if (c == '-' || c == ' ') continue;
+            if (read < PREFIX.length()) {
+                if (c != 'V' && c != 'v') return -1;
+            } else {
+                int digit = c < DIGITS.length ? DIGITS[c] : -1;
+                if (digit < 0 || read >= LENGTH) return -1;
+                value = (value << 5) | digit;
+            }
+            read++;
+        }
+        if (read != LENGTH) return -1;
+        long[] k = keys;
+        long permuted = value >>> CHECK_BITS;
+        if ((value & ((1L << CHECK_BITS) - 1)) != checksum(permuted, k)) return -1;
+        return unpermute(permuted, k);
+    }
+
+    // --- internals ---
+
+    private static long permute(long id, long[] k) {
+        long left = id >>> HALF_BITS;
+        long right = id & HALF_MASK;
+        for (int round = 0; round < 4; round++) {
+            long next = left ^ round(right, k[round]);
+            left = right;
+            right = next;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private static long unpermute(long value, long[] k) {
+        long left = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (int round = 3; round >= 0; round--) {
+            long previous = right ^ round(left, k[round]);
+            right = left;
+            left = previous;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private static long round(long half, long key) {
+        return mix(half ^ key) & HALF_MASK;
+    }
+
+    private static long checksum(long permuted, long[] k) {
+        return mix(permuted ^ k[4]) & ((1L << CHECK_BITS) - 1);
+    }
+
+    // 64-bit finalizer (MurmurHash3 fmix64)
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    private static long[] deriveKeys(String secret) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < secret.length(); i++) {
+            h = mix(h ^ secret.charAt(i));
+        }
+        long[] k = new long[5];
+        for (int i = 0; i < k.length; i++) {
+            h = mix(h + 0x9E3779B97F4A7C15L);
+            k[i] = h;
+        }
+        return k;
+    }
+}
@@ -0,0 +1,95 @@
+package com.tribal.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Small bounded cache: entries older than the TTL are treated as missing. Thread-safe
+ * and lock-free on reads, so it can sit on every request's path.
+ *
+ * The bound is approximate. Once a put takes the cache past maxEntries, one thread
+ * sweeps out expired entries and, if that is not enough, drops arbitrary ones until
+ * the cache is back to 90% of maxEntries; other threads carry on meanwhile.
+ */
+public class TtlCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+    public TtlCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+
+    // Per-entry TTL, capped at the cache's own
+    public void put(K key, V value, long ttl) {
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + Math.min(ttl, ttlMillis)));
+        if (entries.size() > maxEntries) evict();
+    }
+
+    // Loader runs unlocked and may run twice for one key under a race; null results are not cached
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value != null) return value;
+        value = loader.apply(key);
+        if (value != null) put(key, value);
+        return value;
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) return;
+        try {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(entry -> entry.expiresAt < now);
+            int target = maxEntries - maxEntries / 10;
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (entries.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.tribal.repository;
+
+import com.tribal.dto.OrderDetail;
+import com.tribal.dto.OrderSummary;
+import com.tribal.model.Buyer;
+import com.tribal.model.Cart;
+import com.tribal.model.Order;
+import com.tribal.model.Product;
+import com.tribal.model.Seller;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order listings must cost one SQL statement however many orders, items and products they
+ * cover. Runs on an in-memory database with Hibernate statistics on and counts the prepared
+ * statements behind the buyer, seller and admin listings, mapping included.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class OrderRepositoryStatementCountTest {
+
+    private static final int ORDERS_PER_SELLER = 3;
+    private static final int ITEMS_PER_ORDER = 4;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Buyer buyer;
+    private Seller seller;
+
+    @BeforeEach
+    void setUp() {
+        buyer = persist(Buyer.builder().name("Asha").email("asha@example.com")
+                .password("x").confirmPassword("x").build());
+        Buyer otherBuyer = persist(Buyer.builder().name("Ravi").email("ravi@example.com")
+                .password("x").confirmPassword("x").build());
+        seller = persist(Seller.builder().name("Gond Arts").email("gond@example.com")
+                .password("x").confirmPassword("x").build());
+        Seller otherSeller = persist(Seller.builder().name("Warli Works").email("warli@example.com")
+                .password("x").confirmPassword("x").build());
+
+        for (Seller s : List.of(seller, otherSeller)) {
+            for (Buyer b : List.of(buyer, otherBuyer)) {
+                for (int o = 0; o < ORDERS_PER_SELLER; o++) {
+                    Order order = persist(Order.builder().buyer(b).seller(s).status("Pending").totalAmount(100.0).build());
+                    for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                        // A distinct product per line, so lazy loading would show up as one select per item
+                        Product product = persist(Product.builder().name("Item " + i).category("Painting")
+                                .price(25.0).stock(10).seller(s).build());
+                        persist(Cart.builder().buyer(b).product(product).order(order).quantity(1).build());
+                    }
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void buyerOrderListingIsOneStatement() {
+        List<OrderDetail> orders = countStatements(1, () -> orderRepository.findByBuyerId(buyer.getId()).stream()
+                .map(OrderDetail::from)
+                .collect(Collectors.toList()));
+
+        assertEquals(2 * ORDERS_PER_SELLER, orders.size());
+        orders.forEach(o -> assertEquals(ITEMS_PER_ORDER, o.getItems().size()));
+    }
+
+    @Test
+    void sellerOrderListingIsOneStatement() {
+        List<OrderDetail> orders = countStatements(1, () -> orderRepository.findBySellerId(seller.getId()).stream()
+                .map(OrderDetail::from)
+                .collect(Collectors.toList()));
+
+        assertEquals(2 * ORDERS_PER_SELLER, orders.size());
+        orders.forEach(o -> assertEquals(ITEMS_PER_ORDER, o.getItems().size()));
+    }
+
+    @Test
+    void sellerOrderSummariesAreOneStatement() {
+        List<OrderSummary> orders = countStatements(1, () -> orderRepository.findSummariesBySellerId(seller.getId()));
+
+        assertEquals(2 * ORDERS_PER_SELLER, orders.size());
+    }
+
+    @Test
+    void adminOrderListingIsOneStatement() {
+        List<OrderSummary> orders = countStatements(1, () -> orderRepository.findAllSummaries());
+
+        assertEquals(4 * ORDERS_PER_SELLER, orders.size());
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    private <T> T countStatements(long expected, Supplier<T> listing) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = listing.get();
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements for the listing");
+        return result;
+    }
+}
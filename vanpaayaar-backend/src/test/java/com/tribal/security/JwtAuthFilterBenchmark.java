@@ -0,0 +1,142 @@
+package com.tribal.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Key;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Per-request cost of JwtAuthFilter, before and after TokenVerifier.
+ *
+ * Not a unit test (surefire skips it); run it from the test classpath:
+ *
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.tribal.security.JwtAuthFilterBenchmark
+ *
+ * A hand-rolled loop rather than JMH, which the build does not include: each case gets
+ * warm-up rounds, then timed rounds of one second, and reports the mean time per filtered
+ * request. Cases:
+ *   baseline - the filter as it was: isValid, extractSubject and extractAllClaims, each
+ *              building its own parser and checking the HMAC again
+ *   cold     - TokenVerifier on tokens it has never seen (one verification, then cached)
+ *   warm     - TokenVerifier on a working set of 1,000 users' tokens already cached
+ */
+public class JwtAuthFilterBenchmark {
+
+    private static final String SECRET = "mySuperSecretKey12345_ThisKeyMustBeLongEnough_987654321";
+    private static final int USERS = 1000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+    private static final long ROUND_NANOS = 1_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        JwtUtil jwtUtil = new JwtUtil(SECRET);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) tokens.add(token(jwtUtil, i));
+
+        run("baseline", new BaselineFilter(), () -> tokens);
+
+        // Fresh tokens for every batch: the cache never hits, so this is the one-verification path
+        int[] next = {USERS};
+        run("cold", new JwtAuthFilter(new TokenVerifier(jwtUtil, 10000, 300000)), () -> {
+            List<String> fresh = new ArrayList<>(USERS);
+            for (int i = 0; i < USERS; i++) fresh.add(token(jwtUtil, next[0]++));
+            return fresh;
+        });
+
+        run("warm", new JwtAuthFilter(new TokenVerifier(jwtUtil, 10000, 300000)), () -> tokens);
+    }
+
+    private static void run(String name, OncePerRequestFilter filter, Supplier<List<String>> tokens) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) round(filter, tokens);
+        double[] results = new double[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) results[i] = round(filter, tokens);
+        double mean = Arrays.stream(results).average().orElse(0);
+        double min = Arrays.stream(results).min().orElse(0);
+        double max = Arrays.stream(results).max().orElse(0);
+        System.out.printf("%-9s %10.0f ns/request  (min %.0f, max %.0f over %d rounds)%n", name, mean, min, max, ROUNDS);
+    }
+
+    // Mean nanoseconds per filtered request over one round
+    private static double round(OncePerRequestFilter filter, Supplier<List<String>> tokens) throws Exception {
+        long ops = 0;
+        long elapsed = 0;
+        while (elapsed < ROUND_NANOS) {
+            // Building tokens and requests is outside the timed section
+            List<MockHttpServletRequest> requests = new ArrayList<>(USERS);
+            for (String token : tokens.get()) {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", "/buyer/products");
+                request.setServletPath("/buyer/products");
+                request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+                requests.add(request);
+            }
+            long start = System.nanoTime();
+            for (MockHttpServletRequest request : requests) {
+                filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+                if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                    throw new IllegalStateException("request was not authenticated");
+                }
+                SecurityContextHolder.clearContext();
+            }
+            elapsed += System.nanoTime() - start;
+            ops += requests.size();
+        }
+        return (double) elapsed / ops;
+    }
+
+    private static String token(JwtUtil jwtUtil, int user) {
+        return jwtUtil.generateToken("buyer" + user + "@example.com", Map.of("role", "BUYER"), 3_600_000L);
+    }
+
+    // JwtAuthFilter and JwtUtil as they were before TokenVerifier: three parses per request
+    private static class BaselineFilter extends OncePerRequestFilter {
+
+        // Same key JwtUtil derives from jwt.secret
+        private final Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                throws ServletException, IOException {
+            String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                String token = authHeader.substring(7);
+                if (isValid(token)) {
+                    String subject = Jwts.parserBuilder().setSigningKey(key).build()
+                            .parseClaimsJws(token).getBody().getSubject();
+                    Map<String, Object> claims = Jwts.parserBuilder().setSigningKey(key).build()
+                            .parseClaimsJws(token).getBody();
+                    String role = (String) claims.getOrDefault("role", "");
+                    List<SimpleGrantedAuthority> authorities =
+                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
+                    SecurityContextHolder.getContext().setAuthentication(
+                            new UsernamePasswordAuthenticationToken(subject, null, authorities));
+                }
+            }
+            filterChain.doFilter(request, response);
+        }
+
+        private boolean isValid(String token) {
+            try {
+                Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    }
+}
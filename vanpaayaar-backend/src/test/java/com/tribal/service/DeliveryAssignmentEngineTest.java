@@ -0,0 +1,268 @@
+package com.tribal.service;
+
+import com.tribal.model.Delivery;
+import com.tribal.model.DeliveryAgent;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.ToDoubleBiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The batch solver against hand-built cases where one-at-a-time greedy goes wrong, and against
+ * exhaustive search on small random batches.
+ */
+class DeliveryAssignmentEngineTest {
+
+    private static final double EPSILON = 1e-6;
+
+    private final DeliveryAssignmentEngine engine = new DeliveryAssignmentEngine();
+
+    // "agentId:deliveryId" -> score
+    private final Map<String, Double> scores = new HashMap<>();
+    private final ToDoubleBiFunction<DeliveryAgent, Delivery> score =
+            (agent, delivery) -> scores.get(agent.getId() + ":" + delivery.getId());
+
+    @Test
+    void neverTakesAnAgentPastTheWorkloadCap() {
+        DeliveryAgent free = agent(1L, 0);
+        DeliveryAgent nearlyFull = agent(2L, 2);
+        DeliveryAgent full = agent(3L, DeliveryAssignmentEngine.MAX_WORKLOAD);
+        List<Delivery> deliveries = deliveries(6);
+        Map<Long, List<DeliveryAgent>> candidates = new HashMap<>();
+        for (Delivery delivery : deliveries) {
+            candidates.put(delivery.getId(), List.of(free, nearlyFull, full));
+            // The full agent is the best on paper for every delivery
+            score(free, delivery, 50);
+            score(nearlyFull, delivery, 60);
+            score(full, delivery, 90);
+        }
+
+        DeliveryAssignmentEngine.Result result = engine.solve(deliveries, candidates, score, 0);
+
+        Map<Long, Integer> load = load(result);
+        assertEquals(3, load.get(free.getId()));
+        assertEquals(1, load.get(nearlyFull.getId()));
+        assertNull(load.get(full.getId()));
+        assertEquals(4, result.getAssignments().size());
+    }
+
+    @Test
+    void assignsMoreDeliveriesThanGreedyWhenGreedyBlocksItself() {
+        DeliveryAgent a = agent(1L, 2);
+        DeliveryAgent b = agent(2L, 2);
+        Delivery first = delivery(1L);
+        Delivery second = delivery(2L);
+        // Greedy gives the first delivery to A, leaving nobody for the second
+        Map<Long, List<DeliveryAgent>> candidates = Map.of(
+                first.getId(), List.of(a, b),
+                second.getId(), List.of(a));
+        score(a, first, 80);
+        score(b, first, 70);
+        score(a, second, 60);
+
+        DeliveryAssignmentEngine.Result result = engine.solve(List.of(first, second), candidates, score, 10);
+
+        assertEquals(1, result.getGreedyAssigned());
+        assertEquals(2, result.getAssignments().size());
+        assertEquals(b, result.getAssignments().get(first.getId()));
+        assertEquals(a, result.getAssignments().get(second.getId()));
+        assertEquals(130, result.getTotalScore(), EPSILON);
+    }
+
+    @Test
+    void beatsGreedyScoreWhenEarlyDeliveriesTakeTheBestAgent() {
+        DeliveryAgent a = agent(1L, 2);
+        DeliveryAgent b = agent(2L, 2);
+        Delivery first = delivery(1L);
+        Delivery second = delivery(2L);
+        Map<Long, List<DeliveryAgent>> candidates = Map.of(
+                first.getId(), List.of(a, b),
+                second.getId(), List.of(a, b));
+        // A is slightly better for the first delivery and far better for the second
+        score(a, first, 10);
+        score(b, first, 9);
+        score(a, second, 10);
+        score(b, second, 1);
+
+        DeliveryAssignmentEngine.Result result = engine.solve(List.of(first, second), candidates, score, 10);
+
+        assertEquals(2, result.getGreedyAssigned());
+        assertEquals(11, result.getGreedyScore(), EPSILON);
+        assertEquals(2, result.getAssignments().size());
+        assertEquals(19, result.getTotalScore(), EPSILON);
+        assertEquals(b, result.getAssignments().get(first.getId()));
+    }
+
+    @Test
+    void spreadsWorkWhenTheSlotPenaltyOutweighsTheScoreGap() {
+        DeliveryAgent star = agent(1L, 0);
+        DeliveryAgent other = agent(2L, 0);
+        List<Delivery> deliveries = deliveries(2);
+        Map<Long, List<DeliveryAgent>> candidates = new HashMap<>();
+        for (Delivery delivery : deliveries) {
+            candidates.put(delivery.getId(), List.of(star, other));
+            score(star, delivery, 50);
+            score(other, delivery, 45);
+        }
+
+        // A second delivery costs the star 10 points, more than the 5-point gap
+        DeliveryAssignmentEngine.Result result = engine.solve(deliveries, candidates, score, 10);
+
+        assertEquals(1, load(result).get(star.getId()));
+        assertEquals(1, load(result).get(other.getId()));
+        assertEquals(95, result.getTotalScore(), EPSILON);
+    }
+
+    @Test
+    void atLeastAsGoodAsGreedyOnASyntheticBatch() {
+        Random random = new Random(42);
+        List<DeliveryAgent> agents = new ArrayList<>();
+        // 16 agents with 1-3 free slots each and 8 candidates per delivery: room for all 20
+        for (long id = 1; id <= 16; id++) agents.add(agent(id, random.nextInt(DeliveryAssignmentEngine.MAX_WORKLOAD)));
+        List<Delivery> deliveries = deliveries(20);
+        Map<Long, List<DeliveryAgent>> candidates = new HashMap<>();
+        for (Delivery delivery : deliveries) {
+            List<DeliveryAgent> nearby = new ArrayList<>(agents);
+            Collections.shuffle(nearby, random);
+            nearby = nearby.subList(0, 8);
+            candidates.put(delivery.getId(), nearby);
+            for (DeliveryAgent agent : nearby) score(agent, delivery, 20 + random.nextInt(80));
+        }
+
+        DeliveryAssignmentEngine.Result result = engine.solve(deliveries, candidates, score, 15);
+
+        assertCapacityRespected(result, candidates);
+        assertEquals(recomputedScore(result, deliveries, 15), result.getTotalScore(), EPSILON);
+        assertTrue(result.getAssignments().size() >= result.getGreedyAssigned());
+        assertEquals(result.getGreedyAssigned(), result.getAssignments().size(), "capacity is ample, both place every delivery");
+        assertTrue(result.getTotalScore() > result.getGreedyScore() + EPSILON,
+                "batch " + result.getTotalScore() + " vs greedy " + result.getGreedyScore());
+    }
+
+    @Test
+    void matchesExhaustiveSearchOnSmallBatches() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            scores.clear();
+            List<DeliveryAgent> agents = new ArrayList<>();
+            for (long id = 1; id <= 3; id++) agents.add(agent(id, random.nextInt(DeliveryAssignmentEngine.MAX_WORKLOAD + 1)));
+            List<Delivery> deliveries = deliveries(2 + random.nextInt(5));
+            Map<Long, List<DeliveryAgent>> candidates = new HashMap<>();
+            for (Delivery delivery : deliveries) {
+                List<DeliveryAgent> nearby = new ArrayList<>();
+                for (DeliveryAgent agent : agents) {
+                    if (random.nextInt(3) > 0) {
+                        nearby.add(agent);
+                        score(agent, delivery, random.nextInt(100));
+                    }
+                }
+                candidates.put(delivery.getId(), nearby);
+            }
+            double slotPenalty = random.nextInt(30);
+
+            DeliveryAssignmentEngine.Result result = engine.solve(deliveries, candidates, score, slotPenalty);
+            double[] best = exhaustive(deliveries, candidates, slotPenalty);
+
+            String label = "round " + round;
+            assertCapacityRespected(result, candidates);
+            assertEquals((int) best[0], result.getAssignments().size(), label + ": assignments");
+            assertEquals(best[1], result.getTotalScore(), EPSILON, label + ": score");
+            assertEquals(recomputedScore(result, deliveries, slotPenalty), result.getTotalScore(), EPSILON, label);
+            assertTrue(result.getAssignments().size() >= result.getGreedyAssigned(), label);
+            if (result.getAssignments().size() == result.getGreedyAssigned()) {
+                assertTrue(result.getTotalScore() >= result.getGreedyScore() - EPSILON, label + ": worse than greedy");
+            }
+        }
+    }
+
+    @Test
+    void emptyBatchAssignsNothing() {
+        DeliveryAssignmentEngine.Result result = engine.solve(List.of(), Map.of(), score, 10);
+
+        assertTrue(result.getAssignments().isEmpty());
+        assertEquals(0, result.getTotalScore(), EPSILON);
+    }
+
+    // {most assignments, best score among them} over every feasible assignment
+    private double[] exhaustive(List<Delivery> deliveries, Map<Long, List<DeliveryAgent>> candidates, double slotPenalty) {
+        double[] best = {0, 0};
+        search(0, deliveries, candidates, slotPenalty, new HashMap<>(), new LinkedHashMap<>(), best);
+        return best;
+    }
+
+    private void search(int i, List<Delivery> deliveries, Map<Long, List<DeliveryAgent>> candidates,
+                        double slotPenalty, Map<Long, Integer> used, Map<Delivery, DeliveryAgent> chosen, double[] best) {
+        if (i == deliveries.size()) {
+            double total = 0;
+            for (Map.Entry<Delivery, DeliveryAgent> entry : chosen.entrySet()) {
+                total += score.applyAsDouble(entry.getValue(), entry.getKey());
+            }
+            for (int n : used.values()) total -= slotPenalty * n * (n - 1) / 2.0;
+            if (chosen.size() > best[0] || (chosen.size() == best[0] && total > best[1])) {
+                best[0] = chosen.size();
+                best[1] = total;
+            }
+            return;
+        }
+        Delivery delivery = deliveries.get(i);
+        search(i + 1, deliveries, candidates, slotPenalty, used, chosen, best);
+        for (DeliveryAgent agent : candidates.get(delivery.getId())) {
+            int taken = used.getOrDefault(agent.getId(), 0);
+            if (taken >= DeliveryAssignmentEngine.MAX_WORKLOAD - agent.getCurrentWorkload()) continue;
+            used.put(agent.getId(), taken + 1);
+            chosen.put(delivery, agent);
+            search(i + 1, deliveries, candidates, slotPenalty, used, chosen, best);
+            chosen.remove(delivery);
+            used.put(agent.getId(), taken);
+        }
+    }
+
+    private double recomputedScore(DeliveryAssignmentEngine.Result result, List<Delivery> deliveries, double slotPenalty) {
+        double total = 0;
+        for (Delivery delivery : deliveries) {
+            DeliveryAgent agent = result.getAssignments().get(delivery.getId());
+            if (agent != null) total += score.applyAsDouble(agent, delivery);
+        }
+        for (int n : load(result).values()) total -= slotPenalty * n * (n - 1) / 2.0;
+        return total;
+    }
+
+    private static void assertCapacityRespected(DeliveryAssignmentEngine.Result result,
+                                                Map<Long, List<DeliveryAgent>> candidates) {
+        for (Map.Entry<Long, DeliveryAgent> entry : result.getAssignments().entrySet()) {
+            assertTrue(candidates.get(entry.getKey()).contains(entry.getValue()),
+                    "delivery " + entry.getKey() + " went to a non-candidate agent");
+        }
+        Map<Long, Integer> load = load(result);
+        for (DeliveryAgent agent : new HashSet<>(result.getAssignments().values())) {
+            assertTrue(agent.getCurrentWorkload() + load.get(agent.getId()) <= DeliveryAssignmentEngine.MAX_WORKLOAD,
+                    "agent " + agent.getId() + " over the workload cap");
+        }
+    }
+
+    private static Map<Long, Integer> load(DeliveryAssignmentEngine.Result result) {
+        Map<Long, Integer> load = new HashMap<>();
+        for (DeliveryAgent agent : result.getAssignments().values()) load.merge(agent.getId(), 1, Integer::sum);
+        return load;
+    }
+
+    private void score(DeliveryAgent agent, Delivery delivery, double value) {
+        scores.put(agent.getId() + ":" + delivery.getId(), value);
+    }
+
+    private static DeliveryAgent agent(Long id, int workload) {
+        return DeliveryAgent.builder().id(id).name("Agent " + id).currentWorkload(workload).build();
+    }
+
+    private static Delivery delivery(Long id) {
+        return Delivery.builder().id(id).build();
+    }
+
+    private static List<Delivery> deliveries(int count) {
+        List<Delivery> deliveries = new ArrayList<>();
+        for (long id = 1; id <= count; id++) deliveries.add(delivery(id));
+        return deliveries;
+    }
+}
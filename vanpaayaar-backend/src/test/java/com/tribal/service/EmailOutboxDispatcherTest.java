@@ -0,0 +1,349 @@
+package com.tribal.service;
+
+import com.tribal.dto.Identity;
+import com.tribal.model.EmailOutbox;
+import com.tribal.model.Notification;
+import com.tribal.repository.EmailOutboxRepository;
+import com.tribal.repository.NotificationRepository;
+import jakarta.mail.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The outbox dispatcher end to end: real outbox and notification tables on an in-memory
+ * database, the real EmailService, and a JavaMailSenderImpl whose SMTP transport is an
+ * in-process fake that records each connection and can bounce chosen recipients.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.mail.username=noreply@example.com",
+        "app.mail.outbox.workers=2",
+        "app.mail.outbox.batch-size=20"
+})
+@Import(EmailOutboxDispatcherTest.MailConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailOutboxDispatcherTest {
+
+    private static final int BATCH_SIZE = 20;
+    private static final long RETRY_BASE_SECONDS = 30;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private FakeSmtp smtp;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 6);
+        ReflectionTestUtils.setField(dispatcher, "retryBaseSeconds", RETRY_BASE_SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        awaitIdle();
+        outboxRepository.deleteAllInBatch();
+        notificationRepository.deleteAllInBatch();
+        smtp.reset();
+    }
+
+    @Test
+    void sendsEachBatchOverOneConnection() {
+        int queued = 2 * BATCH_SIZE + 10;
+        for (long user = 1; user <= queued; user++) enqueue(user);
+
+        dispatcher.wakeUp();
+        await(() -> outboxRepository.countByStatus(EmailOutbox.SENT) == queued);
+
+        assertEquals(3, smtp.connections.size(), "one SMTP connection per claimed batch");
+        for (List<String> connection : smtp.connections) {
+            assertTrue(connection.size() <= BATCH_SIZE, "batch larger than batch-size: " + connection.size());
+        }
+        List<String> delivered = smtp.delivered();
+        assertEquals(queued, delivered.size());
+        assertEquals(queued, new HashSet<>(delivered).size(), "an email went out twice");
+        assertTrue(notificationRepository.findAll().stream().allMatch(Notification::getIsEmailSent));
+    }
+
+    @Test
+    void retriesOnlyTheBouncedMessageWithBackoff() {
+        Long good = enqueue(1L);
+        Long bounced = enqueue(2L);
+        Long alsoGood = enqueue(3L);
+        smtp.bounce(email(2L));
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.wakeUp();
+        await(() -> outboxRepository.countByStatus(EmailOutbox.SENT) == 2 && row(bounced).getAttempts() == 1);
+
+        // One connection: the bounce didn't abort the rest of the batch
+        assertEquals(1, smtp.connections.size());
+        assertEquals(Set.of(email(1L), email(3L)), new HashSet<>(smtp.connections.get(0)));
+        assertEquals(EmailOutbox.SENT, row(good).getStatus());
+        assertEquals(EmailOutbox.SENT, row(alsoGood).getStatus());
+
+        EmailOutbox retry = row(bounced);
+        assertEquals(EmailOutbox.PENDING, retry.getStatus());
+        assertNull(retry.getClaimToken());
+        assertNotNull(retry.getLastError());
+        assertBackoff(before, RETRY_BASE_SECONDS, retry.getNextAttemptAt());
+        assertFalse(notificationRepository.findById(retry.getNotificationId()).orElseThrow().getIsEmailSent());
+
+        // Not due yet: waking the dispatcher again sends nothing
+        dispatcher.wakeUp();
+        awaitIdle();
+        assertEquals(1, smtp.connections.size());
+
+        // The mailbox recovers and the backoff elapses
+        smtp.recover(email(2L));
+        makeDue(bounced);
+        dispatcher.wakeUp();
+        await(() -> EmailOutbox.SENT.equals(row(bounced).getStatus()));
+
+        assertEquals(List.of(email(2L)), smtp.connections.get(1));
+        assertEquals(1, row(bounced).getAttempts());
+    }
+
+    @Test
+    void marksMessageFailedAfterMaxAttempts() {
+        int maxAttempts = 3;
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", maxAttempts);
+        Long id = enqueue(7L);
+        smtp.bounce(email(7L));
+
+        for (int attempt = 1; attempt < maxAttempts; attempt++) {
+            int expected = attempt;
+            LocalDateTime before = LocalDateTime.now();
+            dispatcher.wakeUp();
+            await(() -> row(id).getAttempts() == expected);
+
+            EmailOutbox retry = row(id);
+            assertEquals(EmailOutbox.PENDING, retry.getStatus());
+            // 30s, then 60s
+            assertBackoff(before, RETRY_BASE_SECONDS << (attempt - 1), retry.getNextAttemptAt());
+            makeDue(id);
+        }
+
+        dispatcher.wakeUp();
+        await(() -> EmailOutbox.FAILED.equals(row(id).getStatus()));
+
+        EmailOutbox failed = row(id);
+        assertEquals(maxAttempts, failed.getAttempts());
+        assertNull(failed.getClaimToken());
+        assertEquals(maxAttempts, smtp.connections.size());
+
+        // A failed message stays out of the queue
+        makeDue(id);
+        dispatcher.wakeUp();
+        awaitIdle();
+        assertEquals(maxAttempts, smtp.connections.size());
+        assertEquals(EmailOutbox.FAILED, row(id).getStatus());
+    }
+
+    @Test
+    void requeuesClaimsLeftByADeadWorker() {
+        Long stale = enqueue(1L);
+        Long inFlight = enqueue(2L);
+        LocalDateTime now = LocalDateTime.now();
+        // One claim from a worker that died 15 minutes ago, one still within the send window
+        claim(stale, "dead-worker", now.minusMinutes(15));
+        claim(inFlight, "live-worker", now.minusMinutes(1));
+
+        dispatcher.reclaimStaleClaims();
+
+        EmailOutbox requeued = row(stale);
+        assertEquals(EmailOutbox.PENDING, requeued.getStatus());
+        assertNull(requeued.getClaimToken());
+        assertEquals(EmailOutbox.SENDING, row(inFlight).getStatus());
+        assertEquals("live-worker", row(inFlight).getClaimToken());
+
+        dispatcher.wakeUp();
+        await(() -> EmailOutbox.SENT.equals(row(stale).getStatus()));
+
+        assertEquals(List.of(email(1L)), smtp.delivered(), "the live claim must not be sent twice");
+        assertEquals(EmailOutbox.SENDING, row(inFlight).getStatus());
+    }
+
+    private Long enqueue(Long userId) {
+        Notification notification = notificationRepository.save(Notification.builder()
+                .userId(userId).userRole("BUYER").type("ORDER_PLACED")
+                .title("Order placed").message("Thanks for your order").build());
+        LocalDateTime now = LocalDateTime.now();
+        return outboxRepository.save(EmailOutbox.builder()
+                .notificationId(notification.getId())
+                .status(EmailOutbox.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build()).getId();
+    }
+
+    private EmailOutbox row(Long id) {
+        return outboxRepository.findById(id).orElseThrow();
+    }
+
+    private void makeDue(Long id) {
+        jdbcTemplate.update("UPDATE email_outbox SET next_attempt_at = ? WHERE id = ?",
+                LocalDateTime.now().minusSeconds(1), id);
+    }
+
+    private void claim(Long id, String token, LocalDateTime claimedAt) {
+        jdbcTemplate.update("UPDATE email_outbox SET status = ?, claim_token = ?, claimed_at = ? WHERE id = ?",
+                EmailOutbox.SENDING, token, claimedAt, id);
+    }
+
+    private static void assertBackoff(LocalDateTime sentAfter, long seconds, LocalDateTime nextAttemptAt) {
+        LocalDateTime earliest = sentAfter.plusSeconds(seconds);
+        LocalDateTime latest = LocalDateTime.now().plusSeconds(seconds);
+        assertFalse(nextAttemptAt.isBefore(earliest), "retry scheduled too early: " + nextAttemptAt);
+        assertFalse(nextAttemptAt.isAfter(latest), "retry scheduled too late: " + nextAttemptAt);
+    }
+
+    // Waits for any queued drain to finish on the dispatcher thread, then for its workers
+    private void awaitIdle() {
+        ExecutorService dispatcherThread = (ExecutorService) ReflectionTestUtils.getField(dispatcher, "dispatcher");
+        try {
+            dispatcherThread.submit(() -> { }).get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            fail("dispatcher did not go idle: " + e);
+        }
+        await(() -> ((Number) dispatcher.getStats().get("busyWorkers")).intValue() == 0);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("timed out waiting for the outbox");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("interrupted");
+            }
+        }
+    }
+
+    private static String email(Long userId) {
+        return "user" + userId + "@example.com";
+    }
+
+    @TestConfiguration
+    static class MailConfig {
+
+        @Bean
+        FakeSmtp fakeSmtp() {
+            return new FakeSmtp();
+        }
+
+        @Bean
+        IdentityService identityService() {
+            IdentityService identityService = mock(IdentityService.class);
+            when(identityService.findById(anyLong())).thenAnswer(inv -> {
+                Long id = inv.getArgument(0);
+                return new Identity(id, "BUYER", "Buyer " + id, email(id), "x");
+            });
+            return identityService;
+        }
+
+        @Bean
+        EmailService emailService(FakeSmtp smtp, IdentityService identityService) {
+            return new EmailService(smtp, identityService);
+        }
+
+        @Bean
+        EmailOutboxDispatcher emailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                                    NotificationRepository notificationRepository,
+                                                    EmailService emailService) {
+            return new EmailOutboxDispatcher(outboxRepository, notificationRepository, emailService);
+        }
+    }
+
+    /**
+     * JavaMailSenderImpl with its SMTP connection replaced by an in-memory transport, so the
+     * real batch send path runs: one connectTransport() per send(MimeMessage...) call and a
+     * MailSendException carrying just the messages the server refused.
+     */
+    static class FakeSmtp extends JavaMailSenderImpl {
+
+        // Recipients delivered on each connection, in connection order
+        final List<List<String>> connections = new CopyOnWriteArrayList<>();
+        private final Set<String> bouncing = Collections.synchronizedSet(new HashSet<>());
+
+        void bounce(String address) {
+            bouncing.add(address);
+        }
+
+        void recover(String address) {
+            bouncing.remove(address);
+        }
+
+        void reset() {
+            connections.clear();
+            bouncing.clear();
+        }
+
+        List<String> delivered() {
+            List<String> all = new ArrayList<>();
+            connections.forEach(all::addAll);
+            return all;
+        }
+
+        @Override
+        protected Transport connectTransport() {
+            List<String> connection = new CopyOnWriteArrayList<>();
+            connections.add(connection);
+            return new Transport(getSession(), null) {
+                @Override
+                public boolean isConnected() {
+                    return true;
+                }
+
+                @Override
+                public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+                    String to = addresses[0].toString();
+                    if (bouncing.contains(to)) {
+                        throw new SendFailedException("550 mailbox unavailable: " + to);
+                    }
+                    connection.add(to);
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+}
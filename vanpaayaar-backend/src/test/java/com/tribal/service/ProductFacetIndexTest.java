@@ -0,0 +1,121 @@
+package com.tribal.service;
+
+import com.tribal.dto.CatalogFilter;
+import com.tribal.dto.ProductSummary;
+import com.tribal.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The facet index in memory. Writes must never fall back to re-reading the catalog, including
+ * a product id that commits after a newer one.
+ */
+class ProductFacetIndexTest {
+
+    private ProductRepository productRepository;
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        index = new ProductFacetIndex(productRepository);
+    }
+
+    @Test
+    void lateIdIsSlottedInIdOrderWithoutARebuild() {
+        for (long id : new long[]{1, 2, 5, 6, 8}) index.index(product(id, id % 2 == 0 ? "Pottery" : "Textiles", 400.0));
+        index.index(product(4L, "Pottery", 1200.0));
+        index.index(product(3L, "Textiles", 1200.0));
+        index.index(product(7L, "Pottery", 6000.0));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), walk(new CatalogFilter(), 3));
+        assertEquals(List.of(2L, 4L, 6L, 7L, 8L), walk(category("pottery"), 2));
+        assertEquals(List.of(1L, 3L, 5L), walk(category("textiles"), 2));
+
+        // Facet values moved with their ordinals
+        CatalogFilter midPrice = new CatalogFilter();
+        midPrice.setPrice(List.of("1000-2500"));
+        assertEquals(List.of(3L, 4L), walk(midPrice, 10));
+        Map<String, Integer> categories = index.query(midPrice, 0, 10).getFacetCounts().get(ProductFacetIndex.CATEGORY);
+        assertEquals(Map.of("pottery", 1, "textiles", 1), categories);
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void updatesAndRemovalsAfterASlotWasOpened() {
+        for (long id : new long[]{10, 30, 40}) index.index(product(id, "Pottery", 400.0));
+        index.index(product(20L, "Pottery", 400.0));
+
+        // An update clears the old values at the shifted ordinal
+        index.index(product(30L, "Jewelry", 400.0));
+        assertEquals(List.of(10L, 20L, 40L), walk(category("pottery"), 10));
+        assertEquals(List.of(30L), walk(category("jewelry"), 10));
+
+        index.remove(20L);
+        assertEquals(List.of(10L, 30L, 40L), walk(new CatalogFilter(), 10));
+
+        // A removed product coming back takes its old slot
+        index.index(product(20L, "Jewelry", 400.0));
+        assertEquals(List.of(20L, 30L), walk(category("jewelry"), 10));
+        assertEquals(List.of(10L, 20L, 30L, 40L), walk(new CatalogFilter(), 10));
+    }
+
+    @Test
+    void matchAgreesWithQueryAndSkipsCounts() {
+        Random random = new Random(3);
+        List<String> categories = List.of("Pottery", "Textiles", "Jewelry", "Painting");
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) ids.add(id);
+        Collections.shuffle(ids, random);
+        for (long id : ids) {
+            index.index(product(id, categories.get(random.nextInt(categories.size())), 100.0 + random.nextInt(6000)));
+        }
+
+        for (String category : categories) {
+            CatalogFilter filter = category(category);
+            filter.setInStock(true);
+            ProductFacetIndex.Result matched = index.match(filter, 40, 25);
+            ProductFacetIndex.Result queried = index.query(filter, 40, 25);
+            assertEquals(queried.getIds(), matched.getIds());
+            assertEquals(queried.getTotal(), matched.getTotal());
+            assertTrue(matched.getFacetCounts().isEmpty());
+
+            // Every page in ascending id order, each product in the category once
+            List<Long> all = walk(category(category), 7);
+            List<Long> sorted = new ArrayList<>(all);
+            Collections.sort(sorted);
+            assertEquals(sorted, all);
+            assertEquals(index.query(new CatalogFilter(), 0, 1).getFacetCounts()
+                    .get(ProductFacetIndex.CATEGORY).get(category.toLowerCase()), all.size());
+        }
+    }
+
+    // All matching ids, following the cursor page by page
+    private List<Long> walk(CatalogFilter filter, int pageSize) {
+        List<Long> ids = new ArrayList<>();
+        long after = 0;
+        while (true) {
+            List<Long> page = index.match(filter, after, pageSize).getIds();
+            ids.addAll(page);
+            if (page.size() < pageSize) return ids;
+            after = page.get(page.size() - 1);
+        }
+    }
+
+    private static CatalogFilter category(String category) {
+        CatalogFilter filter = new CatalogFilter();
+        filter.setCategory(List.of(category));
+        return filter;
+    }
+
+    private static ProductSummary product(Long id, String category, Double price) {
+        return new ProductSummary(id, "Product " + id, null, category, price, 5, null, false,
+                null, null, null, null);
+    }
+}
@@ -0,0 +1,209 @@
+package com.tribal.service.impl;
+
+import com.tribal.dto.PaymentState;
+import com.tribal.dto.PaymentVerificationRequest;
+import com.tribal.model.Payment;
+import com.tribal.repository.BuyerRepository;
+import com.tribal.repository.PaymentRepository;
+import com.tribal.service.NotificationService;
+import com.tribal.service.PaymentGateway;
+import com.tribal.service.PaymentGatewayClient;
+import com.tribal.service.StockReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Duplicate and racing checkout callbacks against a stubbed gateway. The payments table is
+ * simulated in memory with the same compare-and-set semantics as the conditional UPDATEs.
+ */
+class PaymentServiceImplConcurrencyTest {
+
+    private static final String ORDER_ID = "order_test";
+    private static final int CALLERS = 64;
+
+    private PaymentRepository paymentRepository;
+    private StockReservationService stockReservationService;
+    private NotificationService notificationService;
+    private PaymentServiceImpl paymentService;
+
+    // The single payments row
+    private String status;
+    private String razorpayPaymentId;
+    private final AtomicInteger successfulTransitions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        status = "CREATED";
+        razorpayPaymentId = null;
+        successfulTransitions.set(0);
+
+        paymentRepository = mock(PaymentRepository.class);
+        when(paymentRepository.findStateByRazorpayOrderId(ORDER_ID)).thenAnswer(inv -> Optional.of(snapshot()));
+        when(paymentRepository.findStateByRazorpayPaymentId(anyString())).thenAnswer(inv ->
+                inv.getArgument(0).equals(razorpayPaymentId) ? Optional.of(snapshot()) : Optional.empty());
+        when(paymentRepository.markSucceeded(eq(1L), anyString(), anyString(), any())).thenAnswer(inv -> {
+            synchronized (this) {
+                if ("SUCCESS".equals(status)) return 0;
+                status = "SUCCESS";
+                razorpayPaymentId = inv.getArgument(1);
+                successfulTransitions.incrementAndGet();
+                return 1;
+            }
+        });
+        when(paymentRepository.markFailed(eq(1L), anyString(), any())).thenAnswer(inv -> {
+            synchronized (this) {
+                if (!"CREATED".equals(status) && !"PENDING".equals(status)) return 0;
+                status = "FAILED";
+                return 1;
+            }
+        });
+
+        stockReservationService = mock(StockReservationService.class);
+        when(stockReservationService.commit(ORDER_ID)).thenReturn(true);
+        notificationService = mock(NotificationService.class);
+
+        PaymentGatewayClient gatewayClient = new PaymentGatewayClient(new StubGateway(), 2, 16, 5000, 5, 30000);
+        paymentService = new PaymentServiceImpl(paymentRepository, mock(BuyerRepository.class), gatewayClient,
+                stockReservationService, notificationService, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void duplicateSuccessCallbacksApplyOnce() throws Exception {
+        List<Object> results = runConcurrently(i -> callVerify("pay_1"));
+
+        for (Object result : results) {
+            Payment payment = assertInstanceOf(Payment.class, result);
+            assertEquals("SUCCESS", payment.getStatus());
+            assertEquals("pay_1", payment.getRazorpayPaymentId());
+        }
+        assertEquals(1, successfulTransitions.get());
+        verify(stockReservationService, times(1)).commit(ORDER_ID);
+        verify(notificationService, times(1)).createNotification(eq(7L), eq("BUYER"), eq("PAYMENT_SUCCESS"),
+                anyString(), anyString(), anyString(), eq(1L), eq("PAYMENT"), isNull(), eq(true));
+    }
+
+    @Test
+    void competingPaymentsForOneOrderHaveOneWinner() throws Exception {
+        List<Object> results = runConcurrently(i -> callVerify(i % 2 == 0 ? "pay_a" : "pay_b"));
+
+        String winner = razorpayPaymentId;
+        for (Object result : results) {
+            if (result instanceof Payment payment) {
+                assertEquals(winner, payment.getRazorpayPaymentId());
+            } else {
+                assertInstanceOf(IllegalStateException.class, result);
+            }
+        }
+        assertEquals(1, successfulTransitions.get());
+        verify(stockReservationService, times(1)).commit(ORDER_ID);
+    }
+
+    @Test
+    void lateFailureCallbacksNeverUndoSuccess() throws Exception {
+        runConcurrently(i -> i % 2 == 0 ? callVerify("pay_1") : paymentService.failPayment(ORDER_ID, "cancelled"));
+
+        // Failures may land first, but the successful retry still wins and nothing downgrades it
+        assertEquals("SUCCESS", status);
+        assertEquals(1, successfulTransitions.get());
+        verify(stockReservationService, times(1)).commit(ORDER_ID);
+        verify(stockReservationService, atMost(1)).release(ORDER_ID);
+    }
+
+    @Test
+    void failureByPaymentIdNeverUndoesSuccess() throws Exception {
+        callVerify("pay_1");
+        runConcurrently(i -> paymentService.updatePaymentStatus("pay_1", "FAILED", "late failure"));
+
+        assertEquals("SUCCESS", status);
+        verify(stockReservationService, never()).release(ORDER_ID);
+    }
+
+    @Test
+    void invalidSignatureIsRejectedWithoutTransition() {
+        PaymentVerificationRequest forged = new PaymentVerificationRequest(ORDER_ID, "pay_1", "forged");
+        assertThrows(Exception.class, () -> paymentService.verifyPayment(forged));
+        verify(paymentRepository, never()).markSucceeded(anyLong(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void forgedCallbacksCannotCancelAnotherBuyersCheckout() throws Exception {
+        List<Object> results = runConcurrently(i -> paymentService.verifyPayment(
+                new PaymentVerificationRequest(ORDER_ID, "pay_" + i, "garbage")));
+
+        results.forEach(result -> assertInstanceOf(Exception.class, result));
+        assertEquals("CREATED", status);
+        verify(paymentRepository, never()).markFailed(anyLong(), anyString(), any());
+        verify(stockReservationService, never()).release(anyString());
+        verifyNoInteractions(notificationService);
+
+        // The real payment still goes through afterwards
+        assertEquals("SUCCESS", callVerify("pay_1").getStatus());
+    }
+
+    private Payment callVerify(String paymentId) throws Exception {
+        return paymentService.verifyPayment(new PaymentVerificationRequest(ORDER_ID, paymentId, "sig_" + paymentId));
+    }
+
+    private synchronized PaymentState snapshot() {
+        return new PaymentState(1L, ORDER_ID, razorpayPaymentId, status, 499.0, "INR", null, null, null, 7L);
+    }
+
+    private interface Callback {
+        Object call(int i) throws Exception;
+    }
+
+    // Releases all callers at once; each result is the return value or the exception thrown
+    private List<Object> runConcurrently(Callback callback) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                int caller = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        return callback.call(caller);
+                    } catch (Exception e) {
+                        return e;
+                    }
+                }));
+            }
+            start.countDown();
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Accepts "sig_" + paymentId as the signature of any payment
+    private static class StubGateway implements PaymentGateway {
+        @Override
+        public String getKeyId() {
+            return "rzp_test_stub";
+        }
+
+        @Override
+        public String createOrder(int amountInPaise, String currency, String receipt) {
+            return ORDER_ID;
+        }
+
+        @Override
+        public boolean verifySignature(String razorpayOrderId, String razorpayPaymentId, String razorpaySignature) {
+            return ("sig_" + razorpayPaymentId).equals(razorpaySignature);
+        }
+    }
+}
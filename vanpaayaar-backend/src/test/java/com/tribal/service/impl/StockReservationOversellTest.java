@@ -0,0 +1,152 @@
+package com.tribal.service.impl;
+
+import com.tribal.model.Buyer;
+import com.tribal.model.Cart;
+import com.tribal.model.Product;
+import com.tribal.model.StockReservation;
+import com.tribal.repository.BuyerRepository;
+import com.tribal.repository.CartRepository;
+import com.tribal.repository.ProductRepository;
+import com.tribal.repository.ProductStockRepository;
+import com.tribal.repository.StockReservationRepository;
+import com.tribal.service.StockReservationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hundreds of buyers checking out the same scarce products at once, through the real
+ * StockReservationServiceImpl and the conditional stock UPDATE in ProductStockRepository,
+ * on an in-memory database. Every checkout commits (or rolls back) on its own connection.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:oversell;MODE=MySQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StockReservationServiceImpl.class, ProductStockRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationOversellTest {
+
+    private static final int BUYERS = 400;
+    private static final int THREADS = 32;
+    private static final int LAMP_STOCK = 150;
+    private static final int SHAWL_STOCK = 90;
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private BuyerRepository buyerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product lamp;
+    private Product shawl;
+    private final List<Long> buyerIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lamp = productRepository.save(Product.builder().name("Dhokra lamp").category("Metal Crafts")
+                .price(1200.0).stock(LAMP_STOCK).build());
+        shawl = productRepository.save(Product.builder().name("Kunbi shawl").category("Textiles")
+                .price(900.0).stock(SHAWL_STOCK).build());
+
+        List<Cart> carts = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            Buyer buyer = buyerRepository.save(Buyer.builder().name("Buyer " + i).email("buyer" + i + "@example.com")
+                    .password("x").confirmPassword("x").build());
+            buyerIds.add(buyer.getId());
+            // 1-3 lamps each, and a shawl for every other buyer, so checkouts lock rows in both orders of arrival
+            carts.add(Cart.builder().buyer(buyer).product(lamp).quantity(1 + i % 3).build());
+            if (i % 2 == 0) carts.add(Cart.builder().buyer(buyer).product(shawl).quantity(1).build());
+        }
+        cartRepository.saveAll(carts);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAllInBatch();
+        cartRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        buyerRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long buyerId : buyerIds) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        reservationService.reserveCart(buyerId, "hold_" + buyerId);
+                        held.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) future.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(BUYERS, held.get() + rejected.get());
+        assertTrue(held.get() > 0, "no checkout succeeded");
+        assertTrue(rejected.get() > 0, "demand should exceed stock");
+
+        for (Product product : List.of(lamp, shawl)) {
+            int starting = product == lamp ? LAMP_STOCK : SHAWL_STOCK;
+            int remaining = stock(product.getId());
+            int sold = heldQuantity(product.getId());
+            assertTrue(remaining >= 0, product.getName() + " stock went negative: " + remaining);
+            assertEquals(starting, sold + remaining, product.getName() + ": held + remaining must equal starting stock");
+        }
+    }
+
+    private int stock(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+    }
+
+    private int heldQuantity(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(quantity), 0) FROM stock_reservations " +
+                "WHERE product_id = ? AND status = ?", Integer.class, productId, StockReservation.HELD);
+    }
+}
@@ -0,0 +1,139 @@
+package com.tribal.service.impl;
+
+import com.tribal.model.Cart;
+import com.tribal.model.Product;
+import com.tribal.model.StockReservation;
+import com.tribal.repository.CartRepository;
+import com.tribal.repository.ProductStockRepository;
+import com.tribal.repository.StockReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Hold lifecycle: retries, late payments on a replaced hold and the committed-expiry sweep.
+ * The products and stock_reservations tables are simulated in memory; the oversell race
+ * itself runs against the real SQL in StockReservationOversellTest.
+ */
+class StockReservationServiceImplTest {
+
+    private static final long PRODUCT_ID = 42L;
+    private static final int STOCK = 10;
+    private static final int PER_CART = 2;
+
+    private final Map<Long, Integer> stock = new HashMap<>();
+    private final List<StockReservation> reservations = new CopyOnWriteArrayList<>();
+
+    private StockReservationServiceImpl reservationService;
+
+    @BeforeEach
+    void setUp() {
+        stock.clear();
+        stock.put(PRODUCT_ID, STOCK);
+        reservations.clear();
+
+        ProductStockRepository productStockRepository = mock(ProductStockRepository.class);
+        when(productStockRepository.decrementStock(anyMap())).thenAnswer(inv -> {
+            Map<Long, Integer> quantities = inv.getArgument(0);
+            synchronized (stock) {
+                int updated = 0;
+                for (Map.Entry<Long, Integer> q : quantities.entrySet()) {
+                    if (stock.get(q.getKey()) >= q.getValue()) updated++;
+                }
+                // A shortfall on any row rolls the whole checkout back
+                if (updated == quantities.size()) {
+                    quantities.forEach((id, qty) -> stock.merge(id, -qty, Integer::sum));
+                }
+                return updated;
+            }
+        });
+        doAnswer(inv -> {
+            Map<Long, Integer> quantities = inv.getArgument(0);
+            synchronized (stock) {
+                quantities.forEach((id, qty) -> stock.merge(id, qty, Integer::sum));
+            }
+            return null;
+        }).when(productStockRepository).incrementStock(anyMap());
+
+        Product product = Product.builder().id(PRODUCT_ID).name("Dhokra lamp").stock(STOCK).build();
+        CartRepository cartRepository = mock(CartRepository.class);
+        when(cartRepository.findByBuyerIdAndOrderIsNull(anyLong())).thenAnswer(inv ->
+                List.of(Cart.builder().product(product).quantity(PER_CART).build()));
+
+        StockReservationRepository reservationRepository = mock(StockReservationRepository.class);
+        when(reservationRepository.saveAll(anyList())).thenAnswer(inv -> {
+            reservations.addAll(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        when(reservationRepository.findByBuyerIdAndStatus(anyLong(), anyString())).thenAnswer(inv ->
+                rows(r -> r.getBuyerId().equals(inv.getArgument(0)) && r.getStatus().equals(inv.getArgument(1))));
+        when(reservationRepository.findByHoldKey(anyString())).thenAnswer(inv ->
+                rows(r -> r.getHoldKey().equals(inv.getArgument(0))));
+        when(reservationRepository.findByRazorpayOrderId(anyString())).thenAnswer(inv ->
+                rows(r -> inv.getArgument(0).equals(r.getRazorpayOrderId())));
+        when(reservationRepository.findExpiredCommitted(any())).thenAnswer(inv ->
+                rows(r -> StockReservation.COMMITTED.equals(r.getStatus())
+                        && r.getExpiresAt().isBefore(inv.getArgument(0))));
+        when(reservationRepository.attachRazorpayOrder(anyString(), anyString())).thenAnswer(inv -> {
+            rows(r -> r.getHoldKey().equals(inv.getArgument(0))).forEach(r -> r.setRazorpayOrderId(inv.getArgument(1)));
+            return 1;
+        });
+
+        reservationService = new StockReservationServiceImpl(reservationRepository, productStockRepository,
+                cartRepository, mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void retriedCheckoutHoldsStockOnce() {
+        reservationService.reserveCart(1L, "hold_a");
+        reservationService.reserveCart(1L, "hold_b");
+        reservationService.reserveCart(1L, "hold_c");
+
+        assertEquals(STOCK - PER_CART, stock.get(PRODUCT_ID));
+        assertEquals(PER_CART, heldQuantity());
+        assertEquals(Set.of("hold_c"), rows(r -> StockReservation.HELD.equals(r.getStatus())).stream()
+                .map(StockReservation::getHoldKey).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void latePaymentOnReplacedHoldWinsStockBack() {
+        reservationService.reserveCart(1L, "hold_a");
+        reservationService.attachRazorpayOrder("hold_a", "order_a");
+        reservationService.reserveCart(1L, "hold_b");
+
+        assertTrue(reservationService.commit("order_a"));
+        assertEquals(STOCK - 2 * PER_CART, stock.get(PRODUCT_ID));
+    }
+
+    @Test
+    void unclaimedCommittedStockIsReturned() {
+        reservationService.reserveCart(1L, "hold_a");
+        reservationService.attachRazorpayOrder("hold_a", "order_a");
+        assertTrue(reservationService.commit("order_a"));
+        reservations.forEach(r -> r.setExpiresAt(LocalDateTime.now().minusMinutes(1)));
+
+        reservationService.releaseExpired();
+
+        assertEquals(STOCK, stock.get(PRODUCT_ID));
+        assertTrue(rows(r -> !StockReservation.RELEASED.equals(r.getStatus())).isEmpty());
+    }
+
+    private List<StockReservation> rows(Predicate<StockReservation> filter) {
+        return reservations.stream().filter(filter).collect(Collectors.toList());
+    }
+
+    private int heldQuantity() {
+        return rows(r -> StockReservation.HELD.equals(r.getStatus())).stream()
+                .mapToInt(StockReservation::getQuantity).sum();
+    }
+}
@@ -0,0 +1,55 @@
+import { useCallback, useEffect, useRef, useState } from 'react'
+import { CursorPage } from '../types'
+
+// Loads a cursor-paginated listing one page at a time; loadMore() appends the next page.
+// Changing `key` (e.g. the selected filter and sort) starts again from the first page.
+export const useCursorList = <T>(fetchPage: (after?: string) => Promise<CursorPage<T>>, key = '') => {
+  const [items, setItems] = useState<T[]>([])
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
+  const [hasMore, setHasMore] = useState(false)
+  const [loading, setLoading] = useState(true)
+  const [loadingMore, setLoadingMore] = useState(false)
+
+  // Callers usually pass an inline function; keep the latest without re-running the first load
+  const fetchRef = useRef(fetchPage)
+  fetchRef.current = fetchPage
+
+  const reload = useCallback(async () => {
+    try {
+      setLoading(true)
+      const page = await fetchRef.current()
+      setItems(page.items)
+      setNextCursor(page.nextCursor)
+      setHasMore(page.hasMore)
+    } catch (error) {
+      console.error('Error fetching list:', error)
+      setItems([])
+      setHasMore(false)
+    } finally {
+      setLoading(false)
+    }
+  }, [])
+
+  const loadMore = useCallback(async () => {
+    if (!hasMore || !nextCursor || loadingMore) return
+    try {
+      setLoadingMore(true)
+      const page = await fetchRef.current(nextCursor)
+      setItems(prev => [...prev, ...page.items])
+      setNextCursor(page.nextCursor)
+      setHasMore(page.hasMore)
+    } catch (error) {
+      console.error('Error fetching more:', error)
+    } finally {
+      setLoadingMore(false)
+    }
+  }, [hasMore, nextCursor, loadingMore])
+
+  useEffect(() => {
+    reload()
+  }, [reload, key])
+
+  return { items, setItems, hasMore, loading, loadingMore, loadMore, reload }
+}
+
+export default useCursorList
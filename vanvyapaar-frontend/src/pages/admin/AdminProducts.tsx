@@ -1,7 +1,7 @@
-import { useState, useEffect } from 'react'
+import { useState } from 'react'
 import { motion } from 'framer-motion'
 import {
-  Container, Box, Typography, Card, CardContent, CardMedia,
+  Container, Box, Typography, Card, CardContent, CardMedia, Button,
   alpha, Stack, TextField, InputAdornment, IconButton,
   Table, TableBody, TableCell, TableContainer, TableHead, TableRow, Paper
 } from '@mui/material'
@@ -9,39 +9,24 @@ import { Search, Inventory, Delete } from '@mui/icons-material'
 import adminService from '../../services/adminService'
 import { Product } from '../../types'
 import { formatPrice } from '../../lib/utils'
+import useCursorList from '../../lib/useCursorList'
 import toast from 'react-hot-toast'
 import AnimatedBackground from '../../components/common/AnimatedBackground'
 import FloatingElements from '../../components/common/FloatingElements'
 import EnhancedCard from '../../components/common/EnhancedCard'
 
 const AdminProducts = () => {
-  const [products, setProducts] = useState<Product[]>([])
-  const [loading, setLoading] = useState(true)
   const [searchQuery, setSearchQuery] = useState('')
-
-  useEffect(() => {
-    fetchProducts()
-  }, [])
-
-  const fetchProducts = async () => {
-    try {
-      setLoading(true)
-      const data = await adminService.getAllProducts()
-      setProducts(Array.isArray(data) ? data : [])
-    } catch (error) {
-      console.error('Error fetching products:', error)
-      toast.error('Failed to load products')
-    } finally {
-      setLoading(false)
-    }
-  }
+  const { items: products, setItems: setProducts, loading, hasMore, loadingMore, loadMore, reload: fetchProducts } =
+    useCursorList<Product>((after) => adminService.getProductsPage(after, 50))
 
   const handleDelete = async (id: number) => {
     if (window.confirm('Are you sure?')) {
       try {
         await adminService.deleteProduct(id)
         toast.success('Product deleted')
-        fetchProducts()
+        // Drop the row in place so the pages loaded so far stay on screen
+        setProducts(prev => prev.filter(p => p.id !== id))
       } catch (error) {
         toast.error('Failed to delete product')
       }
@@ -113,7 +98,7 @@ const AdminProducts = () => {
 
       <Box sx={{ display: 'grid', gridTemplateColumns: { xs: '1fr', sm: 'repeat(3, 1fr)' }, gap: 3, mb: 4 }}>
         {[
-          { label: 'Total Products', value: products.length, color: '#A0826D' },
+          { label: hasMore ? 'Products Loaded' : 'Total Products', value: products.length, color: '#A0826D' },
           { label: 'In Stock', value: products.filter(p => p.stock > 0).length, color: '#10B981' },
           { label: 'Out of Stock', value: products.filter(p => p.stock === 0).length, color: '#EF4444' }
         ].map((stat, index) => (
@@ -177,6 +162,14 @@ const AdminProducts = () => {
           </Table>
         </TableContainer>
       )}
+
+      {hasMore && (
+        <Box sx={{ textAlign: 'center', mt: 3 }}>
+          <Button variant="outlined" onClick={loadMore} disabled={loadingMore} sx={{ color: '#A0826D', borderColor: '#A0826D', borderRadius: 2 }}>
+            {loadingMore ? 'Loading...' : 'Load more products'}
+          </Button>
+        </Box>
+      )}
     </Container>
     </Box>
   )
@@ -55,10 +55,7 @@ const BuyerDashboard = () => {
 
         // Fetch products
         try {
-          const products = await productService.getAllProducts()
-          const productsArray = Array.isArray(products) ? products : []
-          const featured = productsArray.filter(p => p.featured).slice(0, 6)
-          setRecommendedProducts(featured.length > 0 ? featured : productsArray.slice(0, 6))
+          setRecommendedProducts(await productService.getFeaturedProducts(6))
         } catch (error: any) {
           console.error('Error fetching products:', error)
           // If it's a 204 No Content, that's okay - just means no products yet
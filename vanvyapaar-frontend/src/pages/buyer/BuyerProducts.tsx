@@ -16,6 +16,7 @@ import { Product } from '../../types'
 import productService from '../../services/productService'
 import buyerService from '../../services/buyerService'
 import { formatPrice } from '../../lib/utils'
+import useCursorList from '../../lib/useCursorList'
 import { Link } from 'react-router-dom'
 import toast from 'react-hot-toast'
 
@@ -23,25 +24,29 @@ const BuyerProducts = () => {
   const { user } = useAuthStore()
   const { addToCart: addToCartStore } = useCartStore()
   const { addToWishlist: addToWishlistStore, removeFromWishlist, isInWishlist } = useWishlistStore()
-  const [products, setProducts] = useState<Product[]>([])
-  const [loading, setLoading] = useState(true)
   const [searchTerm, setSearchTerm] = useState('')
   const [category, setCategory] = useState('all')
   const [sortBy, setSortBy] = useState('name')
   const [viewMode, setViewMode] = useState<'grid' | 'list'>('grid')
+  const [seenCategories, setSeenCategories] = useState<string[]>([])
+
+  // One page at a time: price order comes from the server, a category from the catalog index
+  const serverSort = sortBy === 'price-low' ? 'price_asc' : sortBy === 'price-high' ? 'price_desc' : undefined
+  const { items: products, loading, hasMore, loadingMore, loadMore } = useCursorList<Product>(
+    (after) => category === 'all'
+      ? productService.getProductsPage(after, 20, serverSort)
+      : productService.browsePublicProducts({ category }, after),
+    `${category}|${serverSort}`
+  )
+
+  // The category menu keeps every category seen so far, not just those of the current filter
   useEffect(() => {
-    const fetchData = async () => {
-      try {
-        const productsData = await productService.getAllProducts()
-        setProducts(Array.isArray(productsData) ? productsData : [])
-      } catch (error) {
-        console.error('Error fetching data:', error)
-      } finally {
-        setLoading(false)
-      }
-    }
-    fetchData()
-  }, [user])
+    setSeenCategories(prev => {
+      const merged = new Set(prev)
+      products.forEach(p => p.category && merged.add(p.category))
+      return merged.size === prev.length ? prev : Array.from(merged)
+    })
+  }, [products])
 
   const toggleWishlist = async (productId: number) => {
     if (!user) {
@@ -79,7 +84,7 @@ const BuyerProducts = () => {
       }
     })
 
-  const categories = ['all', ...Array.from(new Set(products.map(p => p.category)))]
+  const categories = ['all', ...seenCategories]
 
   if (loading) {
     return (
@@ -496,6 +501,19 @@ const BuyerProducts = () => {
               ))}
             </Box>
           )}
+
+          {hasMore && (
+            <Box sx={{ textAlign: 'center' }}>
+              <Button
+                variant="outlined"
+                onClick={loadMore}
+                disabled={loadingMore}
+                sx={{ color: '#8B4513', borderColor: '#D4A574', borderRadius: 2 }}
+              >
+                {loadingMore ? 'Loading...' : 'Load more products'}
+              </Button>
+            </Box>
+          )}
         </Stack>
       </Container>
     </Box>
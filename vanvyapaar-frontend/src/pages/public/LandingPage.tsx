@@ -14,10 +14,8 @@ const LandingPage = () => {
   useEffect(() => {
     const fetchFeaturedProducts = async () => {
       try {
-        const products = await productService.getPublicProducts()
-        // Get featured products or first 8 products
-        const featured = products.filter(p => p.featured).slice(0, 8) || products.slice(0, 8)
-        setFeaturedProducts(featured)
+        // Featured products or, failing that, the newest 8 - one small page either way
+        setFeaturedProducts(await productService.getFeaturedProducts(8))
       } catch (error) {
         console.error('Error fetching products:', error)
       } finally {
@@ -44,7 +44,7 @@ const ProductDetailPage = () => {
 
   useEffect(() => {
     if (product) {
-      fetchRelatedProducts(product.category)
+      fetchRelatedProducts(product.category, product.id)
       fetchReviews(product.id)
     }
   }, [product])
@@ -61,13 +61,9 @@ const ProductDetailPage = () => {
     }
   }
 
-  const fetchRelatedProducts = async (category: string) => {
+  const fetchRelatedProducts = async (category: string, productId: number) => {
     try {
-      const allProducts = await productService.getPublicProducts()
-      const related = allProducts
-        .filter(p => p.category === category && p.id !== product?.id)
-        .slice(0, 4)
-      setRelatedProducts(related)
+      setRelatedProducts(await productService.getRelatedProducts(category, productId, 4))
     } catch (error) {
       console.error('Error fetching related products:', error)
     }
@@ -17,12 +17,13 @@ import productService from '../../services/productService'
 import { useAuthStore } from '../../store/authStore'
 import { useCartStore } from '../../store/cartStore'
 import { formatPrice, debounce } from '../../lib/utils'
+import useCursorList from '../../lib/useCursorList'
 import toast from 'react-hot-toast'
 
 const ProductsPage = () => {
-  const [products, setProducts] = useState<Product[]>([])
   const [filteredProducts, setFilteredProducts] = useState<Product[]>([])
-  const [loading, setLoading] = useState(true)
+  const [categoryCounts, setCategoryCounts] = useState<Record<string, number>>({})
+  const [catalogSize, setCatalogSize] = useState(0)
   const [searchParams, setSearchParams] = useSearchParams()
   const [viewMode, setViewMode] = useState<'grid' | 'list'>('grid')
   const [favorites, setFavorites] = useState<Set<string>>(new Set())
@@ -34,6 +35,13 @@ const ProductsPage = () => {
     sortBy: 'name'
   })
 
+  // The category is filtered by the catalog index and pages load on demand; search, price and sort apply to what is loaded
+  const selectedCategory = filters.category && filters.category !== 'All Categories' ? filters.category : undefined
+  const { items: products, loading, hasMore, loadingMore, loadMore } = useCursorList<Product>(
+    (after) => productService.browsePublicProducts({ category: selectedCategory }, after, 24),
+    selectedCategory || ''
+  )
+
   const navigate = useNavigate()
   const { user, isAuthenticated } = useAuthStore()
   const { addToCart } = useCartStore()
@@ -81,46 +89,32 @@ const ProductsPage = () => {
     'Paintings': 'https://1.bp.blogspot.com/-sRPIhDDYOZM/XoRt4kfIKPI/AAAAAAAACrQ/pELRowS2rgQW2fC7pbuI0DRfAz9Xn3yfQCK4BGAsYHg/warli_painting-750x410.jpg'
   }
 
-  // Calculate category counts dynamically from products
-  const getCategoryCounts = () => {
-    const counts: Record<string, number> = {}
-    products.forEach(product => {
-      counts[product.category] = (counts[product.category] || 0) + 1
-    })
-    return counts
-  }
+  // Facet keys are lower-cased; show them the way categories are written elsewhere
+  const displayName = (key: string) => key.replace(/\b\w/g, c => c.toUpperCase())
 
-  const categoryCounts = getCategoryCounts()
-  
   const categories = [
-    { name: 'All Categories', count: products.length, image: '' },
-    ...Object.keys(categoryCounts).map(cat => ({
-      name: cat,
-      count: categoryCounts[cat],
-      image: categoryImages[cat as keyof typeof categoryImages] || ''
+    { name: 'All Categories', count: catalogSize, image: '' },
+    ...Object.keys(categoryCounts).map(key => ({
+      name: displayName(key),
+      count: categoryCounts[key],
+      image: categoryImages[displayName(key) as keyof typeof categoryImages] || ''
     }))
   ]
+  const matchingCount = selectedCategory ? categoryCounts[selectedCategory.toLowerCase()] || 0 : catalogSize
 
   useEffect(() => {
-    fetchProducts()
+    productService.getCategoryCounts()
+      .then(({ counts, total }) => {
+        setCategoryCounts(counts)
+        setCatalogSize(total)
+      })
+      .catch(error => console.error('Error fetching categories:', error))
   }, [])
 
   useEffect(() => {
     applyFilters()
   }, [products, filters])
 
-  const fetchProducts = async () => {
-    try {
-      setLoading(true)
-      const data = await productService.getPublicProducts()
-      setProducts(data)
-    } catch (error) {
-      console.error('Error fetching products:', error)
-    } finally {
-      setLoading(false)
-    }
-  }
-
   const applyFilters = () => {
     let filtered = [...products]
 
@@ -133,11 +127,6 @@ const ProductsPage = () => {
       )
     }
 
-    // Category filter
-    if (filters.category && filters.category !== 'All Categories') {
-      filtered = filtered.filter(product => product.category === filters.category)
-    }
-
     // Price filter
     if (filters.minPrice) {
       filtered = filtered.filter(product => product.price >= parseFloat(filters.minPrice))
@@ -344,7 +333,7 @@ const ProductsPage = () => {
                   fontWeight: 400
                 }}
               >
-                {products.length}+ unique handcrafted products from talented artisans.
+                {catalogSize}+ unique handcrafted products from talented artisans.
                 <br />
                 <Box component="span" sx={{ color: '#FFD700', fontWeight: 'bold' }}>
                   Each piece tells a story of tradition & craftsmanship
@@ -817,7 +806,7 @@ const ProductsPage = () => {
                   justifyContent="space-between"
                 >
                   <Typography variant="body1" sx={{ fontWeight: 'medium', color: 'text.secondary' }}>
-                    Showing {filteredProducts.length} of {products.length} products
+                    Showing {filteredProducts.length} of {matchingCount} products
                   </Typography>
 
                   <Stack direction="row" spacing={2} alignItems="center">
@@ -960,6 +949,19 @@ const ProductsPage = () => {
                 ))}
               </Box>
             )}
+
+            {hasMore && (
+              <Box sx={{ textAlign: 'center', mt: 4 }}>
+                <Button
+                  variant="outlined"
+                  onClick={loadMore}
+                  disabled={loadingMore}
+                  sx={{ borderRadius: 3, px: 4, color: '#8B4513', borderColor: '#D4A574' }}
+                >
+                  {loadingMore ? 'Loading...' : 'Load more products'}
+                </Button>
+              </Box>
+            )}
           </Box>
         </Box>
       </Container>
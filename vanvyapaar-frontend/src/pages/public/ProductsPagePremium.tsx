@@ -1,4 +1,4 @@
-import { useState, useEffect } from 'react'
+import { useState } from 'react'
 import { useSearchParams, Link } from 'react-router-dom'
 import { motion } from 'framer-motion'
 import {
@@ -15,11 +15,11 @@ import {
 import { Product } from '../../types'
 import productService from '../../services/productService'
 import { formatPrice, debounce } from '../../lib/utils'
+import useCursorList from '../../lib/useCursorList'
 
 const ProductsPagePremium = () => {
-  const [products, setProducts] = useState<Product[]>([])
-  const [filteredProducts, setFilteredProducts] = useState<Product[]>([])
-  const [loading, setLoading] = useState(true)
+  const { items: filteredProducts, loading, hasMore, loadingMore, loadMore } =
+    useCursorList<Product>((after) => productService.getProductsPage(after))
   const [searchParams, setSearchParams] = useSearchParams()
   const [viewMode, setViewMode] = useState<'grid' | 'list'>('grid')
   const [favorites, setFavorites] = useState<Set<string>>(new Set())
@@ -53,23 +53,6 @@ const ProductsPagePremium = () => {
     { name: 'Paintings', count: 12, image: '', icon: '🎨' }
   ]
 
-  useEffect(() => {
-    fetchProducts()
-  }, [])
-
-  const fetchProducts = async () => {
-    try {
-      setLoading(true)
-      const data = await productService.getAllProducts()
-      setProducts(data)
-      setFilteredProducts(data)
-    } catch (error) {
-      console.error('Error fetching products:', error)
-    } finally {
-      setLoading(false)
-    }
-  }
-
   return (
     <Container maxWidth="xl" sx={{ py: 4 }}>
       <Typography variant="h4" sx={{ mb: 4, textAlign: 'center' }}>
@@ -128,6 +111,14 @@ const ProductsPagePremium = () => {
           ))
         )}
       </Box>
+
+      {hasMore && !loading && (
+        <Box sx={{ textAlign: 'center', mt: 4 }}>
+          <Button variant="outlined" onClick={loadMore} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load more'}
+          </Button>
+        </Box>
+      )}
     </Container>
   )
 }
@@ -1,5 +1,5 @@
 import api from '../lib/api'
-import { Product, Order, Seller, Buyer } from '../types'
+import { Product, Order, Seller, Buyer, CursorPage } from '../types'
 
 export interface AdminDashboardMetrics {
   totalSellers: number
@@ -88,8 +88,8 @@ export const adminService = {
   },
 
   // Products
-  getAllProducts: async (): Promise<Product[]> => {
-    const response = await api.get('/admin/products')
+  getProductsPage: async (after?: string, limit = 20, sort?: string): Promise<CursorPage<Product>> => {
+    const response = await api.get('/admin/products', { params: { after, limit, sort } })
     return response.data
   },
 
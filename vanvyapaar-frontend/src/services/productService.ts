@@ -1,21 +1,51 @@
 import api from '../lib/api'
-import { Product, ProductFilters } from '../types'
+import { CursorPage, Product, ProductFilters } from '../types'
 
 export const productService = {
   // Public product endpoints (no authentication required)
-  getPublicProducts: async (): Promise<Product[]> => {
-    const response = await api.get('/public/products')
+  // Listings are cursor-paginated; pass the previous page's nextCursor as `after`
+  getPublicProductsPage: async (after?: string, limit = 20, sort?: string): Promise<CursorPage<Product>> => {
+    const response = await api.get('/public/products', { params: { after, limit, sort } })
     return response.data
   },
 
+  // Faceted browse served from the catalog index; only the requested page is fetched
+  browsePublicProducts: async (
+    filter: { category?: string; featured?: boolean },
+    after?: string,
+    limit = 20
+  ): Promise<CursorPage<Product>> => {
+    const response = await api.get('/public/products/browse', { params: { ...filter, after, limit } })
+    return response.data.page
+  },
+
+  // Product count per category (lower-cased names) and in total, from the facet index - no products are sent
+  getCategoryCounts: async (): Promise<{ counts: Record<string, number>; total: number }> => {
+    const response = await api.get('/public/products/browse', { params: { limit: 1 } })
+    return { counts: response.data.facets?.category || {}, total: response.data.totalMatches || 0 }
+  },
+
+  // Featured products for the home page, or the newest ones when nothing is featured
+  getFeaturedProducts: async (limit = 8): Promise<Product[]> => {
+    const featured = await productService.browsePublicProducts({ featured: true }, undefined, limit)
+    if (featured.items.length > 0) return featured.items
+    return (await productService.getPublicProductsPage(undefined, limit, 'newest')).items
+  },
+
+  // Other products in the same category; asks for one extra in case the current product is among them
+  getRelatedProducts: async (category: string, excludeId: number, limit = 4): Promise<Product[]> => {
+    const page = await productService.browsePublicProducts({ category }, undefined, limit + 1)
+    return page.items.filter(p => p.id !== excludeId).slice(0, limit)
+  },
+
   getPublicProduct: async (id: number): Promise<Product> => {
     const response = await api.get(`/public/products/${id}`)
     return response.data
   },
 
   // Authenticated product endpoints
-  getAllProducts: async (): Promise<Product[]> => {
-    const response = await api.get('/buyer/products')
+  getProductsPage: async (after?: string, limit = 20, sort?: string): Promise<CursorPage<Product>> => {
+    const response = await api.get('/buyer/products', { params: { after, limit, sort } })
     return response.data
   },
 
@@ -29,8 +59,8 @@ export const productService = {
     return response.data
   },
 
-  filterByCategory: async (category: string): Promise<Product[]> => {
-    const response = await api.get(`/buyer/filter/category?category=${encodeURIComponent(category)}`)
+  filterByCategory: async (category: string, after?: string, limit = 20): Promise<CursorPage<Product>> => {
+    const response = await api.get('/buyer/filter/category', { params: { category, after, limit } })
     return response.data
   },
 
@@ -1,6 +1,7 @@
 import { create } from 'zustand'
 import { persist } from 'zustand/middleware'
 import { Notification, notificationService } from '../services/notificationService'
+import { api } from '../lib/api'
 import toast from 'react-hot-toast'
 
 interface NotificationState {
@@ -18,12 +19,12 @@ interface NotificationState {
   addNotification: (notification: Notification) => void
   clearNotifications: () => void
   
-  // Real-time updates
+  // Real-time updates (server-sent events; names kept for existing callers)
   startPolling: (userId: number, userRole: string) => void
   stopPolling: () => void
 }
 
-let pollingInterval: number | null = null
+let eventSource: EventSource | null = null
 
 export const useNotificationStore = create<NotificationState>()(
   persist(
@@ -148,21 +149,24 @@ export const useNotificationStore = create<NotificationState>()(
       },
 
       startPolling: (userId: number, userRole: string) => {
-        // Stop existing polling
-        if (pollingInterval) {
-          clearInterval(pollingInterval)
-        }
-        
-        // Start new polling every 30 seconds
-        pollingInterval = setInterval(() => {
-          get().fetchUnreadCount(userId, userRole)
-        }, 30000)
+        get().stopPolling()
+
+        // Server pushes new notifications and unread counts; the browser reconnects on its own
+        eventSource = new EventSource(`${api.defaults.baseURL}/api/notifications/stream/${userId}/${userRole}`)
+        eventSource.addEventListener('notification', (event) => {
+          const notification = JSON.parse((event as MessageEvent).data) as Notification
+          set({ notifications: [notification, ...get().notifications.filter(n => n.id !== notification.id)] })
+        })
+        eventSource.addEventListener('count', (event) => {
+          const { count } = JSON.parse((event as MessageEvent).data)
+          set({ unreadCount: count })
+        })
       },
 
       stopPolling: () => {
-        if (pollingInterval) {
-          clearInterval(pollingInterval)
-          pollingInterval = null
+        if (eventSource) {
+          eventSource.close()
+          eventSource = null
         }
       }
     }),
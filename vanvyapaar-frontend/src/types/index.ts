@@ -115,6 +115,14 @@ export interface ApiResponse<T> {
   error?: string
 }
 
+// One page of a keyset-paginated listing; pass nextCursor back as `after` while hasMore is true
+export interface CursorPage<T> {
+  items: T[]
+  nextCursor: string | null
+  hasMore: boolean
+  limit: number
+}
+
 export interface ProductFilters {
   category?: string
   minPrice?: number